@@ -0,0 +1,53 @@
+package io.github.jamsesso.jsonlogic.benchmarks;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jamsesso.jsonlogic.CompiledRule;
+import io.github.jamsesso.jsonlogic.JsonLogic;
+import io.github.jamsesso.jsonlogic.JsonLogicException;
+
+/** Rules over 100k telemetry samples held in a {@code double[]}, which are read through a view rather than copied. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArrayBenchmarks {
+	private Map<String, Object> data;
+	private CompiledRule        index;
+	private CompiledRule        some;
+
+	@Setup
+	public void setup() throws JsonLogicException {
+		final var samples = new double[100_000];
+		Arrays.setAll(samples, i -> i % 500);
+		data  = Map.of("samples", samples);
+		index = new JsonLogic().compile("{\">\":[{\"var\":\"samples.99999\"},400]}");
+		some  = new JsonLogic().compile("{\"some\":[{\"var\":\"samples\"},{\">\":[{\"var\":\"\"},1000]}]}");
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Object varIndex() throws JsonLogicException {
+		return index.evaluate(data);
+	}
+
+	@Benchmark
+	public Object someScan() throws JsonLogicException {
+		return some.evaluate(data);
+	}
+}
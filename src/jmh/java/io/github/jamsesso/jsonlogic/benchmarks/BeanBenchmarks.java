@@ -0,0 +1,59 @@
+package io.github.jamsesso.jsonlogic.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jamsesso.jsonlogic.CompiledRule;
+import io.github.jamsesso.jsonlogic.JsonLogic;
+import io.github.jamsesso.jsonlogic.JsonLogicException;
+
+/** A rule on a record read through its generated getters, and on the maps it would otherwise be converted to first. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeanBenchmarks {
+	public record Address(String city, String country) { }
+	public record Customer(String name, int age, Address address) { }
+	public record Order(String id, double total, Customer customer, List<String> tags) { }
+
+	private Order        order;
+	private CompiledRule rule;
+
+	@Setup
+	public void setup() throws JsonLogicException {
+		order = new Order("o-17", 120.5, new Customer("Zoë", 31, new Address("Ottawa", "CA")), List.of("priority", "gift"));
+		rule  = new JsonLogic().compile("{\"and\":[{\"==\":[{\"var\":\"customer.address.country\"},\"CA\"]},{\">\":[{\"var\":\"total\"},100]},"
+			+ "{\">=\":[{\"var\":\"customer.age\"},18]}]}");
+	}
+
+	private static Map<String, Object> toMap(final Order o) {
+		final var c = o.customer();
+		return Map.of("id", o.id(), "total", o.total(), "tags", o.tags(), "customer", Map.of("name", c.name(), "age", c.age(),
+			"address", Map.of("city", c.address().city(), "country", c.address().country())));
+	}
+
+	@Benchmark
+	public Object record() throws JsonLogicException {
+		return rule.evaluate(order);
+	}
+
+	@Benchmark
+	public Object convertedToMaps() throws JsonLogicException {
+		return rule.evaluate(toMap(order));
+	}
+}
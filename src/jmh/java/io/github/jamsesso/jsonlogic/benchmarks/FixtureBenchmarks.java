@@ -0,0 +1,57 @@
+package io.github.jamsesso.jsonlogic.benchmarks;
+
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.gson.JsonParser;
+
+import io.github.jamsesso.jsonlogic.JsonLogic;
+import io.github.jamsesso.jsonlogic.JsonLogicException;
+import io.github.jamsesso.jsonlogic.utils.JsonValueExtractor;
+
+/** Replays every case of {@code fixtures.json}; one operation is one pass over the whole corpus. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FixtureBenchmarks {
+	private record Fixture(String rule, Object data) { }
+
+	private final JsonLogic jsonLogic = new JsonLogic();
+	private final List<Fixture> fixtures = new ArrayList<>();
+
+	@Setup
+	public void setup() {
+		try (var in = FixtureBenchmarks.class.getClassLoader().getResourceAsStream("fixtures.json")) {
+			for (final var element : JsonParser.parseReader(new InputStreamReader(in, StandardCharsets.UTF_8)).getAsJsonArray()) {
+				if (!element.isJsonArray()) continue;
+				final var array = element.getAsJsonArray();
+				fixtures.add(new Fixture(array.get(0).toString(), JsonValueExtractor.extract(array.get(1))));
+			}
+		} catch (final Exception e) {
+			throw new IllegalStateException("fixtures.json not readable", e);
+		}
+	}
+
+	@Benchmark
+	public void replay(final Blackhole bh) throws JsonLogicException {
+		for (final var fixture : fixtures) bh.consume(jsonLogic.apply(fixture.rule(), fixture.data()));
+	}
+}
@@ -0,0 +1,61 @@
+package io.github.jamsesso.jsonlogic.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jamsesso.jsonlogic.CompiledRule;
+import io.github.jamsesso.jsonlogic.JsonLogic;
+import io.github.jamsesso.jsonlogic.JsonLogicException;
+
+/** A 3000 entry allow-list as a literal array, looked up by hash, and the same list from the data, scanned element by element. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InBenchmarks {
+	private Map<String, Object> data;
+	private CompiledRule        literal;
+	private CompiledRule        variable;
+	private CompiledRule        orChain;
+
+	@Setup
+	public void setup() throws JsonLogicException {
+		final var ids = IntStream.range(0, 3000).mapToObj(i -> "sku-" + i).toList();
+		final var array = ids.stream().map(id -> "\"" + id + "\"").collect(Collectors.joining(","));
+		data     = Map.of("id", "sku-2999", "allowed", ids, "country", "SE");
+		literal  = new JsonLogic().compile("{\"in\":[{\"var\":\"id\"},[" + array + "]]}");
+		variable = new JsonLogic().compile("{\"in\":[{\"var\":\"id\"},{\"var\":\"allowed\"}]}");
+		orChain  = new JsonLogic().compile("{\"or\":[" + IntStream.range(0, 20).mapToObj(i -> "{\"==\":[{\"var\":\"country\"},\"C" + i + "\"]}")
+			.collect(Collectors.joining(",")) + ",{\"==\":[{\"var\":\"country\"},\"SE\"]}]}");
+	}
+
+	@Benchmark
+	public Object literalArray() throws JsonLogicException {
+		return literal.evaluate(data);
+	}
+
+	@Benchmark
+	public Object dataArray() throws JsonLogicException {
+		return variable.evaluate(data);
+	}
+
+	@Benchmark
+	public Object equalityChain() throws JsonLogicException {
+		return orChain.evaluate(data);
+	}
+}
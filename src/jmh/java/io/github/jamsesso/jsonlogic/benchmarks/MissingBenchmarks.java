@@ -0,0 +1,56 @@
+package io.github.jamsesso.jsonlogic.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jamsesso.jsonlogic.CompiledRule;
+import io.github.jamsesso.jsonlogic.JsonLogic;
+import io.github.jamsesso.jsonlogic.JsonLogicException;
+
+/** {@code missing} and {@code missing_some} on five keys of a customer document with 2000 fields, 200 of them nested one level. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MissingBenchmarks {
+	private Map<String, Object> customer;
+	private CompiledRule        missing;
+	private CompiledRule        missingSome;
+
+	@Setup
+	public void setup() throws JsonLogicException {
+		customer = new HashMap<>();
+		for (var i = 0; i < 1800; i++) customer.put("field" + i, i);
+		for (var i = 0; i < 20; i++) {
+			final var group = new HashMap<String, Object>();
+			for (var j = 0; j < 10; j++) group.put("f" + j, j);
+			customer.put("group" + i, group);
+		}
+		missing     = new JsonLogic().compile("{\"missing\":[\"field1\",\"field900\",\"group3.f7\",\"group19.f0\",\"email\"]}");
+		missingSome = new JsonLogic().compile("{\"missing_some\":[2,[\"phone\",\"field17\",\"group4.f2\",\"fax\",\"email\"]]}");
+	}
+
+	@Benchmark
+	public Object missing() throws JsonLogicException {
+		return missing.evaluate(customer);
+	}
+
+	@Benchmark
+	public Object missingSome() throws JsonLogicException {
+		return missingSome.evaluate(customer);
+	}
+}
@@ -0,0 +1,94 @@
+package io.github.jamsesso.jsonlogic.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jamsesso.jsonlogic.JsonLogic;
+import io.github.jamsesso.jsonlogic.JsonLogicException;
+
+/** One rule per built-in operator, applied to the same record. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperatorBenchmarks {
+	static final Map<String, String> RULES = new LinkedHashMap<>();
+	static {
+		RULES.put("if"          , "{\"if\":[{\"<\":[{\"var\":\"a\"},0]},\"negative\",{\"<\":[{\"var\":\"a\"},10]},\"small\",\"large\"]}");
+		RULES.put("and"         , "{\"and\":[{\"var\":\"t\"},true,{\"var\":\"a\"},\"x\"]}");
+		RULES.put("or"          , "{\"or\":[false,0,\"\",{\"var\":\"t\"}]}");
+		RULES.put("=="          , "{\"==\":[{\"var\":\"a\"},\"5\"]}");
+		RULES.put("==="         , "{\"===\":[{\"var\":\"s\"},\"apple\"]}");
+		RULES.put("<"           , "{\"<\":[{\"var\":\"a\"},{\"var\":\"b\"}]}");
+		RULES.put("<=between"   , "{\"<=\":[1,{\"var\":\"a\"},10]}");
+		RULES.put("+"           , "{\"+\":[{\"var\":\"a\"},{\"var\":\"b\"},3,4]}");
+		RULES.put("-"           , "{\"-\":[{\"var\":\"b\"},{\"var\":\"a\"}]}");
+		RULES.put("*"           , "{\"*\":[{\"var\":\"a\"},{\"-\":[{\"var\":\"b\"},1]}]}");
+		RULES.put("/"           , "{\"/\":[{\"var\":\"b\"},{\"var\":\"a\"}]}");
+		RULES.put("%"           , "{\"%\":[{\"var\":\"b\"},3]}");
+		RULES.put("min"         , "{\"min\":[{\"var\":\"a\"},{\"var\":\"b\"},7]}");
+		RULES.put("max"         , "{\"max\":[{\"var\":\"a\"},{\"var\":\"b\"},7]}");
+		RULES.put("map"         , "{\"map\":[{\"var\":\"list\"},{\"*\":[{\"var\":\"\"},2]}]}");
+		RULES.put("filter"      , "{\"filter\":[{\"var\":\"list\"},{\">=\":[{\"var\":\"\"},10]}]}");
+		RULES.put("reduce"      , "{\"reduce\":[{\"var\":\"list\"},{\"+\":[{\"var\":\"current\"},{\"var\":\"accumulator\"}]},0]}");
+		RULES.put("missing"     , "{\"missing\":[\"a\",\"x\",\"d1.d2.d3\"]}");
+		RULES.put("missing_some", "{\"missing_some\":[1,[\"x\",\"y\",\"a\"]]}");
+		RULES.put("merge"       , "{\"merge\":[{\"var\":\"list\"},[1,2],3]}");
+		RULES.put("cat"         , "{\"cat\":[\"Hello \",{\"var\":\"s\"},\" number \",{\"var\":\"a\"}]}");
+		RULES.put("var1"        , "{\"var\":\"a\"}");
+		RULES.put("var3"        , "{\"var\":\"d1.d2.d3\"}");
+		RULES.put("var5"        , "{\"var\":\"d1.d2.d3.d4.d5\"}");
+		RULES.put("var-default" , "{\"var\":[\"nope\",42]}");
+	}
+
+	@Param({"if", "and", "or", "==", "===", "<", "<=between", "+", "-", "*", "/", "%", "min", "max", "map", "filter", "reduce",
+		"missing", "missing_some", "merge", "cat", "var1", "var3", "var5", "var-default"})
+	public String operator;
+
+	private final JsonLogic jsonLogic = new JsonLogic();
+	private String rule;
+	private Map<String, Object> data;
+
+	@Setup
+	public void setup() {
+		rule = RULES.get(operator);
+		data = record();
+	}
+
+	static Map<String, Object> record() {
+		final Map<String, Object> data = new LinkedHashMap<>();
+		data.put("a", 5.0);
+		data.put("b", 12.0);
+		data.put("s", "apple");
+		data.put("t", true);
+		final List<Object> list = new ArrayList<>();
+		for (var i = 0; i < 20; i++) list.add((double) i);
+		data.put("list", list);
+		Map<String, Object> nested = Map.of("d5", "leaf");
+		for (var i = 4; i >= 1; i--) nested = Map.of("d" + i, nested);
+		data.putAll(nested);
+		return data;
+	}
+
+	@Benchmark
+	public Object apply() throws JsonLogicException {
+		return jsonLogic.apply(rule, data);
+	}
+}
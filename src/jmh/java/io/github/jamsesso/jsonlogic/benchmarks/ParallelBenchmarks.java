@@ -0,0 +1,72 @@
+package io.github.jamsesso.jsonlogic.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jamsesso.jsonlogic.JsonLogic;
+import io.github.jamsesso.jsonlogic.JsonLogicException;
+
+/**
+ * Scaling of {@link JsonLogic#applyParallel} over an in-memory dataset; one operation is one pass over all records.
+ * Near-linear scaling shows as the time at {@code threads=n} staying close to {@code 1/n} of the time at {@code threads=1}.
+ * The default of 10M records needs a few GB of heap, fewer can be given with {@code -p records=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms6g", "-Xmx6g" })
+public class ParallelBenchmarks {
+	private static final String RULE = "{\"and\":[{\">=\":[{\"var\":\"age\"},18]},{\"in\":[{\"var\":\"country\"},[\"DE\",\"FR\",\"IT\"]]},{\"<\":[{\"*\":[{\"var\":\"amount\"},1.19]},1000]}]}";
+	private static final String[] COUNTRIES = { "DE", "FR", "IT", "US", "JP" };
+
+	@Param({ "1", "2", "4", "8", "16", "32" })
+	public int threads;
+
+	@Param("10000000")
+	public int records;
+
+	private final JsonLogic jsonLogic = new JsonLogic();
+	private List<Object>    data;
+	private ForkJoinPool    pool;
+
+	@Setup
+	public void setup() {
+		data = new ArrayList<>(records);
+		for (var i = 0; i < records; i++) data.add(Map.of("age", i % 90, "country", COUNTRIES[i % COUNTRIES.length], "amount", (double) (i % 2000)));
+		pool = new ForkJoinPool(threads);
+	}
+
+	@TearDown
+	public void tearDown() { pool.close(); }
+
+	@Benchmark
+	public List<Object> ordered() throws JsonLogicException {
+		return jsonLogic.applyParallel(RULE, data, pool);
+	}
+
+	@Benchmark
+	public long unordered() throws JsonLogicException {
+		final var matches = new LongAdder();
+		jsonLogic.applyParallel(RULE, data.spliterator(), pool, (result, index) -> { if (Boolean.TRUE.equals(result)) matches.increment(); });
+		return matches.sum();
+	}
+}
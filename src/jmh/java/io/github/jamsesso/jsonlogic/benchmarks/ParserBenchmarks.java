@@ -0,0 +1,97 @@
+package io.github.jamsesso.jsonlogic.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jamsesso.jsonlogic.PathSegment;
+import io.github.jamsesso.jsonlogic.ast.JsonLogicParseException;
+import io.github.jamsesso.jsonlogic.ast.JsonLogicParser;
+import io.github.jamsesso.jsonlogic.ast.JsonParserBytes;
+import io.github.jamsesso.jsonlogic.ast.JsonParserString;
+import io.github.jamsesso.jsonlogic.ast.Projection;
+
+/** Text or UTF-8 bytes to value tree ({@link JsonParserString}, {@link JsonParserBytes}) and value tree to rule AST ({@link JsonLogicParser}). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmarks {
+	@Param({"small", "medium", "document"})
+	public String input;
+
+	private String text;
+	private byte[] bytes;
+	private Object tree;
+
+	/** Two fields of the document, as read by a rule on {@code field7.score} and {@code field150.tags.0}. */
+	private static final Projection PROJECTION = Projection.of(List.of(List.of("field7", "score"), List.of("field150", "tags", "0")));
+
+	@Setup
+	public void setup() {
+		text = switch (input) {
+		case "small"  -> OperatorBenchmarks.RULES.get("==");
+		case "medium" -> "{\"and\":[" + String.join(",", OperatorBenchmarks.RULES.values()) + "]}";
+		default       -> document();
+		};
+		bytes = text.getBytes(StandardCharsets.UTF_8);
+		tree  = JsonParserString.parse(text);
+	}
+
+	private static String document() {
+		final var sb = new StringBuilder("{");
+		for (var i = 0; i < 200; i++) {
+			if (i > 0) sb.append(',');
+			sb.append("\"field").append(i).append("\":{\"id\":").append(i).append(",\"name\":\"name \\\"").append(i)
+			  .append("\\\"\",\"score\":").append(i * 1.25).append(",\"active\":").append(i % 2 == 0).append(",\"tags\":[\"a\",\"b\",null]}");
+		}
+		return sb.append('}').toString();
+	}
+
+	@Benchmark
+	public Object parseJson() {
+		return JsonParserString.parse(text);
+	}
+
+	/** What parsing a payload received as bytes used to cost: decoding it first. */
+	@Benchmark
+	public Object parseDecoded() {
+		return JsonParserString.parse(new String(bytes, StandardCharsets.UTF_8));
+	}
+
+	@Benchmark
+	public Object parseBytes() {
+		return JsonParserBytes.parse(bytes);
+	}
+
+	@Benchmark
+	public Object parseStream() throws IOException {
+		return JsonParserBytes.parse(new ByteArrayInputStream(bytes));
+	}
+
+	@Benchmark
+	public Object parseProjected() {
+		return JsonParserBytes.parse(bytes, 0, bytes.length, PROJECTION);
+	}
+
+	@Benchmark
+	public Object parseLogic() throws JsonLogicParseException {
+		return JsonLogicParser.parse(tree, PathSegment.ROOT);
+	}
+}
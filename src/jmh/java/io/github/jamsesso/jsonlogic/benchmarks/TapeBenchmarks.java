@@ -0,0 +1,72 @@
+package io.github.jamsesso.jsonlogic.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.jamsesso.jsonlogic.CompiledRule;
+import io.github.jamsesso.jsonlogic.JsonLogic;
+import io.github.jamsesso.jsonlogic.JsonLogicException;
+import io.github.jamsesso.jsonlogic.ast.JsonParserBytes;
+import io.github.jamsesso.jsonlogic.ast.JsonTape;
+
+/** A {@code var} lookup into a document of some megabytes, on its {@link JsonTape} and on the maps and lists the parser builds. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TapeBenchmarks {
+	private byte[]       bytes;
+	private Object       tape;
+	private Object       parsed;
+	private CompiledRule rule;
+
+	@Setup
+	public void setup() throws JsonLogicException {
+		final var sb = new StringBuilder("{\"accounts\":{");
+		for (var i = 0; i < 20_000; i++) {
+			if (i > 0) sb.append(',');
+			sb.append("\"acct").append(i).append("\":{\"id\":").append(i).append(",\"owner\":{\"name\":\"owner \\\"").append(i)
+			  .append("\\\"\",\"country\":\"").append(i % 2 == 0 ? "CA" : "DE").append("\"},\"balance\":").append(i * 10.5)
+			  .append(",\"history\":[").append(i).append(',').append(i + 1).append(",{\"note\":\"opened\"}]}");
+		}
+		bytes  = sb.append("}}").toString().getBytes(StandardCharsets.UTF_8);
+		tape   = JsonTape.parse(bytes);
+		parsed = JsonParserBytes.parse(bytes);
+		rule   = new JsonLogic().compile("{\"==\":[{\"var\":\"accounts.acct17351.owner.country\"},\"DE\"]}");
+	}
+
+	@Benchmark
+	public Object varTape() throws JsonLogicException {
+		return rule.evaluate(tape);
+	}
+
+	@Benchmark
+	public Object varParsed() throws JsonLogicException {
+		return rule.evaluate(parsed);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Object index() {
+		return JsonTape.parse(bytes);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Object parse() {
+		return JsonParserBytes.parse(bytes);
+	}
+}
@@ -0,0 +1,33 @@
+package io.github.jamsesso.jsonlogic;
+
+import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.ast.Projection;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+
+/** Evaluation state for applying one rule to consecutive records on one thread, including the slots of shared subexpressions. */
+final class Batch {
+	private final CompiledNode       root;
+	private final Frame              frame;
+	private final Projection         projection;
+
+	Batch(final CompiledNode rule, final Projection projection, final JsonLogicEvaluator scope) {
+		this.root       = rule;
+		this.frame      = new Frame(rule, scope);
+		this.projection = projection;
+	}
+
+	/** Same result as {@link JsonLogic#apply(Object, Object)}; {@code datum} given as text, bytes or a stream is parsed first. */
+	Object apply(final Object datum) throws JsonLogicException {
+		return applyParsed(JSON.parseData(datum, projection));
+	}
+
+	/** Parts of a record the rule reads. */
+	Projection projection() { return projection; }
+
+	/** {@code datum} is a record as is, text included. */
+	Object applyParsed(final Object datum) throws JsonLogicException {
+		final var scope = frame.enter(JSON.plain(datum));
+		try { return root.evaluate(scope); } finally { frame.exit(scope); }
+	}
+}
@@ -0,0 +1,251 @@
+package io.github.jamsesso.jsonlogic;
+
+import static java.lang.constant.ConstantDescs.BSM_CLASS_DATA_AT;
+import static java.lang.constant.ConstantDescs.CD_Boolean;
+import static java.lang.constant.ConstantDescs.CD_Object;
+import static java.lang.constant.ConstantDescs.CD_boolean;
+import static java.lang.constant.ConstantDescs.CD_double;
+import static java.lang.constant.ConstantDescs.CD_void;
+import static java.lang.constant.ConstantDescs.DEFAULT_NAME;
+import static java.lang.constant.ConstantDescs.INIT_NAME;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeBuilder;
+import java.lang.classfile.Label;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.DynamicConstantDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+
+/**
+ * Translates a compiled rule into a hidden class implementing {@link CompiledNode}.
+ * Control flow of {@code if}, {@code and}/{@code or}, {@code !}/{@code !!}, comparisons and equality is emitted as bytecode;
+ * every other node (variables, custom operations, overridden built-ins, ...) is loaded as a class-data constant and called,
+ * which keeps its exact semantics and lets the JIT inline it through the constant receiver.
+ */
+final class BytecodeCompiler {
+	private static final ClassDesc      CD_CompiledNode = ClassDesc.of(CompiledNode.class.getName());
+	private static final ClassDesc      CD_Evaluator    = ClassDesc.of(JsonLogicEvaluator.class.getName());
+	private static final ClassDesc      CD_JSON         = ClassDesc.of(JSON.class.getName());
+	private static final ClassDesc      CD_JsonLogic    = ClassDesc.of(JsonLogic.class.getName());
+	private static final ClassDesc      CD_Self         = ClassDesc.of(BytecodeCompiler.class.getName());
+	private static final ClassDesc      CD_Rule         = ClassDesc.of(BytecodeCompiler.class.getPackageName() + ".HotRule$");
+	private static final MethodTypeDesc MT_EVALUATE     = MethodTypeDesc.of(CD_Object , CD_Evaluator);
+	private static final MethodTypeDesc MT_AS_BOOLEAN   = MethodTypeDesc.of(CD_boolean, CD_Evaluator);
+	private static final MethodTypeDesc MT_AS_DOUBLE    = MethodTypeDesc.of(CD_double , CD_Evaluator);
+	private static final MethodTypeDesc MT_TRUTHY       = MethodTypeDesc.of(CD_boolean, CD_Object);
+	private static final MethodTypeDesc MT_EQUALS       = MethodTypeDesc.of(CD_boolean, CD_Object, CD_Object);
+	private static final MethodTypeDesc MT_TO_DOUBLE    = MethodTypeDesc.of(CD_double , CD_Object);
+	private static final MethodTypeDesc MT_BOX          = MethodTypeDesc.of(CD_Boolean, CD_boolean);
+	private static final int            SCOPE           = 1;
+
+	private final List<Object> constants = new ArrayList<>();
+	private int locals = SCOPE + 1;
+
+	private BytecodeCompiler() { }
+
+	/** Returns a hidden class instance evaluating like {@code tree}, or {@code tree} itself when nothing can be translated. */
+	static CompiledNode compile(final CompiledNode tree) {
+		if (tree instanceof final CompiledNode.Memoized m) {
+			// shared subtrees stay nodes, the translated root calls them with the memoized scope it is given
+			final var root = compile(m.root());
+			return root == m.root() ? tree : new CompiledNode.Memoized(root, m.slots());
+		}
+		if (!supported(tree)) return tree;
+		final var compiler = new BytecodeCompiler();
+		final var bytes = ClassFile.of().build(CD_Rule, cb -> cb
+				.withFlags(ClassFile.ACC_FINAL | ClassFile.ACC_SYNTHETIC)
+				.withInterfaceSymbols(CD_CompiledNode)
+				.withMethodBody(INIT_NAME, MethodTypeDesc.of(CD_void), ClassFile.ACC_PUBLIC, code -> code
+						.aload(0).invokespecial(CD_Object, INIT_NAME, MethodTypeDesc.of(CD_void)).return_())
+				.withMethodBody("evaluate" , MT_EVALUATE  , ClassFile.ACC_PUBLIC, code -> { compiler.value  (code, tree); code.areturn(); })
+				.withMethodBody("asBoolean", MT_AS_BOOLEAN, ClassFile.ACC_PUBLIC, code -> { compiler.boolean_(code, tree); code.ireturn(); }));
+		try {
+			final var lookup = MethodHandles.lookup().defineHiddenClassWithClassData(bytes, List.copyOf(compiler.constants), true);
+			return (CompiledNode) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+		} catch (final Throwable e) {
+			throw new IllegalStateException("Unable to define compiled rule", e);
+		}
+	}
+
+	private static boolean supported(final CompiledNode node) {
+		return switch (node) {
+		case final CompiledOperations.If         _ -> true;
+		case final CompiledOperations.AndOr      _ -> true;
+		case final CompiledOperations.Not        _ -> true;
+		case final CompiledOperations.Compare    _ -> true;
+		case final CompiledOperations.Equality   _ -> true;
+		default                                    -> false;
+		};
+	}
+
+	/** Emits code leaving the value of {@code node} on the stack. */
+	private void value(final CodeBuilder code, final CompiledNode node) {
+		switch (node) {
+		case final CompiledNode.Constant t when t.value() == null -> code.aconst_null();
+		case final CompiledNode.Constant t when t.value() instanceof final String s -> code.loadConstant(s);
+		case final CompiledNode.Constant t -> constant(code, t.value());
+		case final CompiledOperations.If t -> {
+			final var args = t.args();
+			final var size = args.length;
+			if (size == 0) { code.aconst_null(); return; }
+			if (size == 1) { value(code, args[0]); return; }
+			final var end = code.newLabel();
+			for (var i = 0; i < size - 1; i += 2) {
+				final var next = code.newLabel();
+				boolean_(code, args[i]);
+				code.ifeq(next);
+				value(code, args[i + 1]);
+				code.goto_(end);
+				code.labelBinding(next);
+			}
+			if ((size & 1) == 0) code.aconst_null(); else value(code, args[size - 1]);
+			code.labelBinding(end);
+		}
+		case final CompiledOperations.AndOr t -> {
+			final var args = t.args();
+			final var end  = code.newLabel();
+			for (var i = 0; i < args.length; i++) {
+				value(code, args[i]);
+				if (i == args.length - 1) break;
+				code.dup().invokestatic(CD_JSON, "truthy", MT_TRUTHY);
+				if (t.isAnd()) code.ifeq(end); else code.ifne(end);
+				code.pop();
+			}
+			code.labelBinding(end);
+		}
+		case final CompiledOperations.Not      _ -> { boolean_(code, node); code.invokestatic(CD_Boolean, "valueOf", MT_BOX); }
+		case final CompiledOperations.Compare  _ -> { boolean_(code, node); code.invokestatic(CD_Boolean, "valueOf", MT_BOX); }
+		case final CompiledOperations.Equality _ -> { boolean_(code, node); code.invokestatic(CD_Boolean, "valueOf", MT_BOX); }
+		default -> {
+			constant(code, node);
+			code.checkcast(CD_CompiledNode).aload(SCOPE).invokeinterface(CD_CompiledNode, "evaluate", MT_EVALUATE);
+		}
+		}
+	}
+
+	/** Emits code leaving the truthiness of {@code node} on the stack as an int. */
+	private void boolean_(final CodeBuilder code, final CompiledNode node) {
+		switch (node) {
+		case final CompiledNode.Constant t -> { if (JSON.truthy(t.value())) code.iconst_1(); else code.iconst_0(); }
+		case final CompiledOperations.If t -> { value(code, t); code.invokestatic(CD_JSON, "truthy", MT_TRUTHY); }
+		case final CompiledOperations.AndOr t -> {
+			// truthy(and) == all truthy, truthy(or) == any truthy; evaluation order is unchanged
+			final var shortCut = code.newLabel();
+			final var end      = code.newLabel();
+			for (final var arg : t.args()) {
+				boolean_(code, arg);
+				if (t.isAnd()) code.ifeq(shortCut); else code.ifne(shortCut);
+			}
+			if (t.isAnd()) code.iconst_1(); else code.iconst_0();
+			code.goto_(end);
+			code.labelBinding(shortCut);
+			if (t.isAnd()) code.iconst_0(); else code.iconst_1();
+			code.labelBinding(end);
+		}
+		case final CompiledOperations.Not t -> {
+			boolean_(code, t.arg());
+			if (t.negate()) code.iconst_1().ixor();
+		}
+		case final CompiledOperations.Equality t -> {
+			value(code, t.left());
+			value(code, t.right());
+			if (t.strict()) code.invokestatic(CD_JsonLogic, "strictEquals", MT_EQUALS);
+			else            code.invokestatic(CD_Self     , "looseEquals" , MT_EQUALS);
+			if (t.negate()) code.iconst_1().ixor();
+		}
+		case final CompiledOperations.Compare t -> {
+			// A missing operand (NaN) fails every comparison, as a null operand does in the tree
+			final var fail = code.newLabel();
+			final var end  = code.newLabel();
+			final var a    = number(code, t.a());
+			code.dload(a).dload(a).dcmpl().ifne(fail);
+			final var b    = number(code, t.b());
+			compare(code, t.operator(), a, b, fail);
+			if (t.c() != null) compare(code, t.operator(), b, number(code, t.c()), fail);
+			code.iconst_1().goto_(end);
+			code.labelBinding(fail);
+			code.iconst_0();
+			code.labelBinding(end);
+		}
+		default -> {
+			constant(code, node);
+			code.checkcast(CD_CompiledNode).aload(SCOPE).invokeinterface(CD_CompiledNode, "asBoolean", MT_AS_BOOLEAN);
+		}
+		}
+	}
+
+	/** Evaluates {@code node} as double (NaN when not numeric) into a fresh local, returns its slot. */
+	private int number(final CodeBuilder code, final CompiledNode node) {
+		if (supported(node) || node instanceof CompiledNode.Constant) {
+			value(code, node);
+			code.invokestatic(CD_Self, "toDouble", MT_TO_DOUBLE);
+		} else {
+			constant(code, node);
+			code.checkcast(CD_CompiledNode).aload(SCOPE).invokeinterface(CD_CompiledNode, "asDouble", MT_AS_DOUBLE);
+		}
+		final var slot = locals;
+		locals += 2;
+		code.dstore(slot);
+		return slot;
+	}
+
+	/** Jumps to {@code fail} unless {@code slotA operator slotB}; NaN compares false like in javac's translation. */
+	private static void compare(final CodeBuilder code, final String operator, final int slotA, final int slotB, final Label fail) {
+		code.dload(slotA).dload(slotB);
+		switch (operator) {
+		case ">"  -> code.dcmpl().ifle(fail);
+		case ">=" -> code.dcmpl().iflt(fail);
+		case "<"  -> code.dcmpg().ifge(fail);
+		case "<=" -> code.dcmpg().ifgt(fail);
+		default   -> throw new IllegalArgumentException(operator);
+		}
+	}
+
+	private void constant(final CodeBuilder code, final Object value) {
+		code.loadConstant(DynamicConstantDesc.ofNamed(BSM_CLASS_DATA_AT, DEFAULT_NAME, CD_Object, constants.size()));
+		constants.add(value);
+	}
+
+	static double toDouble(final Object value) {
+		final var d = JSON.asDouble(value);
+		return d == null ? Double.NaN : d;
+	}
+
+	static boolean looseEquals(final Object left, final Object right) throws JsonLogicEvaluationException { return JSON.equalityValue(left, right); }
+
+	/** Tree evaluation until {@code threshold} calls, then the hidden class translation. */
+	static final class HotRule implements CompiledNode {
+		private final CompiledNode tree;
+		private final int threshold;
+		private volatile CompiledNode target;
+		/** Calls so far, counted up to the threshold only; the one call that reaches it compiles, racing callers keep the tree. */
+		private final AtomicInteger calls = new AtomicInteger();
+
+		HotRule(final CompiledNode tree, final int threshold) {
+			this.tree      = tree;
+			this.threshold = threshold;
+			this.target    = tree;
+		}
+
+		CompiledNode tree() { return tree; }
+
+		private CompiledNode target() {
+			final var t = target;
+			if (t != tree || calls.get() >= threshold || calls.incrementAndGet() != threshold) return t;
+			try { return target = compile(tree); } catch (final IllegalStateException e) { return t; }
+		}
+
+		@Override public Object  evaluate (final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return target().evaluate (scope); }
+		@Override public boolean asBoolean(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return target().asBoolean(scope); }
+	}
+}
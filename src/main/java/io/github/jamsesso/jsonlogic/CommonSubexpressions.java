@@ -0,0 +1,104 @@
+package io.github.jamsesso.jsonlogic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.github.jamsesso.jsonlogic.ast.JsonLogicOperation;
+import io.github.jamsesso.jsonlogic.ast.JsonLogicVariable;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicExpressionFI;
+import io.github.jamsesso.jsonlogic.evaluator.expressions.MissingExpression;
+
+/**
+ * Finds structurally identical pure subtrees of a compiled rule and turns them into {@link CompiledNode.Shared} nodes with one memo slot each.
+ * Pure are the built-in nodes other than {@code log} and failures, and fallbacks to handlers registered as pure; nodes that other code
+ * compiles itself may have effects and are evaluated every time.
+ * Only subtrees evaluated against the rule data are shared; the bodies of {@code map}, {@code filter}, {@code reduce}, {@code some}, {@code all}
+ * and {@code none} see one array element at a time and are left alone. Error paths are not part of the structure:
+ * every occurrence keeps its own subtree, the first one reached computes the value (or raises the error) for all of them.
+ */
+final class CommonSubexpressions {
+	private final Set<JsonLogicExpressionFI>        pure;
+	private final Map<CompiledNode, List<Object>>   keys   = new IdentityHashMap<>();
+	private final Map<List<Object>, Integer>        counts = new HashMap<>();
+	private final Map<List<Object>, Integer>        slots  = new HashMap<>();
+
+	private CommonSubexpressions(final Set<JsonLogicExpressionFI> pure) { this.pure = pure; }
+
+	/** {@code pure} are the handlers of operations without a compiled form that may be shared, all others are evaluated every time. */
+	static CompiledNode share(final CompiledNode tree, final Set<JsonLogicExpressionFI> pure) {
+		final var cse = new CommonSubexpressions(pure);
+		cse.count(tree);
+		if (!cse.counts.containsValue(2)) return tree;
+		final var shared = cse.replace(tree);
+		return cse.slots.isEmpty() ? tree : new CompiledNode.Memoized(shared, cse.slots.size());
+	}
+
+	/** Repeated occurrences are not entered: what they contain is shared with them, not on its own. */
+	private void count(final CompiledNode node) {
+		final var key = key(node);
+		if (key != null && !(node instanceof CompiledNode.Constant) && counts.merge(key, 1, (a, b) -> 2) == 2) return;
+		node.rewrite((child, scoped) -> {
+			if (!scoped) count(child);
+			return child;
+		});
+	}
+
+	private CompiledNode replace(final CompiledNode node) {
+		final var rewritten = node.rewrite((child, scoped) -> scoped ? child : replace(child));
+		final var key = keys.get(node);
+		if (key == null || node instanceof CompiledNode.Constant || counts.getOrDefault(key, 0) < 2) return rewritten;
+		return new CompiledNode.Shared(slots.computeIfAbsent(key, k -> slots.size()), rewritten);
+	}
+
+	/** Structure of a pure node (type, non-node components and the keys of its children, paths left out), {@code null} when impure. */
+	private List<Object> key(final CompiledNode node) {
+		if (keys.containsKey(node)) return keys.get(node);
+		final var key = structure(node);
+		keys.put(node, key);
+		return key;
+	}
+
+	private List<Object> structure(final CompiledNode node) {
+		if (node instanceof CompiledOperations.Log || node instanceof CompiledNode.Failure || !node.getClass().isRecord()) return null;
+		if (node instanceof final CompiledNode.Fallback f ? !pure.contains(f.handler())
+			: !DataPaths.BUILT_IN.contains(node.getClass().getNestHost()) && !(node instanceof MissingExpression.Compiled)) return null;
+		final var key = new ArrayList<>();
+		key.add(node.getClass());
+		for (final var component : node.getClass().getRecordComponents()) {
+			final Object value;
+			try { value = component.getAccessor().invoke(node); } catch (final ReflectiveOperationException e) { return null; }
+			if (value instanceof PathSegment) continue;
+			final var part = part(value);
+			if (part == IMPURE) return null;
+			key.add(part);
+		}
+		return key;
+	}
+
+	private static final Object IMPURE = new Object();
+
+	private Object part(final Object value) {
+		return switch (value) {
+		case final CompiledNode       n -> key(n) instanceof final List<Object> k ? k : IMPURE;
+		case final JsonLogicVariable  v -> List.of("var", part(v.args()));
+		case final JsonLogicOperation o -> Arrays.asList(o.operator(), part(o.arguments()));
+		case final Object[]           a -> {
+			final var parts = new ArrayList<>(a.length);
+			for (final var e : a) {
+				final var p = part(e);
+				if (p == IMPURE) yield IMPURE;
+				parts.add(p);
+			}
+			yield parts;
+		}
+		case final List<?>            l -> part(l.toArray());
+		case null, default              -> value;
+		};
+	}
+}
@@ -0,0 +1,350 @@
+package io.github.jamsesso.jsonlogic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.evaluator.CompilableExpression;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+
+/** Compiled counterparts of the built-in operations in {@link JsonLogic}, argument paths mirror the interpreter. */
+final class CompiledOperations {
+	private CompiledOperations() { }
+
+	/** Comparison on unboxed operands. */
+	@FunctionalInterface interface DoubleComparison { boolean test(double a, double b); }
+
+	record If(CompiledNode[] args) implements CompiledNode {
+		@Override public Object evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var branch = branch(scope);
+			return branch == null ? null : branch.evaluate(scope);
+		}
+		@Override public double asDouble(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var branch = branch(scope);
+			return branch == null ? CompiledNode.NO_NUMBER : branch.asDouble(scope);
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new If(CompiledNode.rewriteAll(args, rewriter)); }
+
+		private CompiledNode branch(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var size = args.length;
+			if (size == 0) return null;
+			if (size == 1) return args[0];
+			for (var i = 0; i < size - 1; i += 2) if (args[i].asBoolean(scope)) return args[i + 1];
+			if ((size & 1) == 0) return null;
+			return args[size - 1];
+		}
+	}
+
+	record Compare(String operator, DoubleComparison compare, CompiledNode a, CompiledNode b, CompiledNode c) implements CompiledNode {
+		@Override public Object  evaluate (final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return asBoolean(scope); }
+		@Override public boolean asBoolean(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			// If regular comparisons fail also between will fail
+			final var x = a.asDouble(scope);
+			if (!CompiledNode.isNumber(x)) return false;
+			final var y = b.asDouble(scope);
+			if (!CompiledNode.isNumber(y) || !compare.test(x, y)) return false;
+			if (c == null) return true;
+			final var z = c.asDouble(scope);
+			return CompiledNode.isNumber(z) && compare.test(y, z);
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new Compare(operator, compare, rewriter.apply(a, false), rewriter.apply(b, false), CompiledNode.rewrite(c, rewriter, false)); }
+	}
+
+	record Not(CompiledNode arg, boolean negate) implements CompiledNode {
+		@Override public Object  evaluate (final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return asBoolean(scope); }
+		@Override public boolean asBoolean(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return negate ^ arg.asBoolean(scope); }
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new Not(rewriter.apply(arg, false), negate); }
+	}
+
+	record AndOr(boolean isAnd, CompiledNode[] args) implements CompiledNode {
+		@Override public Object evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			Object value = isAnd;
+			for (final var element : args) {
+				value = element.evaluate(scope);
+				if(isAnd ^ JSON.truthy(value)) return value;
+			}
+			return value;
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new AndOr(isAnd, CompiledNode.rewriteAll(args, rewriter)); }
+	}
+
+	record Has(boolean isSome, CompiledNode array, CompiledNode test, PathSegment arrayPath) implements CompiledNode {
+		@Override public Object  evaluate (final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return asBoolean(scope); }
+		@Override public boolean asBoolean(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var maybeArray = array.evaluate(scope);
+			// Array objects can have null values according to http://jsonlogic.com/
+			if (maybeArray == null) return !isSome;
+			if (!JSON.isList(maybeArray)) throw new JsonLogicEvaluationException("first argument to " + (isSome ? "some" : "none") + " must be a valid array", arrayPath);
+			for (final Object item : JSON.asList(maybeArray)) if(test.asBoolean(scope.scoped(item))) return isSome;
+			return !isSome;
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new Has(isSome, rewriter.apply(array, false), rewriter.apply(test, true), arrayPath); }
+	}
+
+	record All(CompiledNode array, CompiledNode test, PathSegment path) implements CompiledNode {
+		@Override public Object  evaluate (final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return asBoolean(scope); }
+		@Override public boolean asBoolean(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var maybeArray = array.evaluate(scope);
+			if (maybeArray == null) return false;
+			if (!JSON.isList(maybeArray)) throw new JsonLogicEvaluationException("first argument to all must be a valid array", path);
+			final var list = JSON.asList(maybeArray);
+			if (list.isEmpty()) return false;
+			for (final Object item : list) if(!test.asBoolean(scope.scoped(item))) return false;
+			return true;
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new All(rewriter.apply(array, false), rewriter.apply(test, true), path); }
+	}
+
+	record Equality(boolean strict, boolean negate, CompiledNode left, CompiledNode right) implements CompiledNode {
+		@Override public Object  evaluate (final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return asBoolean(scope); }
+		@Override public boolean asBoolean(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var l = left .evaluate(scope);
+			final var r = right.evaluate(scope);
+			return negate ^ (strict ? JsonLogic.strictEquals(l, r) : JSON.equalityValue(l, r));
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new Equality(strict, negate, rewriter.apply(left, false), rewriter.apply(right, false)); }
+	}
+
+	record MapOp(CompiledNode array, CompiledNode mapper) implements CompiledNode {
+		@Override public List<?> evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var maybeArray = array.evaluate(scope);
+			if (!JSON.isList(maybeArray)) return Collections.emptyList();
+			final var list = JSON.asList(maybeArray);
+			final var ret = new Object[list.size()];
+			var index = 0;
+			for (final Object item : list) ret[index++] = mapper.evaluate(scope.scoped(item));
+			return Arrays.asList(ret);
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new MapOp(rewriter.apply(array, false), rewriter.apply(mapper, true)); }
+	}
+
+	record Filter(CompiledNode array, CompiledNode test, PathSegment arrayPath) implements CompiledNode {
+		@Override public List<?> evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var maybeArray = array.evaluate(scope);
+			if (!JSON.isList(maybeArray)) throw new JsonLogicEvaluationException("first argument to filter must be a valid array", arrayPath);
+			final var result = new ArrayList<>();
+			for (final Object item : JSON.asList(maybeArray)) if(test.asBoolean(scope.scoped(item))) result.add(item);
+			return result;
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new Filter(rewriter.apply(array, false), rewriter.apply(test, true), arrayPath); }
+	}
+
+	record Reduce(CompiledNode array, CompiledNode reducer, CompiledNode initial) implements CompiledNode {
+		@Override public Object evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var maybeArray  = array  .evaluate(scope);
+			final var accumulator = initial.evaluate(scope);
+			if (!JSON.isList(maybeArray)) return accumulator;
+			final Map<String, Object> context = new HashMap<>();
+			context.put("accumulator", accumulator);
+			final var inner = scope.scoped(context);
+			for (final var item : JSON.asList(maybeArray)) {
+				context.put("current", item);
+				context.put("accumulator", reducer.evaluate(inner));
+			}
+			return context.get("accumulator");
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new Reduce(rewriter.apply(array, false), rewriter.apply(reducer, true), rewriter.apply(initial, false)); }
+	}
+
+	record Substr(CompiledNode value, CompiledNode start, CompiledNode length, PathSegment startPath, PathSegment lengthPath) implements CompiledNode {
+		@Override public String evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			if (!(JSON.asNumber(start.evaluate(scope)) instanceof final Number arg1)) throw new JsonLogicEvaluationException("second argument to substr must be a number", startPath);
+			final var text = value.evaluate(scope).toString();
+			final var len  = text.length();
+			var startIndex = arg1.intValue();
+			if (length == null) {
+				if (startIndex < 0) startIndex = len + startIndex;
+				if (startIndex < 0) return "";
+				return text.substring(startIndex, len);
+			}
+			if (!(JSON.asNumber(length.evaluate(scope)) instanceof final Number arg2)) throw new JsonLogicEvaluationException("third argument to substr must be an integer", lengthPath);
+			if (startIndex < 0) startIndex = len + startIndex;
+			var endIndex = arg2.intValue();
+			if (endIndex < 0) endIndex = len + endIndex; else endIndex += startIndex;
+			if (startIndex > endIndex || endIndex > len) return "";
+			return text.substring(startIndex, endIndex);
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new Substr(rewriter.apply(value, false), rewriter.apply(start, false), CompiledNode.rewrite(length, rewriter, false), startPath, lengthPath); }
+	}
+
+	record In(CompiledNode needle, CompiledNode haystack, String text) implements CompiledNode {
+		@Override public Object  evaluate (final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return asBoolean(scope); }
+		@Override public boolean asBoolean(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var n = needle  .evaluate(scope);
+			final var h = haystack.evaluate(scope);
+			// Handle string in (substring)
+			if (text != null) return n != null && text.contains(n.toString());
+			if (!JSON.isList(h)) return false;
+			for (final var e : JSON.asList(h)) if(JSON.equalityValue(e, n)) return true;
+			return false;
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new In(rewriter.apply(needle, false), rewriter.apply(haystack, false), text); }
+	}
+
+	/** {@code in} on a literal array, or a chain of {@code ==} between one variable and literals within an {@code or}. */
+	record InSet(CompiledNode needle, LooseSet values) implements CompiledNode {
+		@Override public Object  evaluate (final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return asBoolean(scope); }
+		@Override public boolean asBoolean(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return values.contains(needle.evaluate(scope)); }
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new InSet(rewriter.apply(needle, false), values); }
+	}
+
+	record Log(CompiledNode arg) implements CompiledNode {
+		@Override public Object evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var value = arg.evaluate(scope);
+			System.out.println("JsonLogic: " + value);
+			return value;
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new Log(rewriter.apply(arg, false)); }
+	}
+
+	record Merge(CompiledNode[] args) implements CompiledNode {
+		@Override public List<?> evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var ret = new ArrayList<>(args.length);
+			for (final var arg : args) flatten(arg.evaluate(scope), ret);
+			return ret;
+		}
+
+		private static void flatten(final Object value, final List<Object> ret) {
+			if (JSON.isList(value)) for (final var e : JSON.asList(value)) flatten(e, ret);
+			else ret.add(value);
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new Merge(CompiledNode.rewriteAll(args, rewriter)); }
+	}
+
+	/** Applies a function to the evaluated arguments, a single list argument is spread. */
+	record ListFunction(CompiledNode[] args, Function<List<?>, Object> function) implements CompiledNode {
+		@Override public Object evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var results = new Object[args.length];
+			for (var i = 0; i < args.length; i++) results[i] = args[i].evaluate(scope);
+			List<?> values = Arrays.asList(results);
+			if (values.size() == 1 && JSON.isList(values.get(0))) values = JSON.asList(values.get(0));
+			return function.apply(values);
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new ListFunction(CompiledNode.rewriteAll(args, rewriter), function); }
+	}
+
+	static CompilableExpression ifExpr() { return (compiler, args, path) -> new If(compiler.compileAll(args, path)); }
+
+	static CompilableExpression compare(final String operator, final DoubleComparison compare) {
+		return (compiler, args, path) -> new Compare(operator, compare, compiler.compile(args.get(0), path.sub(0)), compiler.compile(args.get(1), path.sub(1)), args.size() > 2 ? compiler.compile(args.get(2), path.sub(2)) : null);
+	}
+
+	static CompilableExpression not(final boolean negate) {
+		return (compiler, args, path) -> {
+			if (args.isEmpty()) return new CompiledNode.Constant(negate);
+			if (args.size() > 1) return new CompiledNode.Failure("'!' expects single argument", path);
+			return new Not(compiler.compile(args.get(0), path.sub(0)), negate);
+		};
+	}
+
+	static CompilableExpression andOr(final boolean isAnd) {
+		return (compiler, args, path) -> {
+			final var nodes = compiler.compileAll(args, path);
+			return isAnd ? new AndOr(true, nodes) : or(nodes);
+		};
+	}
+
+	/** {@code or} of {@code nodes}, runs of {@code ==} between the same variable and literals become one {@link InSet} lookup. */
+	static CompiledNode or(final CompiledNode[] nodes) {
+		final var args = new ArrayList<CompiledNode>(nodes.length);
+		for (var i = 0; i < nodes.length; ) {
+			final var subject = subject(nodes[i]);
+			var end = i + 1;
+			while (subject != null && end < nodes.length && sameVariable(subject, subject(nodes[end]))) end++;
+			if (end - i < 2) { args.add(nodes[i++]); continue; }
+			final var literals = new ArrayList<>(end - i);
+			for (; i < end; i++) literals.add(literal(nodes[i]));
+			args.add(new InSet(subject, new LooseSet(literals)));
+		}
+		if (args.size() == 1 && nodes.length > 1) return args.get(0);
+		return new AndOr(false, args.size() == nodes.length ? nodes : args.toArray(CompiledNode[]::new));
+	}
+
+	/** Variable compared by {@code ==} with a literal scalar in {@code node}, {@code null} if it is no such comparison. */
+	private static CompiledNode.PathVariable subject(final CompiledNode node) {
+		if (!(node instanceof final Equality e) || e.strict() || e.negate()) return null;
+		if (e.left() instanceof final CompiledNode.PathVariable v && isScalar(e.right())) return v;
+		if (e.right() instanceof final CompiledNode.PathVariable v && isScalar(e.left())) return v;
+		return null;
+	}
+
+	private static Object literal(final CompiledNode equality) {
+		final var e = (Equality) equality;
+		return ((CompiledNode.Constant) (e.left() instanceof CompiledNode.Constant ? e.left() : e.right())).value();
+	}
+
+	private static boolean isScalar(final CompiledNode node) { return node instanceof final CompiledNode.Constant c && !(c.value() instanceof List); }
+
+	private static boolean sameVariable(final CompiledNode.PathVariable a, final CompiledNode.PathVariable b) {
+		return b != null && Arrays.equals(a.keys(), b.keys()) && Objects.equals(a.defaultValue(), b.defaultValue());
+	}
+
+	/** Marks a node that is not a literal in {@link #literalValue(CompiledNode)}. */
+	private static final Object NOT_LITERAL = new Object();
+
+	/** Value of a constant or of an array of literals, {@link #NOT_LITERAL} for any other node. */
+	private static Object literalValue(final CompiledNode node) {
+		if (node instanceof final CompiledNode.Constant c) return c.value();
+		if (!(node instanceof final CompiledNode.ArrayLiteral array)) return NOT_LITERAL;
+		final var values = new Object[array.items().length];
+		for (var i = 0; i < values.length; i++) if ((values[i] = literalValue(array.items()[i])) == NOT_LITERAL) return NOT_LITERAL;
+		return Arrays.asList(values);
+	}
+
+	static CompilableExpression has(final boolean isSome) {
+		return (compiler, args, path) -> new Has(isSome, compiler.compile(args.get(0), path.sub(0)), compiler.compile(args.get(1), path.sub(1)), path.sub(0));
+	}
+
+	static CompilableExpression all() {
+		return (compiler, args, path) -> new All(compiler.compile(args.get(0), path.sub(0)), compiler.compile(args.get(1), path.sub(1)), path);
+	}
+
+	static CompilableExpression equality(final boolean strict, final boolean negate) {
+		return (compiler, args, path) -> new Equality(strict, negate, compiler.compile(args.get(0), path), compiler.compile(args.get(1), path));
+	}
+
+	static CompilableExpression map() {
+		return (compiler, args, path) -> new MapOp(compiler.compile(args.get(0), path.sub(0)), compiler.compile(args.get(1), path.sub(1)));
+	}
+
+	static CompilableExpression filter() {
+		return (compiler, args, path) -> new Filter(compiler.compile(args.get(0), path.sub(0)), compiler.compile(args.get(1), path.sub(1)), path.sub(0));
+	}
+
+	static CompilableExpression reduce() {
+		return (compiler, args, path) -> new Reduce(compiler.compile(args.get(0), path.sub(0)), compiler.compile(args.get(1), path.sub(1)), compiler.compile(args.get(2), path.sub(2)));
+	}
+
+	static CompilableExpression substr() {
+		return (compiler, args, path) -> new Substr(compiler.compile(args.get(0), path), compiler.compile(args.get(1), path.sub(1)),
+				args.size() > 2 ? compiler.compile(args.get(2), path.sub(2)) : null, path.sub(1), path.sub(2));
+	}
+
+	static CompilableExpression in() {
+		return (compiler, args, path) -> {
+			if (args.size() < 2) return new CompiledNode.Constant(false);
+			return in(compiler.compile(args.get(0), path.sub(0)), compiler.compile(args.get(1), path.sub(1)), args.get(1) instanceof final String t ? t : null);
+		};
+	}
+
+	/** {@code in}, as a lookup when the haystack is a literal array. */
+	static CompiledNode in(final CompiledNode needle, final CompiledNode haystack, final String text) {
+		if (text == null && literalValue(haystack) instanceof final List<?> values) return new InSet(needle, new LooseSet(values));
+		return new In(needle, haystack, text);
+	}
+
+	static CompilableExpression log  () { return (compiler, args, path) -> new Log  (compiler.compile(args.get(0), path)); }
+	static CompilableExpression merge() { return (compiler, args, path) -> new Merge(compiler.compileAll(args, path)); }
+
+	static CompilableExpression listFunction(final Function<List<?>, Object> function) {
+		return (compiler, args, path) -> new ListFunction(compiler.compileAll(args, path), function);
+	}
+}
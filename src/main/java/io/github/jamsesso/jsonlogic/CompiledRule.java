@@ -0,0 +1,54 @@
+package io.github.jamsesso.jsonlogic;
+
+import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.ast.Projection;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+
+/**
+ * Rule compiled by {@link JsonLogic#compile(Object)}, bound to the operations and number arithmetic of that instance at compile time.
+ * Immutable and safe to share between threads; applying it does not go through the rule cache. Each thread evaluates it in a frame of its
+ * own, so a rule of comparisons, logic and {@code var} lookups on maps and lists evaluates records without allocating.
+ */
+public final class CompiledRule {
+	private final CompiledNode                   root;
+	private final Projection                     projection;
+	private final ThreadLocal<Frame>             frames;
+
+	CompiledRule(final CompiledNode root, final Projection projection, final JsonLogicEvaluator scope) {
+		this.root       = root;
+		this.projection = projection;
+		this.frames     = ThreadLocal.withInitial(() -> new Frame(root, scope));
+	}
+
+	/** Parts of a record the rule reads; only these are built when parsing {@code data} given as text, bytes or a stream. */
+	public Projection projection() { return projection; }
+
+	/** Same result as {@link JsonLogic#apply(Object, Object)}; {@code data} given as text is parsed first. */
+	public Object evaluate(final Object data) throws JsonLogicException {
+		final var frame = frames.get();
+		final var scope = frame.enter(record(data));
+		try { return root.evaluate(scope); } finally { frame.exit(scope); }
+	}
+
+	/** Truthiness of the result, without boxing it for comparisons and logic operators. */
+	public boolean evaluateBoolean(final Object data) throws JsonLogicException {
+		final var frame = frames.get();
+		final var scope = frame.enter(record(data));
+		try { return root.asBoolean(scope); } finally { frame.exit(scope); }
+	}
+
+	/** Numeric value of the result (numeric text and single element lists are converted), {@code NaN} when it has none. */
+	public double evaluateDouble(final Object data) throws JsonLogicException {
+		final var frame = frames.get();
+		final var scope = frame.enter(record(data));
+		try {
+			final var value = root.asDouble(scope);
+			return CompiledNode.isNumber(value) ? value : Double.NaN;
+		} finally {
+			frame.exit(scope);
+		}
+	}
+
+	private Object record(final Object data) throws JsonLogicException { return JSON.plain(JSON.parseData(data, projection)); }
+}
@@ -0,0 +1,73 @@
+package io.github.jamsesso.jsonlogic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import io.github.jamsesso.jsonlogic.ast.JsonLogicNode;
+import io.github.jamsesso.jsonlogic.ast.Projection;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.expressions.MissingExpression;
+
+/**
+ * Paths into the data a compiled rule can read, as a {@link Projection} for parsing only those parts of a record.
+ * They come from constant {@code var} keys and the literal keys of {@code missing} and {@code missing_some}; the bodies of
+ * {@code map}, {@code filter}, {@code reduce}, {@code some}, {@code all} and {@code none} only see elements of an array that is read as a whole.
+ * A computed or empty {@code var} key, computed {@code missing} keys and operations of other code (which may look at the data) need all of it.
+ */
+final class DataPaths {
+	/** Declaring classes of the built-in nodes, whose children are all reached by {@link CompiledNode#rewrite}. */
+	static final Set<Class<?>> BUILT_IN = Set.of(CompiledNode.class, CompiledOperations.class, Reduce.class);
+
+	private final List<List<String>> paths = new ArrayList<>();
+	private boolean                  all;
+
+	private DataPaths() { }
+
+	static Projection of(final CompiledNode... trees) {
+		final var collected = new DataPaths();
+		for (final var tree : trees) collected.visit(tree);
+		return collected.all ? Projection.ALL : Projection.of(collected.paths);
+	}
+
+	private void visit(final CompiledNode node) {
+		if (all || node == null) return;
+		switch (node) {
+		case final BytecodeCompiler.HotRule  h -> visit(h.tree());
+		case final CompiledNode.PathVariable v -> {
+			paths.add(v.names());
+			visit(v.defaultValue());
+		}
+		case final CompiledNode.Variable     v -> {
+			if (v.key() instanceof CompiledNode.Constant(final Number index)) paths.add(List.of(Integer.toString(index.intValue())));
+			else all = true;
+			visit(v.defaultValue());
+		}
+		case final MissingExpression.Compiled m -> { for (final var key : m.keys()) paths.add(key.segments()); }
+		case final CompiledNode.Fallback     f -> {
+			if (f.handler() instanceof MissingExpression) missing(f.arguments());
+			else all = true;
+		}
+		default -> {
+			if (!BUILT_IN.contains(node.getClass().getNestHost())) { all = true; return; }
+			node.rewrite((child, scoped) -> {
+				if (!scoped) visit(child);
+				return child;
+			});
+		}
+		}
+	}
+
+	/** Keys of {@code missing} are compared with the flattened names of the data, a name with dots also matches nested maps. */
+	private void missing(final List<?> arguments) {
+		for (final var argument : arguments) {
+			switch (argument) {
+			case final String        key  -> paths.add(Arrays.asList(key.split("\\.", -1)));
+			case final List<?>       keys -> missing(keys);
+			case final JsonLogicNode node -> all = true;
+			case null, default            -> { }
+			}
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package io.github.jamsesso.jsonlogic;
+
+import java.util.Arrays;
+
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+
+/**
+ * Evaluation state of one rule reused for consecutive evaluations on one thread, so that they do not allocate one each: the record is bound
+ * to the same evaluator for each evaluation, and the memo slots are cleared and reused. A frame entered by an evaluation further up the stack
+ * hands out a new evaluator. It must not be shared between threads.
+ */
+final class Frame {
+	private final Object[]                   slots;
+	private final JsonLogicEvaluator.Binding record = new JsonLogicEvaluator.Binding();
+	private final JsonLogicEvaluator         scope;
+	private boolean                          busy;
+
+	Frame(final CompiledNode root, final JsonLogicEvaluator scope) {
+		this.slots = new Object[slots(root) + 1];
+		this.scope = new JsonLogicEvaluator(scope.expressions(), scope.number(), record, slots);
+	}
+
+	/** Memo slots of the shared subtrees of {@code root}, also when it is translated once it gets hot. */
+	private static int slots(final CompiledNode root) {
+		final var tree = root instanceof final BytecodeCompiler.HotRule h ? h.tree() : root;
+		return tree instanceof final CompiledNode.Memoized m ? m.slots() : 0;
+	}
+
+	/** Evaluator of the next evaluation, on {@code data}. */
+	JsonLogicEvaluator enter(final Object data) {
+		if (busy) return new JsonLogicEvaluator(scope.expressions(), scope.number(), data, new Object[slots.length]);
+		busy = true;
+		record.bind(data);
+		return scope;
+	}
+
+	/** Ends the evaluation {@link #enter(Object)} returned {@code entered} for; the frame keeps neither the record nor the values it computed. */
+	void exit(final JsonLogicEvaluator entered) {
+		if (entered != scope) return;
+		record.bind(null);
+		Arrays.fill(slots, null);
+		busy = false;
+	}
+}
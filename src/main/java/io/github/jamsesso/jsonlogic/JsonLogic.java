@@ -1,114 +1,156 @@
 package io.github.jamsesso.jsonlogic;
 
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.BiPredicate;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
 import java.util.stream.Collectors;
 
 import io.github.jamsesso.jsonlogic.ast.JSON;
 import io.github.jamsesso.jsonlogic.ast.JsonLogicParser;
+import io.github.jamsesso.jsonlogic.ast.Projection;
+import io.github.jamsesso.jsonlogic.evaluator.CompilableExpression;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicCompiler;
 import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
 import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
 import io.github.jamsesso.jsonlogic.evaluator.JsonLogicExpressionFI;
+import io.github.jamsesso.jsonlogic.evaluator.Operators;
 import io.github.jamsesso.jsonlogic.evaluator.expressions.MissingExpression;
 
 public final class JsonLogic {
-	private record MetaExpr(String name, int minArgs, int maxArgs, JsonLogicExpressionFI e) implements JsonLogicExpressionFI {
+	private record MetaExpr(String name, int minArgs, int maxArgs, JsonLogicExpressionFI e, CompilableExpression c) implements JsonLogicExpressionFI, CompilableExpression {
 		MetaExpr { if(maxArgs==0) maxArgs = Integer.MAX_VALUE; }
 		@Override public Object evaluate(final JsonLogicEvaluator evaluator, final List<?> arguments, final PathSegment path) throws JsonLogicEvaluationException {
-			final var size = arguments.size();
-			if(size < minArgs || size > maxArgs) {
-				final var c0 = name.charAt(0);
-				final var op = c0<'a' || c0>'z' ? "'"+name+"'" : name;
-				if(minArgs == 1 && maxArgs == 1) throw new JsonLogicEvaluationException(op + " expects single argument"                 , path);
-				if(minArgs +  1 == maxArgs     ) throw new JsonLogicEvaluationException(op + " expects "+minArgs+" or "+maxArgs+" arguments", path);
-				if(minArgs ==      maxArgs     ) throw new JsonLogicEvaluationException(op + " expects exactly "  +minArgs+" arguments", path);
-				if(size >          maxArgs     ) throw new JsonLogicEvaluationException(op + " expects at most " +maxArgs+" arguments", path);
-				if(size < 1                    ) throw new JsonLogicEvaluationException(op + " expects at least "+minArgs+" argument", path);
-				if(size <          minArgs     ) throw new JsonLogicEvaluationException(op + " expects at least "+minArgs+" arguments", path);
-				// if (isSome && (args.size() < 2)) throw new JsonLogicEvaluationException("'"+name + "' expects first argument to be an integer and the second argument to be an array", jsonPath);
-			}
+			final var error = arityError(arguments.size());
+			if(error != null) throw new JsonLogicEvaluationException(error, path);
 			return e.evaluate(evaluator, arguments, path);
 		}
+
+		@Override public CompiledNode compile(final JsonLogicCompiler compiler, final List<?> arguments, final PathSegment path) {
+			final var error = arityError(arguments.size());
+			if(error != null) return new CompiledNode.Failure(error, path);
+			return c == null ? new CompiledNode.Fallback(e, arguments, path) : c.compile(compiler, arguments, path);
+		}
+
+		private String arityError(final int size) {
+			if(size >= minArgs && size <= maxArgs) return null;
+			final var c0 = name.charAt(0);
+			final var op = c0<'a' || c0>'z' ? "'"+name+"'" : name;
+			if(minArgs == 1 && maxArgs == 1) return op + " expects single argument";
+			if(minArgs +  1 == maxArgs     ) return op + " expects "+minArgs+" or "+maxArgs+" arguments";
+			if(minArgs ==      maxArgs     ) return op + " expects exactly "  +minArgs+" arguments";
+			if(size >          maxArgs     ) return op + " expects at most " +maxArgs+" arguments";
+			if(size < 1                    ) return op + " expects at least "+minArgs+" argument";
+			return op + " expects at least "+minArgs+" arguments";
+		}
 	}
 
-	private static final Map<String, JsonLogicExpressionFI> defaultExpressions;
+	private static final Operators                          defaultExpressions;
+	/** Handlers without a compiled form whose result depends on their arguments only, see {@link #addPureOperation}. */
+	private static final Set<JsonLogicExpressionFI>         defaultPure;
 	public  static final INumeric NUMBER = NumericDouble.ONCE;
-	private static final Map<Object, Object> parseCache  = new LinkedHashMap<>(512, 0.75f, true) {
-		@Override protected boolean removeEldestEntry(final Entry<Object, Object> eldest) { return size()>500; }
-	};
-
-	private              Map<String, JsonLogicExpressionFI> expressions;
+	/** Default {@link #cacheWeight(long) cache weight}, roughly the characters of rule text kept compiled. */
+	public  static final long DEFAULT_CACHE_WEIGHT = 1 << 16;
+	/** Compiled rules, bound to {@link #expressions} and therefore kept per instance. */
+	private final        RuleCache<Logic>        parseCache = new RuleCache<>(DEFAULT_CACHE_WEIGHT);
+
+	/** Current snapshot of the operations, replaced as a whole by {@link #addOperation(String, JsonLogicExpressionFI)}. */
+	private volatile     Operators                          expressions;
+	/** Current snapshot of the pure handlers, replaced as a whole by {@link #addPureOperation} together with {@link #expressions}. */
+	private volatile     Set<JsonLogicExpressionFI>         pure = defaultPure;
 	public               INumeric number = NUMBER;
+	private volatile     int      hotThreshold;
+	private volatile     boolean  optimize;
 
 	public JsonLogic() { expressions = defaultExpressions; }
 
+	Operators expressions() { return expressions; }
+
 	private static void addOperation(final Map<String, JsonLogicExpressionFI> e, final String key, final JsonLogicExpressionFI fkt) { e.put(key, fkt); }
+	private static void addOperation(final Map<String, JsonLogicExpressionFI> e, final String key, final JsonLogicExpressionFI fkt, final CompilableExpression c) {
+		addOperation(e, key, 0, 0, fkt, c);
+	}
 	private static void addOperation(final Map<String, JsonLogicExpressionFI> e, final String key, final int minArgs, final int maxArgs, final JsonLogicExpressionFI fkt) {
-		e.put(key, new MetaExpr(key, minArgs, maxArgs, fkt));
+		addOperation(e, key, minArgs, maxArgs, fkt, null);
+	}
+	private static void addOperation(final Map<String, JsonLogicExpressionFI> e, final String key, final int minArgs, final int maxArgs, final JsonLogicExpressionFI fkt, final CompilableExpression c) {
+		e.put(key, new MetaExpr(key, minArgs, maxArgs, fkt, c));
+	}
+
+	private static void addComparison(final Map<String, JsonLogicExpressionFI> e, final String key, final int maxArgs, final CompiledOperations.DoubleComparison compare) {
+		addOperation(e, key, 2, maxArgs, (ev, args, path) -> evaluateBoolean(key, compare, ev, args, path), CompiledOperations.compare(key, compare));
 	}
 
 	private static void addListOperation(final Map<String, JsonLogicExpressionFI> e, final String name, final Function<List<?>, Object> function) {
 		addOperation(e, name, (JsonLogicExpressionFI) (evaluator, arguments, jsonPath) -> {
-			var values = evaluator.evaluateList(arguments, jsonPath);
+			List<?> values = evaluator.evaluateList(arguments, jsonPath);
 			if (values.size() == 1 && JSON.isList(values.get(0))) values = JSON.asList(values.get(0));
-			return function.apply(arguments);
-		});
+			return function.apply(values);
+		}, CompiledOperations.listFunction(function));
 	}
 
 	static {
 		final var m = new HashMap<String, JsonLogicExpressionFI>();
-		addOperation    (m, "if"                , JsonLogic::ifExpt);	// IF
-		addOperation    (m, "?:"                , JsonLogic::ifExpt);	// TERNARY
+		final var missing     = new MissingExpression(false);
+		final var missingSome = new MissingExpression(true );
+		addOperation    (m, "if"                , JsonLogic::ifExpt, CompiledOperations.ifExpr());	// IF
+		addOperation    (m, "?:"                , JsonLogic::ifExpt, CompiledOperations.ifExpr());	// TERNARY
 
-		addOperation    (m, ">"           , 2, 3, (ev, args, path) -> evaluateBoolean(">" , (a,b)->(a >  b), ev, args, path));
-		addOperation    (m, ">="          , 2, 0, (ev, args, path) -> evaluateBoolean(">=", (a,b)->(a >= b), ev, args, path));
-		addOperation    (m, "<"           , 2, 3, (ev, args, path) -> evaluateBoolean("<" , (a,b)->(a <  b), ev, args, path));
-		addOperation    (m, "<="          , 2, 0, (ev, args, path) -> evaluateBoolean("<=", (a,b)->(a <= b), ev, args, path));
+		addComparison   (m, ">"           ,    3, (a,b)->(a >  b));
+		addComparison   (m, ">="          ,    0, (a,b)->(a >= b));
+		addComparison   (m, "<"           ,    3, (a,b)->(a <  b));
+		addComparison   (m, "<="          ,    0, (a,b)->(a <= b));
 
 		addOperation    (m, "!"           , 0, 0, (ev, args, path) -> {
 			if(args.isEmpty()) return true;
 			if(args.size()>1) throw new JsonLogicEvaluationException("'!' expects single argument", path);
 			return ! ev.asBoolean(args.get(0), path.sub(0));
-		});
-
-		addOperation    (m, "!!"          , 1, 1, (ev, args, path) -> args.isEmpty() ? true  :   ev.asBoolean(args.get(0), path.sub(0)));
-		addOperation    (m, "and"         , 1, 0, (ev, args, path) -> andOr       (true , ev, args, path));
-		addOperation    (m, "or"          , 1, 0, (ev, args, path) -> andOr       (false, ev, args, path));
-		addOperation    (m, "some"        , 2, 2, (ev, args, path) -> has         (true , ev, args, path));
-		addOperation    (m, "none"        , 2, 2, (ev, args, path) -> has         (false, ev, args, path));
-		addOperation    (m, "!="          , 2, 2, (ev, args, path) -> !JsonLogic.equality(ev, args, path));
-		addOperation    (m, "=="          , 2, 2, (JsonLogicExpressionFI) JsonLogic::equality);
-		addOperation    (m, "!=="         , 2, 2, (ev, args, path)->!strictEquality(ev, args, path));
-		addOperation    (m, "==="         , 2, 2, JsonLogic::strictEquality);
-		addOperation    (m, "map"         , 2, 2, JsonLogic       ::map);
-		addOperation    (m, "filter"      , 2, 2, JsonLogic       ::filter);
-		addOperation    (m, "reduce"      , 3, 3, JsonLogic       ::reduce);
-		addOperation    (m, "all"         , 2, 2, JsonLogic       ::all );
-		addOperation    (m, "substr"      , 2, 3, JsonLogic       ::substr);
-		addOperation    (m, "missing_some", 2, 0, new MissingExpression(true ));
-		addOperation    (m, "log"         , 1, 1, JsonLogic       ::log);
-		addOperation    (m, "in"                , JsonLogic       ::in);
-		addOperation    (m, "-"                 , new Reduce(NUMBER::MINUS  , 0, 1, true ));
-		addOperation    (m, "+"                 , new Reduce(NUMBER::SUM    , 0, 1, false));
-		addOperation    (m, "*"                 , new Reduce(NUMBER::MUL    , 0, 1, false));
-		addOperation    (m, "/"                 , new Reduce(NUMBER::DIV    , 2, 2, false));
-		addOperation    (m, "%"                 , new Reduce(NUMBER::MOD    , 2, 2, false));
-		addOperation    (m, "min"               , new Reduce(NUMBER::MIN    , 0, 1, false));
-		addOperation    (m, "max"               , new Reduce(NUMBER::MAX    , 0, 1, false));
-		addOperation    (m, "missing"           , new MissingExpression(false));
-		addOperation    (m, "merge"             , JsonLogic::merge);
+		}, CompiledOperations.not(true));
+
+		addOperation    (m, "!!"          , 1, 1, (ev, args, path) -> args.isEmpty() ? true  :   ev.asBoolean(args.get(0), path.sub(0)), CompiledOperations.not(false));
+		addOperation    (m, "and"         , 1, 0, (ev, args, path) -> andOr       (true , ev, args, path), CompiledOperations.andOr(true ));
+		addOperation    (m, "or"          , 1, 0, (ev, args, path) -> andOr       (false, ev, args, path), CompiledOperations.andOr(false));
+		addOperation    (m, "some"        , 2, 2, (ev, args, path) -> has         (true , ev, args, path), CompiledOperations.has  (true ));
+		addOperation    (m, "none"        , 2, 2, (ev, args, path) -> has         (false, ev, args, path), CompiledOperations.has  (false));
+		addOperation    (m, "!="          , 2, 2, (ev, args, path) -> !JsonLogic.equality(ev, args, path), CompiledOperations.equality(false, true ));
+		addOperation    (m, "=="          , 2, 2, (JsonLogicExpressionFI) JsonLogic::equality             , CompiledOperations.equality(false, false));
+		addOperation    (m, "!=="         , 2, 2, (ev, args, path)->!strictEquality(ev, args, path)       , CompiledOperations.equality(true , true ));
+		addOperation    (m, "==="         , 2, 2, JsonLogic::strictEquality                               , CompiledOperations.equality(true , false));
+		addOperation    (m, "map"         , 2, 2, JsonLogic       ::map   , CompiledOperations.map   ());
+		addOperation    (m, "filter"      , 2, 2, JsonLogic       ::filter, CompiledOperations.filter());
+		addOperation    (m, "reduce"      , 3, 3, JsonLogic       ::reduce, CompiledOperations.reduce());
+		addOperation    (m, "all"         , 2, 2, JsonLogic       ::all   , CompiledOperations.all   ());
+		addOperation    (m, "substr"      , 2, 3, JsonLogic       ::substr, CompiledOperations.substr());
+		addOperation    (m, "missing_some", 2, 0, missingSome, missingSome);
+		addOperation    (m, "log"         , 1, 1, JsonLogic       ::log   , CompiledOperations.log   ());
+		addOperation    (m, "in"                , JsonLogic       ::in    , CompiledOperations.in    ());
+		addOperation    (m, "-"                 , new Reduce(NUMBER::MINUS  , 0, 1, true , (a,b)->a-b ));
+		addOperation    (m, "+"                 , new Reduce(NUMBER::SUM    , 0, 1, false, Double::sum));
+		addOperation    (m, "*"                 , new Reduce(NUMBER::MUL    , 0, 1, false, (a,b)->a*b ));
+		addOperation    (m, "/"                 , new Reduce(NUMBER::DIV    , 2, 2, false, (a,b)->a/b ));
+		addOperation    (m, "%"                 , new Reduce(NUMBER::MOD    , 2, 2, false, (a,b)->a%b ));
+		addOperation    (m, "min"               , new Reduce(NUMBER::MIN    , 0, 1, false, Double::min));
+		addOperation    (m, "max"               , new Reduce(NUMBER::MAX    , 0, 1, false, Double::max));
+		addOperation    (m, "missing"           , missing);
+		addOperation    (m, "merge"             , JsonLogic::merge, CompiledOperations.merge());
 		addListOperation(m, "cat"               , a->a.stream().map(o -> o instanceof final Double t && t.toString().endsWith(".0") ? t.intValue() : o).map(Object::toString).collect(Collectors.joining()));
-		defaultExpressions = m;
+		defaultExpressions = Operators.of(m);
+		defaultPure        = Set.of(missing, missingSome);
 	}
 
 	public static boolean equality(final JsonLogicEvaluator evaluator, final List<?> arguments, final PathSegment jsonPath) throws JsonLogicEvaluationException {
@@ -117,7 +159,7 @@ public final class JsonLogic {
 		return JSON.equalityValue(left, right);
 	}
 
-	private static boolean evaluateBoolean(final String name, final BiPredicate<Double, Double> compare, final JsonLogicEvaluator evaluator, final List<?> arguments, final PathSegment path) throws JsonLogicEvaluationException {
+	private static boolean evaluateBoolean(final String name, final CompiledOperations.DoubleComparison compare, final JsonLogicEvaluator evaluator, final List<?> arguments, final PathSegment path) throws JsonLogicEvaluationException {
 		if(arguments.size() < 2) throw new JsonLogicEvaluationException("'"+name+"' expects 2 or 3 arguments", path);
 		// If regular comparisons fail also between will fail
 		if(!(evaluator.asDouble(arguments, 0, path) instanceof final Double a)
@@ -258,18 +300,19 @@ public final class JsonLogic {
 	}
 
 	private static boolean strictEquality (final JsonLogicEvaluator evaluator, final List<?> arguments, final PathSegment path) throws JsonLogicEvaluationException {
-		final var left  = evaluator.evaluate(arguments.get(0), path);
-		final var right = evaluator.evaluate(arguments.get(1), path);
+		return strictEquals(evaluator.evaluate(arguments.get(0), path), evaluator.evaluate(arguments.get(1), path));
+	}
+
+	static boolean strictEquals(final Object left, final Object right) {
 		if (left instanceof Number && right instanceof Number) return ((Number) left).doubleValue() == ((Number) right).doubleValue();
 		if (left == right) return true;
 		return left != null && left.equals(right);
 	}
 
+	/** Publishes a new snapshot of the operations; rules compiled before keep the operations they were compiled with. */
 	public JsonLogic addOperation    (final String key, final JsonLogicExpressionFI fkt) {
-		synchronized (defaultExpressions) {
-			if(expressions == defaultExpressions) expressions = new ConcurrentHashMap<>(defaultExpressions);
-			expressions.put(key.toLowerCase(), fkt);
-		}
+		synchronized (this) { expressions = expressions.with(key.toLowerCase(), fkt); }
+		parseCache.clear();
 		return this;
 	}
 
@@ -277,7 +320,7 @@ public final class JsonLogic {
 		return addOperation(name, (JsonLogicExpressionFI) (evaluator, arguments, jsonPath) -> {
 			var values = evaluator.evaluateList(arguments, jsonPath);
 			if (values.size() == 1 && JSON.isList(values.get(0))) values = JSON.asList(values.get(0));
-			return function.apply(arguments);
+			return function.apply(values);
 		});
 	}
 
@@ -285,50 +328,208 @@ public final class JsonLogic {
 		return addOperation(name, (JsonLogicExpressionFI) (evaluator, arguments, jsonPath) -> {
 			var values = evaluator.evaluateList(arguments, jsonPath);
 			if (values.size() == 1 && JSON.isList(values.get(0))) values = JSON.asList(values.get(0));
-			return function.apply(arguments.toArray());
+			return function.apply(values.toArray());
 		});
 	}
 
-	/** Parse jsonObject to logicExpression */
-	private Object   logicExpression(final Object jsonObj) throws JsonLogicException {
+	/**
+	 * Like {@link #addOperation(String, JsonLogicExpressionFI)} for an operation without side effects whose result depends on its arguments only,
+	 * so repeated occurrences within a rule are evaluated once per evaluation.
+	 */
+	public JsonLogic addPureOperation(final String key, final JsonLogicExpressionFI fkt) {
+		synchronized (this) {
+			final var added = new ArrayList<JsonLogicExpressionFI>(pure);
+			added.add(fkt);
+			pure        = Set.copyOf(added);
+			expressions = expressions.with(key.toLowerCase(), fkt);
+		}
+		parseCache.clear();
+		return this;
+	}
+
+	/**
+	 * Compiled rule of the cache with the parts of the data it reads, and the operations and settings it was compiled with: a rule compiled
+	 * concurrently with {@link #addOperation(String, JsonLogicExpressionFI)} may be cached after the cache was cleared, so a hit is only used
+	 * while they are still current.
+	 */
+	private record Logic(CompiledNode root, Projection data, Operators operators, boolean optimized, int hotThreshold) { }
+
+	private boolean current(final Logic logic) {
+		return logic.operators() == expressions && logic.optimized() == optimize && logic.hotThreshold() == hotThreshold;
+	}
+
+	/** Parse jsonObject to a compiled logicExpression */
+	private Logic logicExpression(final Object jsonObj) throws JsonLogicException {
 		if(jsonObj instanceof final String jsonText) {
-			Object exprObj;
-			synchronized (parseCache) { exprObj = parseCache.get(jsonText); }
-			if(null == exprObj) {
-				final var parsed = JSON.parse(jsonText);
-				exprObj = JsonLogicParser.parse(parsed, PathSegment.ROOT);
-				synchronized (parseCache) {
-					parseCache.put(jsonText, exprObj);
-					parseCache.put(parsed  , exprObj);
-				}
+			var exprObj = parseCache.get(jsonText);
+			if(null == exprObj || !current(exprObj)) {
+				exprObj = compileRule(JsonLogicParser.parse(JSON.parse(jsonText), PathSegment.ROOT));
+				parseCache.put(jsonText, exprObj);
 			}
 			return exprObj;
 		}
-		Object exprObj;
-		synchronized (parseCache) { exprObj = parseCache.get(jsonObj); }
-		if(null == exprObj) {
-			exprObj = JsonLogicParser.parse(jsonObj, PathSegment.ROOT);
-			synchronized (parseCache) { parseCache.put(jsonObj, exprObj); }
+		return logicExpressionParsed(jsonObj);
+	}
+
+	private Logic logicExpressionParsed(final Object jsonObj) throws JsonLogicException {
+		var exprObj = parseCache.get(jsonObj);
+		if(null == exprObj || !current(exprObj)) {
+			exprObj = compileRule(JsonLogicParser.parse(jsonObj, PathSegment.ROOT));
+			parseCache.put(jsonObj, exprObj);
 		}
 		return exprObj;
 	}
 
-	private Object   logicExpressionParsed(final Object jsonObj) throws JsonLogicException {
-		Object exprObj;
-		synchronized (parseCache) { exprObj = parseCache.get(jsonObj); }
-		if(null == exprObj) {
-			exprObj = JsonLogicParser.parse(jsonObj, PathSegment.ROOT);
-			synchronized (parseCache) { parseCache.put(jsonObj, exprObj); }
+	/** Compiles {@code rule} (JSON text or already parsed) once, for callers that keep rules themselves and apply them repeatedly. */
+	public CompiledRule compile(final Object rule) throws JsonLogicException {
+		final var parsed = rule instanceof final String t ? JSON.parse(t) : JSON.plain(rule);
+		final var logic  = compileRule(JsonLogicParser.parse(parsed, PathSegment.ROOT));
+		return new CompiledRule(logic.root(), logic.data(), new JsonLogicEvaluator(logic.operators(), number, null));
+	}
+
+	/** Compiles {@code rules} (id to JSON text or already parsed rule) into one {@link RuleSet} evaluating all of them per record. */
+	public RuleSet compileRuleSet(final Map<String, ?> rules) throws JsonLogicException {
+		final var operators = expressions;
+		final var optimized = optimize;
+		final var ids   = new String[rules.size()];
+		final var trees = new CompiledNode[rules.size()];
+		var i = 0;
+		for (final var rule : rules.entrySet()) {
+			final var parsed = rule.getValue() instanceof final String t ? JSON.parse(t) : JSON.plain(rule.getValue());
+			ids  [i] = rule.getKey();
+			trees[i] = compileTree(JsonLogicParser.parse(parsed, PathSegment.ROOT), operators, optimized);
+			i++;
 		}
-		return exprObj;
+		final var all = CommonSubexpressions.share(new CompiledNode.ArrayLiteral(trees), pure);
+		return new RuleSet(ids, all, DataPaths.of(all), new JsonLogicEvaluator(operators, number, null));
 	}
 
+	/** Compiles {@code rules} (id to JSON text or already parsed rule) into a {@link RuleIndex} finding the rules a record satisfies. */
+	public RuleIndex compileRuleIndex(final Map<String, ?> rules) throws JsonLogicException {
+		final var builtIn   = expressions;
+		final var optimized = optimize;
+		final var threshold = hotThreshold;
+		final var ids    = new String[rules.size()];
+		final var parsed = new Object[rules.size()];
+		final var nodes  = new CompiledNode[rules.size()];
+		var i = 0;
+		for (final var rule : rules.entrySet()) {
+			ids   [i] = rule.getKey();
+			parsed[i] = JsonLogicParser.parse(rule.getValue() instanceof final String t ? JSON.parse(t) : JSON.plain(rule.getValue()), PathSegment.ROOT);
+			nodes [i] = compileLogic(parsed[i], builtIn, optimized, threshold);
+			i++;
+		}
+		return new RuleIndex(ids, parsed, nodes, DataPaths.of(nodes), op -> defaultExpressions.containsKey(op) && builtIn.get(op) == defaultExpressions.get(op), new JsonLogicEvaluator(builtIn, number, null));
+	}
+
+	private CompiledNode compileLogic(final Object logic, final Operators operators, final boolean optimized, final int threshold) {
+		final var tree = CommonSubexpressions.share(compileTree(logic, operators, optimized), pure);
+		return threshold > 0 ? new BytecodeCompiler.HotRule(tree, threshold) : tree;
+	}
+
+	/** Compiles {@code logic} with the operations and settings current now, read once so that they are the ones recorded. */
+	private Logic compileRule(final Object logic) {
+		final var operators = expressions;
+		final var optimized = optimize;
+		final var threshold = hotThreshold;
+		final var root = compileLogic(logic, operators, optimized, threshold);
+		return new Logic(root, DataPaths.of(root), operators, optimized, threshold);
+	}
+
+	private CompiledNode compileTree(final Object logic, final Operators operators, final boolean optimized) {
+		final var tree = new JsonLogicCompiler(operators).compile(logic, PathSegment.ROOT);
+		return optimized ? new RuleOptimizer(new JsonLogicEvaluator(operators, number, null)).optimize(tree) : tree;
+	}
+
+	/** Rules applied {@code threshold} times are translated to a hidden class, 0 (the default) keeps them on the node tree. */
+	public JsonLogic compileHotRules(final int threshold) {
+		hotThreshold = threshold;
+		parseCache.clear();
+		return this;
+	}
+
+	/** Folds literal subtrees, flattens nested {@code and}/{@code or}/{@code merge}/arithmetic and drops unreachable branches when compiling. */
+	public JsonLogic optimizeRules(final boolean enabled) {
+		optimize = enabled;
+		parseCache.clear();
+		return this;
+	}
+
+	/** Bounds the rule cache to compiled rules of up to {@code maximumWeight} characters of rule text, evicting rules beyond it. */
+	public JsonLogic cacheWeight(final long maximumWeight) {
+		parseCache.resize(maximumWeight);
+		return this;
+	}
+
+	public RuleCache.Stats cacheStats() { return parseCache.stats(); }
+
+	/**
+	 * {@code data} given as JSON text, UTF-8 bytes or a stream is parsed first, see {@link JSON#parseData(Object)};
+	 * only the members the rule can read are built, unless it reads the data as a whole or uses operations added to this instance.
+	 */
 	public Object    apply           (final Object expr, final Object data) throws JsonLogicException {
-		final var dat = data instanceof final String t ? JSON.parse(t) : data;
-		return new JsonLogicEvaluator(expressions, number, JSON.plain(dat)).evaluate(logicExpression(expr), PathSegment.ROOT);
+		final var logic = logicExpression(expr);
+		final var dat   = JSON.parseData(data, logic.data());
+		return logic.root().evaluate(new JsonLogicEvaluator(logic.operators(), number, JSON.plain(dat), new Object[1]));
 	}
 
 	public Object    applyParsed(final Object expr, final Object data) throws JsonLogicException {
-		return new JsonLogicEvaluator(expressions, number, JSON.plain(data)).evaluate(logicExpressionParsed(JSON.plain(expr)), PathSegment.ROOT);
+		final var logic = logicExpressionParsed(JSON.plain(expr));
+		return logic.root().evaluate(new JsonLogicEvaluator(logic.operators(), number, JSON.plain(data), new Object[1]));
+	}
+
+	/** Results of {@link #apply(Object, Object)} for every record of {@code data}, in order. */
+	public List<Object> applyBatch   (final Object expr, final Iterable<?> data) throws JsonLogicException {
+		final var results = data instanceof final Collection<?> c ? new ArrayList<>(c.size()) : new ArrayList<>();
+		applyBatch(expr, data, results::add);
+		return results;
+	}
+
+	/**
+	 * Passes the result of {@link #apply(Object, Object)} for every record of {@code data} to {@code sink}, in order.
+	 * The rule is looked up once and the evaluation state (including the slots of shared subexpressions) is reused from record to record.
+	 */
+	public void      applyBatch      (final Object expr, final Iterable<?> data, final Consumer<Object> sink) throws JsonLogicException {
+		final var rule  = logicExpression(expr);
+		final var batch = new Batch(rule.root(), rule.data(), new JsonLogicEvaluator(rule.operators(), number, null));
+		for (final var datum : data) sink.accept(batch.apply(datum));
+	}
+
+	/**
+	 * Results of {@link #apply(Object, Object)} for every record of {@code data} in input order, evaluated in chunks on {@code executor}.
+	 * A failed record stops the evaluation and is reported as {@link JsonLogicBatchException} with its index.
+	 */
+	public List<Object> applyParallel(final Object expr, final List<?> data, final Executor executor) throws JsonLogicException {
+		return applyParallel(expr, data.spliterator(), executor);
+	}
+
+	/** Like {@link #applyParallel(Object, List, Executor)}; sources without known size are read into chunks on the calling thread. */
+	public List<Object> applyParallel(final Object expr, final Spliterator<?> data, final Executor executor) throws JsonLogicException {
+		final var rule = logicExpression(expr);
+		return ParallelBatch.collect(data, executor, () -> new Batch(rule.root(), rule.data(), new JsonLogicEvaluator(rule.operators(), number, null)));
+	}
+
+	/**
+	 * Passes each result together with the index of its record to {@code sink} as soon as it is available,
+	 * concurrently from the threads of {@code executor} and in no particular order. Returns when all records are done.
+	 */
+	public void      applyParallel   (final Object expr, final Spliterator<?> data, final Executor executor, final ObjLongConsumer<Object> sink) throws JsonLogicException {
+		final var rule = logicExpression(expr);
+		ParallelBatch.run(data, executor, () -> new Batch(rule.root(), rule.data(), new JsonLogicEvaluator(rule.operators(), number, null)), sink);
+	}
+
+	/**
+	 * Applies the rule to every line of a newline-delimited JSON file and writes one JSON result line per record to {@code output}, in input order.
+	 * The file is memory-mapped and its lines are parsed and evaluated on {@code executor}; returns the number of records.
+	 */
+	public long      applyNdjson     (final Object expr, final Path input, final WritableByteChannel output, final Executor executor) throws JsonLogicException, IOException {
+		final var rule = logicExpression(expr);
+		return NdjsonBulk.run(input, output, executor, () -> new Batch(rule.root(), rule.data(), new JsonLogicEvaluator(rule.operators(), number, null)));
+	}
+
+	/** Like {@link #applyNdjson(Object, Path, WritableByteChannel, Executor)} for input read from a channel in fixed-size buffers. */
+	public long      applyNdjson     (final Object expr, final ReadableByteChannel input, final WritableByteChannel output, final Executor executor) throws JsonLogicException, IOException {
+		final var rule = logicExpression(expr);
+		return NdjsonBulk.run(input, output, executor, () -> new Batch(rule.root(), rule.data(), new JsonLogicEvaluator(rule.operators(), number, null)));
 	}
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package io.github.jamsesso.jsonlogic;
+
+/**
+ * Failure of one record of a batch; {@link #getCause()} is the error {@link JsonLogic#apply(Object, Object)} raised for it, a
+ * {@link JsonLogicException} or the {@link RuntimeException} of a custom operation.
+ */
+public class JsonLogicBatchException extends JsonLogicException {
+	private static final long serialVersionUID = 1L;
+	private final long index;
+
+	public JsonLogicBatchException(final long index, final Exception cause) {
+		super("record " + index + ": " + cause.getMessage(), cause, PathSegment.ROOT);
+		this.index = index;
+	}
+
+	/** Position of the failed record in the input, starting at 0. */
+	public long getIndex() { return index; }
+
+	/** Path of the failed operation within the rule. */
+	@Override public String getJsonPath() { return getCause() instanceof final JsonLogicException e ? e.getJsonPath() : super.getJsonPath(); }
+}
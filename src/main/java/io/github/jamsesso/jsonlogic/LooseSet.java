@@ -0,0 +1,127 @@
+package io.github.jamsesso.jsonlogic;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
+
+/**
+ * Literal values indexed for membership under the loose equality of {@code ==} ({@link JSON#equalityValue}), so that {@code in} on a
+ * literal array takes one lookup instead of a comparison per value. A number needle is looked up among the numbers, numeric strings and
+ * booleans it equals, a string needle by text and as number, a boolean by what it equals; other needles (lists, maps) are compared with
+ * every value.
+ */
+final class LooseSet {
+	private final Object[]    values;
+	/** Values that are numbers, what a string or boolean needle is compared with numerically. */
+	private final DoubleSet   numbers;
+	/** Numbers, numeric strings (blank ones as 0) and booleans (as 1 and 0), what a number needle equals. */
+	private final DoubleSet   numeric;
+	private final Set<String> strings;
+	private final boolean     hasNull;
+	private final boolean     hasTrue;
+	private final boolean     hasFalse;
+	private final boolean     hasText;
+	private final boolean     hasEmpty;
+	/** A falsy value that is not a scalar (an empty list), which every falsy needle equals. */
+	private final boolean     hasFalsy;
+
+	LooseSet(final List<?> values) {
+		this.values = values.toArray();
+		final var numbers = new double[this.values.length];
+		final var numeric = new double[this.values.length * 2];
+		final var strings = new HashSet<String>();
+		var n = 0;
+		var m = 0;
+		var hasNull = false; var hasTrue = false; var hasFalse = false; var hasText = false; var hasEmpty = false; var hasFalsy = false;
+		for (final var value : this.values) {
+			switch (value) {
+			case null            -> hasNull = true;
+			case final Number  t -> { numbers[n++] = t.doubleValue(); numeric[m++] = t.doubleValue(); }
+			case final Boolean t -> {
+				if (t) hasTrue = true; else hasFalse = true;
+				numeric[m++] = t ? 1 : 0;
+			}
+			case final String  t -> {
+				strings.add(t);
+				if (t.isEmpty()) hasEmpty = true; else hasText = true;
+				final var number = number(t);
+				if (number == number) numeric[m++] = number;
+			}
+			default              -> hasFalsy |= !JSON.truthy(value);
+			}
+		}
+		this.numbers  = new DoubleSet(numbers, n);
+		this.numeric  = new DoubleSet(numeric, m);
+		this.strings  = strings;
+		this.hasNull  = hasNull;
+		this.hasTrue  = hasTrue;
+		this.hasFalse = hasFalse;
+		this.hasText  = hasText;
+		this.hasEmpty = hasEmpty;
+		this.hasFalsy = hasFalsy;
+	}
+
+	/** Whether some value {@code ==} {@code needle}, same as comparing it with each of them. */
+	boolean contains(final Object needle) throws JsonLogicEvaluationException {
+		return switch (needle) {
+		case null            -> hasNull;
+		case final Number  t -> numeric.contains(t.doubleValue()) || hasFalsy && !JSON.truthy(t);
+		case final String  t -> strings.contains(t) || (t.isEmpty() ? hasFalse || hasFalsy : hasTrue) || numbers.contains(number(t));
+		case final Boolean t -> t ? hasTrue || hasText || numbers.contains(1) : hasFalse || hasEmpty || hasFalsy || numbers.contains(0);
+		default              -> {
+			for (final var value : values) if (JSON.equalityValue(value, needle)) yield true;
+			yield false;
+		}
+		};
+	}
+
+	/** Numeric value of a string compared with a number, NaN when it has none. */
+	private static double number(final String text) {
+		if (text.trim().isEmpty()) return 0;
+		try { return Double.parseDouble(text); } catch (final NumberFormatException e) { return Double.NaN; }
+	}
+
+	/** Open addressing set of doubles compared with {@code ==}: zeros are one value and NaN is never contained. */
+	private static final class DoubleSet {
+		/** The canonical NaN, never stored. */
+		private static final long EMPTY = Double.doubleToRawLongBits(Double.NaN);
+
+		private final long[] table;
+		private final int    mask;
+
+		DoubleSet(final double[] values, final int size) {
+			table = new long[Math.max(2, Integer.highestOneBit(Math.max(1, size) * 2 - 1) * 2)];
+			mask  = table.length - 1;
+			Arrays.fill(table, EMPTY);
+			for (var i = 0; i < size; i++) {
+				final var value = values[i];
+				if (value != value) continue;
+				final var bits = bits(value);
+				var slot = slot(bits);
+				while (table[slot] != EMPTY && table[slot] != bits) slot = (slot + 1) & mask;
+				table[slot] = bits;
+			}
+		}
+
+		boolean contains(final double value) {
+			if (value != value) return false;
+			final var bits = bits(value);
+			for (var slot = slot(bits); ; slot = (slot + 1) & mask) {
+				final var found = table[slot];
+				if (found == bits) return true;
+				if (found == EMPTY) return false;
+			}
+		}
+
+		private static long bits(final double value) { return Double.doubleToRawLongBits(value == 0 ? 0.0 : value); }
+
+		private int slot(final long bits) {
+			final var h = bits * 0x9E37_79B9_7F4A_7C15L;
+			return (int) (h ^ (h >>> 32)) & mask;
+		}
+	}
+}
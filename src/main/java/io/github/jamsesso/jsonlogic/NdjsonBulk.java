@@ -0,0 +1,165 @@
+package io.github.jamsesso.jsonlogic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.ast.JsonLogicParseException;
+import io.github.jamsesso.jsonlogic.ast.JsonParserBytes;
+
+/**
+ * Applies one rule to every line of newline-delimited JSON and writes one result line per record, in input order.
+ * The input is cut into blocks ending at a line break (slices of a memory-mapped file, or buffers read from a channel);
+ * blocks are parsed and evaluated concurrently, and only a bounded number of them is in flight, so heap use does not depend on the input size.
+ * Blank lines are skipped and not counted as records.
+ */
+final class NdjsonBulk {
+	/** Records per block are a few thousand for typical lines, enough to amortize scheduling. */
+	private static final int BLOCK  = 1 << 20;
+	/** Mapped at once; lines are never split, a window ends at the last line break within it. */
+	private static final long WINDOW = 1L << 28;
+
+	private record Output(ByteBuffer lines, int records, int failedRecord, Exception failure) { }
+
+	private final Supplier<Batch>          batches;
+	private final Executor                 executor;
+	private final WritableByteChannel      out;
+	private final int                      inFlight;
+	private final ArrayDeque<CompletableFuture<Output>> pending = new ArrayDeque<>();
+	private long                           records;
+
+	private NdjsonBulk(final Supplier<Batch> batches, final Executor executor, final WritableByteChannel out) {
+		this.batches  = batches;
+		this.executor = executor;
+		this.out      = out;
+		this.inFlight = 2 * (executor instanceof final ForkJoinPool pool ? pool.getParallelism() : Runtime.getRuntime().availableProcessors());
+	}
+
+	/** Returns the number of records. */
+	static long run(final Path input, final WritableByteChannel out, final Executor executor, final Supplier<Batch> batches) throws IOException, JsonLogicException {
+		final var bulk = new NdjsonBulk(batches, executor, out);
+		try (var file = FileChannel.open(input, StandardOpenOption.READ)) {
+			final var size = file.size();
+			var position = 0L;
+			var window   = WINDOW;
+			while (position < size) {
+				final var mapped = file.map(FileChannel.MapMode.READ_ONLY, position, Math.min(window, size - position));
+				final var last   = position + mapped.limit() == size ? mapped.limit() : lastLineEnd(mapped);
+				// a single line longer than the window: map more of it
+				if (last == 0) { window *= 2; continue; }
+				bulk.blocks(mapped.limit(last));
+				position += last;
+				window    = WINDOW;
+			}
+		}
+		return bulk.finish();
+	}
+
+	static long run(final ReadableByteChannel input, final WritableByteChannel out, final Executor executor, final Supplier<Batch> batches) throws IOException, JsonLogicException {
+		final var bulk = new NdjsonBulk(batches, executor, out);
+		var buffer = ByteBuffer.allocate(BLOCK);
+		var eof    = false;
+		while (!eof) {
+			eof = input.read(buffer) < 0;
+			if (!eof && buffer.hasRemaining()) continue;
+			buffer.flip();
+			final var last = eof ? buffer.limit() : lastLineEnd(buffer);
+			// the partial line at the end starts the next buffer, which grows when a single line fills it
+			final var rest = buffer.limit() - last;
+			final var next = ByteBuffer.allocate(last == 0 ? 2 * buffer.capacity() : Math.max(BLOCK, 2 * rest));
+			next.put(buffer.duplicate().position(last));
+			if (last > 0) bulk.submit(buffer.limit(last));
+			buffer = next;
+		}
+		return bulk.finish();
+	}
+
+	/** Index after the last line break, 0 if there is none. */
+	private static int lastLineEnd(final ByteBuffer buffer) {
+		for (var i = buffer.limit() - 1; i >= 0; i--) if (buffer.get(i) == '\n') return i + 1;
+		return 0;
+	}
+
+	private void blocks(final ByteBuffer region) throws IOException, JsonLogicException {
+		var start = 0;
+		while (start < region.limit()) {
+			var end = Math.min(start + BLOCK, region.limit());
+			while (end < region.limit() && region.get(end - 1) != '\n') end++;
+			submit(region.slice(start, end - start));
+			start = end;
+		}
+	}
+
+	private void submit(final ByteBuffer block) throws IOException, JsonLogicException {
+		if (pending.size() >= inFlight) write(pending.poll());
+		pending.add(CompletableFuture.supplyAsync(() -> evaluate(block), executor));
+	}
+
+	private long finish() throws IOException, JsonLogicException {
+		while (!pending.isEmpty()) write(pending.poll());
+		return records;
+	}
+
+	private void write(final CompletableFuture<Output> next) throws IOException, JsonLogicException {
+		final Output output;
+		try {
+			output = next.join();
+		} catch (final CompletionException e) {
+			if (e.getCause() instanceof final RuntimeException r) throw r;
+			throw e;
+		}
+		if (output.failure() != null) {
+			pending.forEach(p -> p.cancel(false));
+			throw new JsonLogicBatchException(records + output.failedRecord(), output.failure());
+		}
+		while (output.lines().hasRemaining()) out.write(output.lines());
+		records += output.records();
+	}
+
+	private static boolean blank(final byte[] line, final int length) {
+		for (var i = 0; i < length; i++) {
+			if (line[i] < 0) return new String(line, 0, length, StandardCharsets.UTF_8).isBlank();
+			if (!Character.isWhitespace(line[i])) return false;
+		}
+		return true;
+	}
+
+	private Output evaluate(final ByteBuffer block) {
+		final var batch = batches.get();
+		final var text  = new StringBuilder(block.remaining() + 64);
+		var scratch = new byte[256];
+		var records = 0;
+		var start   = 0;
+		try {
+			while (start < block.limit()) {
+				var end = start;
+				while (end < block.limit() && block.get(end) != '\n') end++;
+				final var length = end - start;
+				if (length > scratch.length) scratch = new byte[Math.max(length, 2 * scratch.length)];
+				block.get(start, scratch, 0, length);
+				start = end + 1;
+				if (blank(scratch, length)) continue;
+				final Object record;
+				try { record = JsonParserBytes.parse(scratch, 0, length, batch.projection()); } catch (final RuntimeException e) { throw new JsonLogicParseException(e.getMessage(), e, PathSegment.ROOT); }
+				JSON.write(batch.applyParsed(record), text).append('\n');
+				records++;
+			}
+		} catch (final JsonLogicException | RuntimeException e) {
+			return new Output(null, records, records, e);
+		}
+		return new Output(StandardCharsets.UTF_8.encode(CharBuffer.wrap(text)), records, -1, null);
+	}
+}
@@ -0,0 +1,133 @@
+package io.github.jamsesso.jsonlogic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Applies one rule to the records of a {@link Spliterator} in chunks running concurrently on an {@link Executor}.
+ * Sources that know the size of their parts are split with {@link Spliterator#trySplit()}, others are read into chunks on the calling thread,
+ * which waits for the oldest chunk while twice as many as the executor has threads are pending.
+ * Every chunk has its own {@link Batch}; a failed record stops all chunks and is reported with its index.
+ */
+final class ParallelBatch {
+	/** Below this many records a chunk costs more to schedule than to evaluate. */
+	private static final int MIN_CHUNK = 1 << 10;
+
+	private final Supplier<Batch>         batches;
+	private final Executor                executor;
+	private final ObjLongConsumer<Object> sink;
+	private final long                    chunkSize;
+	private final int                     inFlight;
+	private final ArrayDeque<CompletableFuture<Void>> chunks = new ArrayDeque<>();
+	private volatile boolean              failed;
+	/** Failed record with the lowest index, guarded by {@code this}. */
+	private long                          failedIndex = Long.MAX_VALUE;
+	private Exception                     failure;
+
+	private ParallelBatch(final Supplier<Batch> batches, final Executor executor, final ObjLongConsumer<Object> sink, final long size) {
+		this.batches   = batches;
+		this.executor  = executor;
+		this.sink      = sink;
+		// a few chunks per core so that uneven records do not leave cores idle at the end
+		final var parallelism = executor instanceof final ForkJoinPool pool ? pool.getParallelism() : Runtime.getRuntime().availableProcessors();
+		this.chunkSize = Math.max(MIN_CHUNK, size / (4L * parallelism));
+		this.inFlight  = 2 * parallelism;
+	}
+
+	/** Passes each result with the index of its record to {@code sink}, from the executor's threads and in no particular order. */
+	static void run(final Spliterator<?> data, final Executor executor, final Supplier<Batch> batches, final ObjLongConsumer<Object> sink) throws JsonLogicException {
+		final var size = data.getExactSizeIfKnown();
+		final var run  = new ParallelBatch(batches, executor, sink, size < 0 ? 0 : size);
+		if (data.hasCharacteristics(Spliterator.SUBSIZED)) run.split(data, 0);
+		else run.read(data);
+		run.await();
+	}
+
+	/** Results in input order. */
+	static List<Object> collect(final Spliterator<?> data, final Executor executor, final Supplier<Batch> batches) throws JsonLogicException {
+		final var source = data.hasCharacteristics(Spliterator.SIZED) ? data : drain(data);
+		final var size   = source.getExactSizeIfKnown();
+		if (size > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("too many records for a list: " + size);
+		final var results = new Object[(int) size];
+		// every index is written once, joining the chunks publishes the writes
+		run(source, executor, batches, (result, index) -> results[(int) index] = result);
+		return Arrays.asList(results);
+	}
+
+	private static Spliterator<?> drain(final Spliterator<?> data) {
+		final var records = new ArrayList<>();
+		data.forEachRemaining(records::add);
+		return records.spliterator();
+	}
+
+	private void split(final Spliterator<?> data, long base) {
+		Spliterator<?> prefix;
+		while (data.getExactSizeIfKnown() > chunkSize && (prefix = data.trySplit()) != null) {
+			final var prefixSize = prefix.getExactSizeIfKnown();
+			split(prefix, base);
+			base += prefixSize;
+		}
+		submit(data, base);
+	}
+
+	private void read(final Spliterator<?> data) {
+		var base = 0L;
+		final var chunk = new ArrayList<>();
+		while (!failed && data.tryAdvance(chunk::add)) {
+			if (chunk.size() < chunkSize) continue;
+			if (chunks.size() >= inFlight) join(chunks.poll());
+			submit(Spliterators.spliterator(chunk.toArray(), Spliterator.ORDERED), base);
+			base += chunk.size();
+			chunk.clear();
+		}
+		if (!chunk.isEmpty()) submit(Spliterators.spliterator(chunk.toArray(), Spliterator.ORDERED), base);
+	}
+
+	private void submit(final Spliterator<?> records, final long base) {
+		chunks.add(CompletableFuture.runAsync(() -> evaluate(records, base), executor));
+	}
+
+	private void evaluate(final Spliterator<?> records, final long base) {
+		final var batch  = batches.get();
+		final var record = new Object[1];
+		var index = base;
+		try {
+			while (!failed && records.tryAdvance(r -> record[0] = r)) {
+				sink.accept(batch.apply(record[0]), index);
+				index++;
+			}
+		} catch (final JsonLogicException | RuntimeException e) {
+			fail(index, e);
+		}
+	}
+
+	private synchronized void fail(final long index, final Exception e) {
+		failed = true;
+		if (index < failedIndex) { failedIndex = index; failure = e; }
+	}
+
+	private void await() throws JsonLogicException {
+		join(CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)));
+		synchronized (this) { if (failure != null) throw new JsonLogicBatchException(failedIndex, failure); }
+	}
+
+	private static void join(final CompletableFuture<Void> chunk) {
+		try {
+			chunk.join();
+		} catch (final CompletionException e) {
+			if (e.getCause() instanceof final RuntimeException r) throw r;
+			if (e.getCause() instanceof final Error r) throw r;
+			throw e;
+		}
+	}
+}
@@ -2,14 +2,21 @@ package io.github.jamsesso.jsonlogic;
 
 import java.util.List;
 import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
 
+import io.github.jamsesso.jsonlogic.ast.JSON;
 import io.github.jamsesso.jsonlogic.ast.JsonLogicNode;
+import io.github.jamsesso.jsonlogic.evaluator.CompilableExpression;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicCompiler;
 import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
 import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
 import io.github.jamsesso.jsonlogic.evaluator.JsonLogicExpressionFI;
 
-public record Reduce(BiFunction<Number, Number, Number> reducer, int maxArguments, int minArguments, boolean isMinus) implements JsonLogicExpressionFI {
+public record Reduce(BiFunction<Number, Number, Number> reducer, int maxArguments, int minArguments, boolean isMinus, DoubleBinaryOperator doubleReducer) implements JsonLogicExpressionFI, CompilableExpression {
 	public Reduce { if(maxArguments < 1) maxArguments = Integer.MAX_VALUE; }
+	/** Without {@code doubleReducer} compiled rules always reduce boxed numbers. */
+	public Reduce(final BiFunction<Number, Number, Number> reducer, final int maxArguments, final int minArguments, final boolean isMinus) { this(reducer, maxArguments, minArguments, isMinus, null); }
 	@Override public Number evaluate(final JsonLogicEvaluator evaluator, final List<?> args, final PathSegment jsonPath) throws JsonLogicEvaluationException {
 		if (args.isEmpty()) return null;
 
@@ -39,4 +46,82 @@ public record Reduce(BiFunction<Number, Number, Number> reducer, int maxArgument
 		if(argIdx < minArguments) return  null;
 		return accumulator;
 	}
+
+	/**
+	 * Literal arguments are kept as plain values, only operations, variables and lists holding them become nodes.
+	 * With two or more arguments and no literal list none of them can be spread, so each is one unboxed operand.
+	 */
+	@Override public CompiledNode compile(final JsonLogicCompiler compiler, final List<?> args, final PathSegment jsonPath) {
+		if(doubleReducer != null && args.size() >= 2 && args.stream().noneMatch(List.class::isInstance)) {
+			final var operands = new CompiledNode[Math.min(args.size(), maxArguments)];
+			for(var i=0;i<operands.length;i++) operands[i] = args.get(i) instanceof JsonLogicNode ? compiler.compile(args.get(i), jsonPath.sub(i)) : new CompiledNode.Constant(args.get(i));
+			return new Arithmetic(doubleReducer, operands);
+		}
+		final var items = new Object[args.size()];
+		for(var i=0;i<items.length;i++) items[i] = args.get(i) instanceof JsonLogicNode || args.get(i) instanceof final List<?> l && hasNode(l) ? compiler.compile(args.get(i), jsonPath.sub(i)) : args.get(i);
+		return new Compiled(this, items);
+	}
+
+	private static boolean hasNode(final List<?> list) {
+		for(final var item : list) if(item instanceof JsonLogicNode || item instanceof final List<?> l && hasNode(l)) return true;
+		return false;
+	}
+
+	record Compiled(Reduce reduce, Object[] args) implements CompiledNode {
+		@Override public Number evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			if (args.length == 0) return null;
+			final var maxArguments = reduce.maxArguments;
+			Number accumulator = null;
+			final var todo = new NullableDeque<>(3 * args.length);
+			for(var i=args.length-1;i>=0;i--) todo.push(args[i]);
+			var argIdx = 0;
+			while(!todo.isEmpty()) {
+				if(argIdx >= maxArguments) return null;
+				var v = todo.pop();
+				if(v instanceof final CompiledNode n) v = n.evaluate(scope);
+				if(v instanceof final List<?> l && argIdx == 0) {
+					if(args.length == 1) {
+						for(var i=l.size()-1;i>=0;i--) todo.push(l.get(i));
+						continue;
+					}
+					if(l.isEmpty()) return null;
+					v = l.get(0);
+				}
+				if(!(JSON.asNumber(v) instanceof final Number cur)) return null;
+				accumulator = 0 == argIdx ? cur : reduce.reducer.apply(accumulator, cur);
+				argIdx++;
+				if(argIdx == maxArguments) return accumulator;
+			}
+			if(reduce.isMinus && argIdx == 1) return scope.number().MINUS(0, accumulator);
+			if(argIdx < reduce.minArguments) return  null;
+			return accumulator;
+		}
+
+		@Override public CompiledNode rewrite(final Rewriter rewriter) {
+			final var items = args.clone();
+			for(var i=0;i<items.length;i++) if(items[i] instanceof final CompiledNode n) items[i] = rewriter.apply(n, false);
+			return new Compiled(reduce, items);
+		}
+	}
+
+	/** Reduction of at least two operands on doubles, the result is only boxed when an object is asked for. */
+	record Arithmetic(DoubleBinaryOperator reducer, CompiledNode[] operands) implements CompiledNode {
+		@Override public Number evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var result = asDouble(scope);
+			return CompiledNode.isNumber(result) ? result : null;
+		}
+
+		@Override public double asDouble(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			var accumulator = operands[0].asDouble(scope);
+			if(!CompiledNode.isNumber(accumulator)) return NO_NUMBER;
+			for(var i=1;i<operands.length;i++) {
+				final var cur = operands[i].asDouble(scope);
+				if(!CompiledNode.isNumber(cur)) return NO_NUMBER;
+				accumulator = reducer.applyAsDouble(accumulator, cur);
+			}
+			return accumulator;
+		}
+
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new Arithmetic(reducer, CompiledNode.rewriteAll(operands, rewriter)); }
+	}
 }
\ No newline at end of file
@@ -0,0 +1,250 @@
+package io.github.jamsesso.jsonlogic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Weight-bounded cache of compiled rules.
+ * Lookups are a plain {@link ConcurrentHashMap} read, and the key is recorded in a striped buffer of recent reads; no lock is taken
+ * on a hit. Insertions share one lock, which also drains the buffers into the frequency sketch (a lookup that finds its stripe full
+ * drains it when the lock is free, and drops the read otherwise), so only the lock holder touches the sketch.
+ * Victims are chosen in CLOCK order (a hit marks the entry, a marked entry gets a second round),
+ * and a new rule only replaces the victims it needs room of when it has been requested more often than each of them (TinyLFU admission),
+ * so a burst of one-off rules cannot push the hot ones out.
+ */
+public final class RuleCache<V> {
+	/** Counters since creation; {@code weight} is the current total weight of the cached rules. */
+	public record Stats(long hits, long misses, long evictions, long rejections, long weight, int size) { }
+
+	private static final class Node<V> {
+		final Object  key;
+		volatile V    value;
+		final int     weight;
+		volatile boolean referenced;
+		Node(final Object key, final V value, final int weight) { this.key = key; this.value = value; this.weight = weight; }
+	}
+
+	/** Key standing in for the {@code null} rule, which {@link ConcurrentHashMap} cannot hold. */
+	private static final Object NULL = new Object();
+
+	private final ConcurrentHashMap<Object, Node<V>> map   = new ConcurrentHashMap<>();
+	/** Insertion order of {@link #map}, only touched while holding {@link #lock}. */
+	private final ArrayDeque<Node<V>>                clock = new ArrayDeque<>();
+	private final ReentrantLock                      lock  = new ReentrantLock();
+	/** Only touched while holding {@link #lock}. */
+	private FrequencySketch       sketch;
+	private final ReadBuffer      reads = new ReadBuffer();
+	private volatile long   maximumWeight;
+	private final LongAdder hits       = new LongAdder();
+	private final LongAdder misses     = new LongAdder();
+	private final LongAdder evictions  = new LongAdder();
+	private final LongAdder rejections = new LongAdder();
+	private long weight;
+
+	public RuleCache(final long maximumWeight) {
+		if (maximumWeight < 1) throw new IllegalArgumentException("maximumWeight must be positive: " + maximumWeight);
+		this.maximumWeight = maximumWeight;
+		this.sketch        = sketch(maximumWeight);
+	}
+
+	private static FrequencySketch sketch(final long maximumWeight) { return new FrequencySketch((int) Math.min(1 << 16, Math.max(16, maximumWeight / 16))); }
+
+	public V get(final Object rule) {
+		final var key = rule == null ? NULL : rule;
+		if (!reads.offer(key) && lock.tryLock()) {
+			try { reads.drain(sketch); } finally { lock.unlock(); }
+		}
+		final var node = map.get(key);
+		if (node == null) { misses.increment(); return null; }
+		if (!node.referenced) node.referenced = true;
+		hits.increment();
+		return node.value;
+	}
+
+	/**
+	 * Caches {@code value} under {@code key} unless the admission policy keeps a more frequently used rule instead;
+	 * a rule already cached under {@code key} is replaced in place.
+	 */
+	public void put(final Object rule, final V value) {
+		final var key = rule == null ? NULL : rule;
+		final var w   = weigh(rule);
+		if (w > maximumWeight) { rejections.increment(); return; }
+		lock.lock();
+		try {
+			reads.drain(sketch);
+			final var cached = map.get(key);
+			if (cached != null) { cached.value = value; return; }
+			final var frequency = sketch.frequency(key);
+			// all victims are chosen first, the rule is only cached when it wins against every one of them
+			final var victims = new ArrayList<Node<V>>();
+			var freed = 0L;
+			while (weight - freed + w > maximumWeight) {
+				final var victim = clock.poll();
+				if (victim.referenced) { victim.referenced = false; clock.add(victim); continue; }
+				victims.add(victim);
+				freed += victim.weight;
+				if (sketch.frequency(victim.key) >= frequency) {
+					for (var i = victims.size() - 1; i >= 0; i--) clock.addFirst(victims.get(i));
+					rejections.increment();
+					return;
+				}
+			}
+			for (final var victim : victims) {
+				map.remove(victim.key);
+				weight -= victim.weight;
+				evictions.increment();
+			}
+			final var node = new Node<>(key, value, w);
+			map.put(key, node);
+			clock.add(node);
+			weight += w;
+		} finally { lock.unlock(); }
+	}
+
+	/** Bounds the cache to {@code maximumWeight}, evicting rules in CLOCK order until the cached ones fit; their frequencies start over. */
+	public void resize(final long maximumWeight) {
+		if (maximumWeight < 1) throw new IllegalArgumentException("maximumWeight must be positive: " + maximumWeight);
+		lock.lock();
+		try {
+			this.maximumWeight = maximumWeight;
+			sketch = sketch(maximumWeight);
+			while (weight > maximumWeight) {
+				final var victim = clock.poll();
+				map.remove(victim.key);
+				weight -= victim.weight;
+				evictions.increment();
+			}
+		} finally { lock.unlock(); }
+	}
+
+	public void clear() {
+		lock.lock();
+		try {
+			map.clear();
+			clock.clear();
+			weight = 0;
+		} finally { lock.unlock(); }
+	}
+
+	public Stats stats() {
+		lock.lock();
+		try { return new Stats(hits.sum(), misses.sum(), evictions.sum(), rejections.sum(), weight, map.size()); } finally { lock.unlock(); }
+	}
+
+	/** Length of the rule text, or the length its JSON text would roughly have for an already parsed rule. */
+	static int weigh(final Object rule) {
+		return switch (rule) {
+		case null                -> 4;
+		case final String      s -> s.length() + 2;
+		case final Map<?, ?>   m -> {
+			var w = 2;
+			for (final var e : m.entrySet()) w += weigh(e.getKey()) + weigh(e.getValue()) + 2;
+			yield w;
+		}
+		case final List<?>     l -> {
+			var w = 2;
+			for (final var e : l) w += weigh(e) + 1;
+			yield w;
+		}
+		default                  -> 4;
+		};
+	}
+
+	/**
+	 * Keys of recent lookups in lossy ring buffers, one per stripe of threads so that readers on different cores rarely write the same
+	 * cache line. A read is dropped when its stripe is full or another thread claimed the slot first, which samples the reads under load.
+	 */
+	private static final class ReadBuffer {
+		private static final int SIZE = 16;
+
+		private static final class Stripe {
+			final AtomicReferenceArray<Object> slots  = new AtomicReferenceArray<>(SIZE);
+			final AtomicLong                   writes = new AtomicLong();
+			/** Written by the drainer only. */
+			volatile long                      reads;
+		}
+
+		private final Stripe[] stripes;
+
+		ReadBuffer() {
+			stripes = new Stripe[Math.min(32, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1))];
+			for (var i = 0; i < stripes.length; i++) stripes[i] = new Stripe();
+		}
+
+		/** Records {@code key}, {@code false} when the stripe of this thread is full and should be drained. */
+		boolean offer(final Object key) {
+			final var stripe = stripes[(int) Thread.currentThread().threadId() & stripes.length - 1];
+			final var w = stripe.writes.get();
+			if (w - stripe.reads >= SIZE) return false;
+			if (stripe.writes.compareAndSet(w, w + 1)) stripe.slots.lazySet((int) w & SIZE - 1, key);
+			return true;
+		}
+
+		/** Counts the recorded keys into {@code sketch}; a slot claimed but not yet written ends its stripe until the next drain. */
+		void drain(final FrequencySketch sketch) {
+			for (final var stripe : stripes) {
+				var r = stripe.reads;
+				for (final var end = stripe.writes.get(); r < end; r++) {
+					final var key = stripe.slots.getAndSet((int) r & SIZE - 1, null);
+					if (key == null) break;
+					sketch.increment(key);
+				}
+				stripe.reads = r;
+			}
+		}
+	}
+
+	/** Count-min sketch with four saturating 4 bit counters per key, halved periodically so old popularity fades. */
+	private static final class FrequencySketch {
+		private final long[] table;
+		private final int    sampleSize;
+		private int          additions;
+
+		FrequencySketch(final int longs) {
+			table      = new long[longs];
+			sampleSize = 10 * longs;
+		}
+
+		void increment(final Object key) {
+			final var hash = spread(key.hashCode());
+			var added = false;
+			for (var i = 0; i < 4; i++) {
+				final var index  = index(hash, i);
+				final var offset = offset(hash, i);
+				if ((table[index] >>> offset & 0xfL) != 0xfL) { table[index] += 1L << offset; added = true; }
+			}
+			if (added && ++additions >= sampleSize) reset();
+		}
+
+		int frequency(final Object key) {
+			final var hash = spread(key.hashCode());
+			var min = 0xf;
+			for (var i = 0; i < 4; i++) min = Math.min(min, (int) (table[index(hash, i)] >>> offset(hash, i) & 0xfL));
+			return min;
+		}
+
+		private void reset() {
+			for (var i = 0; i < table.length; i++) table[i] = table[i] >>> 1 & 0x7777_7777_7777_7777L;
+			additions /= 2;
+		}
+
+		private int index(final int hash, final int i) {
+			final var h = hash * (0x9e3779b9 + 2 * i) >>> 8;
+			return (h & Integer.MAX_VALUE) % table.length;
+		}
+
+		private static int offset(final int hash, final int i) { return (hash >>> (i << 3) & 0xf) << 2; }
+
+		private static int spread(final int h) {
+			final var x = (h ^ h >>> 17) * 0xed5ad4bb;
+			return x ^ x >>> 11;
+		}
+	}
+}
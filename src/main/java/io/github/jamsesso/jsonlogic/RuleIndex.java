@@ -0,0 +1,293 @@
+package io.github.jamsesso.jsonlogic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.ast.Projection;
+import io.github.jamsesso.jsonlogic.ast.JsonLogicOperation;
+import io.github.jamsesso.jsonlogic.ast.JsonLogicVariable;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicCompiler;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+
+/**
+ * Rules compiled by {@link JsonLogic#compileRuleIndex(Map)} for finding the ones a record satisfies without evaluating all of them.
+ * From each rule one top level condition (the rule itself or one argument of a top level {@code and}) is indexed:
+ * {@code ==}, {@code ===} or {@code in} of a {@code var} against string or number literals in a hash index,
+ * {@code <}, {@code <=}, {@code >}, {@code >=} of a {@code var} against number literals in an interval index.
+ * A record is only evaluated against the rules whose indexed condition it meets and the rules without such a condition.
+ * Immutable and safe to share between threads.
+ */
+public final class RuleIndex {
+	private final String[]           ids;
+	private final CompiledNode[]     rules;
+	private final PathIndex[]        paths;
+	/** Rules without an indexable condition, evaluated against every record. */
+	private final int[]              unindexed;
+	private final Projection         projection;
+	private final JsonLogicEvaluator scope;
+
+	/** {@code builtIn} tells whether an operator still has its default meaning, conditions on replaced operators are not indexed. */
+	RuleIndex(final String[] ids, final Object[] parsed, final CompiledNode[] rules, final Projection projection, final Predicate<String> builtIn, final JsonLogicEvaluator scope) {
+		this.ids        = ids;
+		this.rules      = rules;
+		this.projection = projection;
+		this.scope      = scope;
+		final var byPath    = new LinkedHashMap<String, PathIndex.Builder>();
+		final var unindexed = new ArrayList<Integer>();
+		for (var i = 0; i < parsed.length; i++) {
+			final var condition = condition(parsed[i], builtIn);
+			if (condition == null) unindexed.add(i);
+			else condition.addTo(byPath.computeIfAbsent(condition.path(), PathIndex.Builder::new), i);
+		}
+		final var compiler = new JsonLogicCompiler(scope.expressions());
+		this.paths     = byPath.values().stream().map(b -> new PathIndex(b, compiler)).toArray(PathIndex[]::new);
+		this.unindexed = unindexed.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	public int size() { return ids.length; }
+
+	/** Parts of a record any of the rules reads; only these are built when parsing {@code data} given as text, bytes or a stream. */
+	public Projection projection() { return projection; }
+
+	/** Ids of the rules that are evaluated against every record because none of their top level conditions could be indexed. */
+	public List<String> unindexed() {
+		final var result = new ArrayList<String>(unindexed.length);
+		for (final var i : unindexed) result.add(ids[i]);
+		return result;
+	}
+
+	/** Ids of the rules with a truthy result for {@code data} (parsed first when given as text), in the order the rules were given. */
+	public List<String> matching(final Object data) throws JsonLogicException {
+		final var record     = scope.scoped(JSON.plain(JSON.parseData(data, projection)));
+		final var candidates = new BitSet(ids.length);
+		for (final var i : unindexed) candidates.set(i);
+		for (final var path : paths) path.candidates(record, candidates);
+		final var result = new ArrayList<String>();
+		for (var i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) if (rules[i].asBoolean(record)) result.add(ids[i]);
+		return result;
+	}
+
+	// ---- extraction ----
+
+	/** Indexable condition on the value of one variable, {@code null} values are not indexed. */
+	private sealed interface Condition permits Equals, Range {
+		String path();
+		void addTo(PathIndex.Builder index, int rule);
+	}
+
+	/** The value loosely or strictly equals one of {@code values}. */
+	private record Equals(String path, List<Object> values) implements Condition {
+		@Override public void addTo(final PathIndex.Builder index, final int rule) { index.equal(values, rule); }
+	}
+
+	/** The value is a number within the bounds, an infinite bound stands for none. */
+	private record Range(String path, double low, boolean lowInclusive, double high, boolean highInclusive) implements Condition {
+		@Override public void addTo(final PathIndex.Builder index, final int rule) { index.range(this, rule); }
+	}
+
+	/** Best condition of a rule: equality before ranges, the first one of each kind. */
+	private static Condition condition(final Object rule, final Predicate<String> builtIn) {
+		if (!(rule instanceof final JsonLogicOperation op) || !builtIn.test(op.operator())) return null;
+		final var conjuncts = "and".equals(op.operator()) ? op.arguments() : List.of(op);
+		Condition range = null;
+		for (final var conjunct : conjuncts) {
+			if (!(conjunct instanceof final JsonLogicOperation c) || !builtIn.test(c.operator())) continue;
+			final var condition = switch (c.operator()) {
+			case "==", "===" -> equals(c.arguments());
+			case "in"        -> in(c.arguments());
+			case "<", "<="   -> range(c.arguments(), "<=".equals(c.operator()), false);
+			case ">", ">="   -> range(c.arguments(), ">=".equals(c.operator()), true);
+			default          -> null;
+			};
+			if (condition instanceof Equals) return condition;
+			if (range == null) range = condition;
+		}
+		return range;
+	}
+
+	private static Condition equals(final List<?> args) {
+		if (args.size() != 2) return null;
+		if (path(args.get(0)) instanceof final String path && isKey(args.get(1))) return new Equals(path, List.of(args.get(1)));
+		if (path(args.get(1)) instanceof final String path && isKey(args.get(0))) return new Equals(path, List.of(args.get(0)));
+		return null;
+	}
+
+	private static Condition in(final List<?> args) {
+		if (args.size() != 2 || !(path(args.get(0)) instanceof final String path) || !(args.get(1) instanceof final List<?> haystack)) return null;
+		for (final var value : haystack) if (!isKey(value)) return null;
+		return new Equals(path, List.copyOf(haystack));
+	}
+
+	/** {@code a < b [< c]}, {@code descending} for {@code >}: the variable may be any of the operands, all others must be numbers. */
+	private static Condition range(final List<?> args, final boolean inclusive, final boolean descending) {
+		if (args.size() != 2 && args.size() != 3) return null;
+		var variable = -1;
+		for (var i = 0; i < args.size(); i++) {
+			if (path(args.get(i)) != null) { if (variable >= 0) return null; variable = i; }
+			else if (!(args.get(i) instanceof Number)) return null;
+		}
+		if (variable < 0 || args.size() == 3 && variable != 1) return null;
+		var low  = Double.NEGATIVE_INFINITY;
+		var high = Double.POSITIVE_INFINITY;
+		// operands before the variable are below it (above for '>'), operands after it above it
+		if (variable > 0) { final var bound = ((Number) args.get(variable - 1)).doubleValue(); if (descending) high = bound; else low  = bound; }
+		if (variable < args.size() - 1) { final var bound = ((Number) args.get(variable + 1)).doubleValue(); if (descending) low  = bound; else high = bound; }
+		return new Range(path(args.get(variable)), low, inclusive, high, inclusive);
+	}
+
+	/** Key of a {@code var} without a default value, {@code null} for anything else. */
+	private static String path(final Object arg) {
+		return arg instanceof final JsonLogicVariable v && v.args().length == 1 && v.key() instanceof final String key && !key.isEmpty() ? key : null;
+	}
+
+	private static boolean isKey(final Object literal) { return literal instanceof String || literal instanceof Number; }
+
+	/**
+	 * Hash key under which a value is stored and looked up. Values that are loosely equal share it:
+	 * numeric and blank strings count as their number, {@code -0.0} as {@code 0.0}.
+	 */
+	private static Object key(final Object value) {
+		if (value instanceof final Number n) return n.doubleValue() + 0.0;
+		final var text = (String) value;
+		if (text.isBlank()) return 0.0;
+		try { return Double.parseDouble(text) + 0.0; } catch (final NumberFormatException e) { return text; }
+	}
+
+	// ---- lookup ----
+
+	/** Indexed conditions on one variable. */
+	private static final class PathIndex {
+		final CompiledNode       variable;
+		final Map<Object, int[]> equal;
+		/** All rules in {@link #equal}, for values that may loosely equal many keys (booleans, lists, objects). */
+		final int[]              anyEqual;
+		/** All rules indexed on this variable. */
+		final int[]              all;
+		final Bounds             lowOnly;
+		final Bounds             highOnly;
+		final Bounds             bounded;
+
+		PathIndex(final Builder b, final JsonLogicCompiler compiler) {
+			variable = compiler.compile(new JsonLogicVariable(new Object[] { b.path }), PathSegment.ROOT);
+			equal    = new HashMap<>();
+			for (final var e : b.equal.entrySet()) equal.put(e.getKey(), ints(e.getValue()));
+			anyEqual = ints(b.anyEqual);
+			lowOnly  = new Bounds(b.lowOnly , true );
+			highOnly = new Bounds(b.highOnly, false);
+			bounded  = new Bounds(b.bounded , true );
+			final var rules = new BitSet();
+			for (final var rule : b.anyEqual) rules.set(rule);
+			for (final var bounds : List.of(b.lowOnly, b.highOnly, b.bounded)) for (final var bound : bounds) rules.set(bound.rule());
+			all      = rules.stream().toArray();
+		}
+
+		/**
+		 * Marks the rules whose condition {@code record} may meet. A lookup that fails, like {@code a.b} on a list, marks all of them: the rule
+		 * may not reach the variable at all, so the evaluation of the rule decides.
+		 */
+		void candidates(final JsonLogicEvaluator record, final BitSet candidates) {
+			final Object value;
+			try { value = variable.evaluate(record); } catch (final JsonLogicEvaluationException e) { mark(all, candidates); return; }
+			candidates(value, candidates);
+		}
+
+		void candidates(final Object value, final BitSet candidates) {
+			switch (value) {
+			case null           -> { }
+			case final Number _ -> mark(equal.get(key(value)), candidates);
+			case final String _ -> mark(equal.get(key(value)), candidates);
+			default             -> mark(anyEqual, candidates);
+			}
+			if (lowOnly.isEmpty() && highOnly.isEmpty() && bounded.isEmpty()) return;
+			// comparisons see the value like JSON.asDouble: numeric text and the first element of a list count
+			final var number = JSON.asDouble(value);
+			if (number == null || number.isNaN()) return;
+			lowOnly .mark(number, candidates);
+			highOnly.mark(number, candidates);
+			bounded .mark(number, candidates);
+		}
+
+		private static void mark(final int[] rules, final BitSet candidates) {
+			if (rules != null) for (final var rule : rules) candidates.set(rule);
+		}
+
+		private static int[] ints(final List<Integer> values) { return values.stream().mapToInt(Integer::intValue).toArray(); }
+
+		static final class Builder {
+			final String                     path;
+			final Map<Object, List<Integer>> equal    = new HashMap<>();
+			final List<Integer>              anyEqual = new ArrayList<>();
+			final List<Bound>                lowOnly  = new ArrayList<>();
+			final List<Bound>                highOnly = new ArrayList<>();
+			final List<Bound>                bounded  = new ArrayList<>();
+
+			Builder(final String path) { this.path = path; }
+
+			void equal(final List<Object> values, final int rule) {
+				for (final var value : values) {
+					final var rules = equal.computeIfAbsent(key(value), k -> new ArrayList<>());
+					if (rules.isEmpty() || rules.get(rules.size() - 1) != rule) rules.add(rule);
+				}
+				anyEqual.add(rule);
+			}
+
+			void range(final Range range, final int rule) {
+				final var bound = new Bound(range, rule);
+				if      (range.high() == Double.POSITIVE_INFINITY) lowOnly .add(bound);
+				else if (range.low () == Double.NEGATIVE_INFINITY) highOnly.add(bound);
+				else                                               bounded .add(bound);
+			}
+		}
+	}
+
+	private record Bound(Range range, int rule) { }
+
+	/** Ranges ordered by the bound a number must pass first, so the candidates for a number are a prefix found by binary search. */
+	private static final class Bounds {
+		final Bound[]  bounds;
+		/** Ascending low bounds, or negated high bounds for ranges without a low bound. */
+		final double[] order;
+		final boolean  byLow;
+
+		Bounds(final List<Bound> bounds, final boolean byLow) {
+			this.byLow  = byLow;
+			this.bounds = bounds.toArray(Bound[]::new);
+			Arrays.sort(this.bounds, Comparator.comparingDouble(this::order));
+			this.order  = Arrays.stream(this.bounds).mapToDouble(this::order).toArray();
+		}
+
+		private double order(final Bound b) { return byLow ? b.range().low() : -b.range().high(); }
+
+		boolean isEmpty() { return bounds.length == 0; }
+
+		void mark(final double x, final BitSet candidates) {
+			final var end = prefix(byLow ? x : -x);
+			for (var i = 0; i < end; i++) if (contains(bounds[i].range(), x)) candidates.set(bounds[i].rule());
+		}
+
+		private static boolean contains(final Range r, final double x) {
+			return (r.lowInclusive() ? x >= r.low() : x > r.low()) && (r.highInclusive() ? x <= r.high() : x < r.high());
+		}
+
+		/** Number of entries of {@link #order} not above {@code x}. */
+		private int prefix(final double x) {
+			var lo = 0;
+			var hi = order.length;
+			while (lo < hi) {
+				final var mid = lo + hi >>> 1;
+				if (order[mid] <= x) lo = mid + 1; else hi = mid;
+			}
+			return lo;
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package io.github.jamsesso.jsonlogic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+
+/**
+ * Optional pass over a compiled rule, bottom up: built-in operations on literals only are evaluated once,
+ * nested {@code and}/{@code or}/{@code merge} and left-nested arithmetic are flattened, branches behind literal conditions are dropped.
+ * Anything that fails while folding is left in place, so errors are still raised (with their path) only when reached.
+ */
+final class RuleOptimizer {
+	private final JsonLogicEvaluator literals;
+
+	RuleOptimizer(final JsonLogicEvaluator literals) { this.literals = literals; }
+
+	CompiledNode optimize(final CompiledNode node) {
+		return fold(simplify(node.rewrite((child, scoped) -> optimize(child))));
+	}
+
+	private static CompiledNode simplify(final CompiledNode node) {
+		return switch (node) {
+		case final CompiledOperations.If      t -> simplifyIf(t.args());
+		case final CompiledOperations.AndOr   t -> simplifyAndOr(t.isAnd(), t.args());
+		case final CompiledOperations.Not     t when t.arg() instanceof final CompiledOperations.Not inner -> new CompiledOperations.Not(inner.arg(), t.negate() ^ inner.negate());
+		case final CompiledOperations.Not     t when !t.negate() && isBoolean(t.arg()) -> t.arg();
+		case final CompiledOperations.In      t when t.text() == null -> CompiledOperations.in(t.needle(), t.haystack(), null);
+		case final CompiledOperations.Merge   t -> {
+			final var args = new ArrayList<CompiledNode>();
+			for (final var arg : t.args()) if (arg instanceof final CompiledOperations.Merge inner) args.addAll(Arrays.asList(inner.args())); else args.add(arg);
+			yield args.size() == t.args().length ? t : new CompiledOperations.Merge(args.toArray(CompiledNode[]::new));
+		}
+		// ((a op b) op c) is exactly the left fold over a, b, c, so only the first operand is spliced
+		case final Reduce.Arithmetic          t when t.operands()[0] instanceof final Reduce.Arithmetic inner && inner.reducer() == t.reducer() -> {
+			final var operands = Arrays.copyOf(inner.operands(), inner.operands().length + t.operands().length - 1);
+			System.arraycopy(t.operands(), 1, operands, inner.operands().length, t.operands().length - 1);
+			yield new Reduce.Arithmetic(t.reducer(), operands);
+		}
+		default -> node;
+		};
+	}
+
+	private static CompiledNode simplifyIf(final CompiledNode[] args) {
+		if (args.length < 2) return new CompiledOperations.If(args);
+		final var kept = new ArrayList<CompiledNode>();
+		var i = 0;
+		for (; i < args.length - 1; i += 2) {
+			if (!(args[i] instanceof final CompiledNode.Constant condition)) { kept.add(args[i]); kept.add(args[i + 1]); continue; }
+			if (!JSON.truthy(condition.value())) continue;
+			// taken whenever it is reached: it becomes the else branch and the rest is unreachable
+			kept.add(args[i + 1]);
+			break;
+		}
+		if (i == args.length - 1) kept.add(args[i]);
+		if (kept.size() == args.length) return new CompiledOperations.If(args);
+		if (kept.isEmpty()) return CompiledNode.Constant.NULL;
+		if (kept.size() == 1) return kept.get(0);
+		return new CompiledOperations.If(kept.toArray(CompiledNode[]::new));
+	}
+
+	private static CompiledNode simplifyAndOr(final boolean isAnd, final CompiledNode[] args) {
+		final var flat = new ArrayList<CompiledNode>();
+		for (final var arg : args) {
+			if (arg instanceof final CompiledOperations.AndOr inner && inner.isAnd() == isAnd && inner.args().length > 0) flat.addAll(Arrays.asList(inner.args()));
+			else flat.add(arg);
+		}
+		final var kept = new ArrayList<CompiledNode>();
+		for (var i = 0; i < flat.size(); i++) {
+			final var arg = flat.get(i);
+			final var last = i == flat.size() - 1;
+			if (arg instanceof final CompiledNode.Constant c) {
+				// a literal that does not decide the result is skipped, one that does ends the chain
+				if (isAnd == JSON.truthy(c.value()) && !last) continue;
+				kept.add(arg);
+				break;
+			}
+			kept.add(arg);
+		}
+		if (kept.size() == 1) return kept.get(0);
+		final var nodes = kept.toArray(CompiledNode[]::new);
+		return isAnd ? new CompiledOperations.AndOr(true, nodes) : CompiledOperations.or(nodes);
+	}
+
+	private static boolean isBoolean(final CompiledNode node) {
+		return switch (node) {
+		case final CompiledOperations.Compare  _ -> true;
+		case final CompiledOperations.Not      _ -> true;
+		case final CompiledOperations.Equality _ -> true;
+		case final CompiledOperations.Has      _ -> true;
+		case final CompiledOperations.All      _ -> true;
+		case final CompiledOperations.In       _ -> true;
+		case final CompiledOperations.InSet    _ -> true;
+		default                                  -> false;
+		};
+	}
+
+	/** Evaluates a built-in operation whose children are all literals, keeps it when that fails or the result is not a plain value. */
+	private CompiledNode fold(final CompiledNode node) {
+		if (!isBuiltIn(node) || !hasLiteralChildren(node)) return node;
+		final Object value;
+		try { value = node.evaluate(literals); } catch (final JsonLogicEvaluationException | RuntimeException e) { return node; }
+		return literal(value) instanceof final CompiledNode folded ? folded : node;
+	}
+
+	/** Operations without side effects whose result depends on their children only. */
+	private static boolean isBuiltIn(final CompiledNode node) {
+		return switch (node) {
+		case final CompiledOperations.Log          _ -> false;
+		case final CompiledOperations.If           _ -> true;
+		case final CompiledOperations.Compare      _ -> true;
+		case final CompiledOperations.Not          _ -> true;
+		case final CompiledOperations.AndOr        _ -> true;
+		case final CompiledOperations.Has          _ -> true;
+		case final CompiledOperations.All          _ -> true;
+		case final CompiledOperations.Equality     _ -> true;
+		case final CompiledOperations.MapOp        _ -> true;
+		case final CompiledOperations.Filter       _ -> true;
+		case final CompiledOperations.Reduce       _ -> true;
+		case final CompiledOperations.Substr       _ -> true;
+		case final CompiledOperations.In           _ -> true;
+		case final CompiledOperations.InSet        _ -> true;
+		case final CompiledOperations.Merge        _ -> true;
+		case final CompiledOperations.ListFunction _ -> true;
+		case final Reduce.Compiled                 _ -> true;
+		case final Reduce.Arithmetic               _ -> true;
+		default                                      -> false;
+		};
+	}
+
+	private static boolean hasLiteralChildren(final CompiledNode node) {
+		final var literal = new boolean[] { true };
+		node.rewrite((child, scoped) -> {
+			literal[0] &= isLiteral(child);
+			return child;
+		});
+		return literal[0];
+	}
+
+	private static boolean isLiteral(final CompiledNode node) {
+		if (node instanceof CompiledNode.Constant) return true;
+		if (!(node instanceof final CompiledNode.ArrayLiteral array)) return false;
+		for (final var item : array.items()) if (!isLiteral(item)) return false;
+		return true;
+	}
+
+	/** Node producing {@code value} on every evaluation; lists become array literals so callers never share a mutable result. */
+	private static CompiledNode literal(final Object value) {
+		return switch (value) {
+		case null               -> CompiledNode.Constant.NULL;
+		case final Boolean    _ -> new CompiledNode.Constant(value);
+		case final Number     _ -> new CompiledNode.Constant(value);
+		case final String     _ -> new CompiledNode.Constant(value);
+		case final List<?>    l -> {
+			final var items = new CompiledNode[l.size()];
+			for (var i = 0; i < items.length; i++) if ((items[i] = literal(l.get(i))) == null) yield null;
+			yield new CompiledNode.ArrayLiteral(items);
+		}
+		default                 -> null;
+		};
+	}
+}
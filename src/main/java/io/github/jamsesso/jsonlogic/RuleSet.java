@@ -0,0 +1,46 @@
+package io.github.jamsesso.jsonlogic;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.ast.Projection;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+
+/**
+ * Rules compiled together by {@link JsonLogic#compileRuleSet(Map)} and evaluated against one record in a single pass.
+ * Subexpressions occurring in several rules, down to a single {@code var}, are shared like within one rule and computed once per record.
+ * Immutable and safe to share between threads.
+ */
+public final class RuleSet {
+	private final String[]           ids;
+	private final CompiledNode[]     rules;
+	private final int                slots;
+	private final Projection         projection;
+	private final JsonLogicEvaluator scope;
+
+	RuleSet(final String[] ids, final CompiledNode all, final Projection projection, final JsonLogicEvaluator scope) {
+		this.ids        = ids;
+		this.projection = projection;
+		this.slots      = all instanceof final CompiledNode.Memoized m ? m.slots() : 0;
+		this.rules      = ((CompiledNode.ArrayLiteral) (all instanceof final CompiledNode.Memoized m ? m.root() : all)).items();
+		this.scope      = scope;
+	}
+
+	public int size() { return ids.length; }
+
+	public List<String> ids() { return List.of(ids); }
+
+	/** Parts of a record any of the rules reads; only these are built when parsing {@code data} given as text, bytes or a stream. */
+	public Projection projection() { return projection; }
+
+	/** Result of every rule for {@code data} (parsed first when given as text), keyed by rule id in the order the rules were given. */
+	public Map<String, Object> evaluate(final Object data) throws JsonLogicException {
+		final var shared  = scope.scoped(JSON.plain(JSON.parseData(data, projection))).memoized(slots);
+		final var results = new LinkedHashMap<String, Object>(ids.length * 4 / 3 + 1);
+		for (var i = 0; i < rules.length; i++) results.put(ids[i], rules[i].evaluate(shared));
+		return results;
+	}
+}
@@ -0,0 +1,54 @@
+package io.github.jamsesso.jsonlogic.ast;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Reads one kind of tree data in place, so that it is evaluated without converting it first: {@link JSON#plain(Object)} shows the objects
+ * of such a tree as read-only {@link Map}s and its arrays as {@link List}s whose members are read through the accessor when they are used,
+ * and {@code var} paths walk the tree with {@link #member} and {@link #element} directly.
+ * <p>
+ * There are built-in accessors for maps and lists, Gson {@code JsonElement}s, org.json {@code JSONObject}s and {@code JSONArray}s,
+ * Jackson {@code JsonNode}s, and records and beans as a last resort. Others are found with {@link ServiceLoader} or added with
+ * {@link #register(DataAccessor)}, and take precedence.
+ */
+public interface DataAccessor {
+	/** What {@link #member} and {@link #element} return when there is no such member or element. */
+	Object ABSENT = new Object();
+
+	/** Whether {@code value} is part of a tree this accessor reads, a value that is neither object nor array included. */
+	boolean accepts(Object value);
+
+	boolean isObject(Object value);
+
+	boolean isArray(Object value);
+
+	/** Value of member {@code key} of an object, as the tree holds it. */
+	Object member(Object object, String key);
+
+	/** Element {@code index} of an array, as the tree holds it. */
+	Object element(Object array, int index);
+
+	/** Number of members of an object or elements of an array. */
+	int size(Object container);
+
+	/** Member names of an object, in its order. */
+	Iterator<String> keys(Object object);
+
+	/** A value that is neither object nor array as {@link String}, {@link Number}, {@link Boolean} or {@code null}. */
+	Object scalar(Object value);
+
+	/** Accessor for {@code value}, {@code null} if there is none. */
+	static DataAccessor of(final Object value) { return DataAccessors.of(value); }
+
+	/** Adds {@code accessor} before the ones known so far. */
+	static void register(final DataAccessor accessor) { DataAccessors.register(accessor); }
+
+	/** Object or array of a tree as shown to the evaluator. */
+	sealed interface Tree permits DataAccessors.Members, DataAccessors.Elements {
+		DataAccessor accessor();
+		Object tree();
+	}
+}
@@ -0,0 +1,307 @@
+package io.github.jamsesso.jsonlogic.ast;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.POJONode;
+import com.google.gson.JsonElement;
+
+/** The known {@link DataAccessor}s, the built-in ones and the views of trees that {@link JSON#plain(Object)} returns. */
+final class DataAccessors {
+	private static final List<DataAccessor> ACCESSORS = new CopyOnWriteArrayList<>();
+	static {
+		ACCESSORS.addAll(List.of(new Gson(), new OrgJson(), new Jackson(), new Maps(), new Beans()));
+		for (final var accessor : ServiceLoader.load(DataAccessor.class)) ACCESSORS.addFirst(accessor);
+	}
+
+	private DataAccessors() { }
+
+	static DataAccessor of(final Object value) {
+		for (final var accessor : ACCESSORS) if (accessor.accepts(value)) return accessor;
+		return null;
+	}
+
+	static void register(final DataAccessor accessor) { ACCESSORS.addFirst(Objects.requireNonNull(accessor)); }
+
+	/** {@code value} of a tree read by {@code accessor}: objects and arrays as views, scalars converted; values of other kinds as {@link JSON#plain(Object)} makes them. */
+	static Object view(final DataAccessor accessor, final Object value) {
+		if (!accessor.accepts(value)) return JSON.plain(value);
+		if (accessor.isObject(value)) return new Members(accessor, value);
+		if (accessor.isArray (value)) return new Elements(accessor, value);
+		return accessor.scalar(value);
+	}
+
+	/** An object of a tree; its members are read and shown when used. */
+	static final class Members extends AbstractMap<String, Object> implements DataAccessor.Tree {
+		private final DataAccessor accessor;
+		private final Object       tree;
+
+		Members(final DataAccessor accessor, final Object tree) {
+			this.accessor = accessor;
+			this.tree     = tree;
+		}
+
+		@Override public DataAccessor accessor() { return accessor; }
+		@Override public Object tree() { return tree; }
+		@Override public int size() { return accessor.size(tree); }
+		@Override public boolean containsKey(final Object key) { return key instanceof final String name && accessor.member(tree, name) != DataAccessor.ABSENT; }
+
+		@Override public Object get(final Object key) {
+			if (!(key instanceof final String name)) return null;
+			final var value = accessor.member(tree, name);
+			return value == DataAccessor.ABSENT ? null : view(accessor, value);
+		}
+
+		@Override public Set<Map.Entry<String, Object>> entrySet() {
+			return new AbstractSet<>() {
+				@Override public int size() { return Members.this.size(); }
+				@Override public Iterator<Map.Entry<String, Object>> iterator() {
+					final var keys = accessor.keys(tree);
+					return new Iterator<>() {
+						@Override public boolean hasNext() { return keys.hasNext(); }
+						@Override public Map.Entry<String, Object> next() {
+							final var key = keys.next();
+							return new SimpleImmutableEntry<>(key, view(accessor, accessor.member(tree, key)));
+						}
+					};
+				}
+			};
+		}
+	}
+
+	/** An array of a tree; its elements are read and shown when used. */
+	static final class Elements extends AbstractList<Object> implements DataAccessor.Tree, RandomAccess {
+		private final DataAccessor accessor;
+		private final Object       tree;
+
+		Elements(final DataAccessor accessor, final Object tree) {
+			this.accessor = accessor;
+			this.tree     = tree;
+		}
+
+		@Override public DataAccessor accessor() { return accessor; }
+		@Override public Object tree() { return tree; }
+		@Override public int size() { return accessor.size(tree); }
+		@Override public Object get(final int index) { return view(accessor, accessor.element(tree, Objects.checkIndex(index, size()))); }
+	}
+
+	/** Maps and lists, which the evaluator reads as they are; for code that reads any data through an accessor. */
+	private static final class Maps implements DataAccessor {
+		@Override public boolean accepts(final Object value) { return value instanceof Map || value instanceof List; }
+		@Override public boolean isObject(final Object value) { return value instanceof Map; }
+		@Override public boolean isArray(final Object value) { return value instanceof List; }
+		@Override public int size(final Object container) { return container instanceof final Map<?, ?> m ? m.size() : ((List<?>) container).size(); }
+		@Override public Object scalar(final Object value) { return value; }
+
+		@Override public Object member(final Object object, final String key) {
+			final var map   = (Map<?, ?>) object;
+			final var value = map.get(key);
+			return value != null || map.containsKey(key) ? value : ABSENT;
+		}
+
+		@Override public Object element(final Object array, final int index) {
+			final var list = (List<?>) array;
+			return index >= 0 && index < list.size() ? list.get(index) : ABSENT;
+		}
+
+		@Override public Iterator<String> keys(final Object object) {
+			final var keys = ((Map<?, ?>) object).keySet().iterator();
+			return new Iterator<>() {
+				@Override public boolean hasNext() { return keys.hasNext(); }
+				@Override public String next() { return String.valueOf(keys.next()); }
+			};
+		}
+	}
+
+	/** Numbers are read as {@code double}, as the parsers read them. */
+	private static final class Gson implements DataAccessor {
+		@Override public boolean accepts(final Object value) { return value instanceof JsonElement; }
+		@Override public boolean isObject(final Object value) { return ((JsonElement) value).isJsonObject(); }
+		@Override public boolean isArray(final Object value) { return ((JsonElement) value).isJsonArray(); }
+		@Override public Iterator<String> keys(final Object object) { return ((JsonElement) object).getAsJsonObject().keySet().iterator(); }
+
+		@Override public Object member(final Object object, final String key) {
+			final var value = ((JsonElement) object).getAsJsonObject().get(key);
+			return value == null ? ABSENT : value;
+		}
+
+		@Override public Object element(final Object array, final int index) {
+			final var elements = ((JsonElement) array).getAsJsonArray();
+			return index >= 0 && index < elements.size() ? elements.get(index) : ABSENT;
+		}
+
+		@Override public int size(final Object container) {
+			final var element = (JsonElement) container;
+			return element.isJsonObject() ? element.getAsJsonObject().size() : element.getAsJsonArray().size();
+		}
+
+		@Override public Object scalar(final Object value) {
+			final var element = (JsonElement) value;
+			if (!element.isJsonPrimitive()) return null;
+			final var primitive = element.getAsJsonPrimitive();
+			if (primitive.isBoolean()) return primitive.getAsBoolean();
+			if (primitive.isNumber()) return primitive.getAsNumber().doubleValue();
+			return primitive.getAsString();
+		}
+	}
+
+	/** Values are kept as org.json holds them, its {@code NULL} is {@code null}. */
+	private static final class OrgJson implements DataAccessor {
+		@Override public boolean accepts(final Object value) { return value instanceof JSONObject || value instanceof JSONArray || value == JSONObject.NULL; }
+		@Override public boolean isObject(final Object value) { return value instanceof JSONObject; }
+		@Override public boolean isArray(final Object value) { return value instanceof JSONArray; }
+		@Override public int size(final Object container) { return container instanceof final JSONObject o ? o.length() : ((JSONArray) container).length(); }
+		@Override public Iterator<String> keys(final Object object) { return ((JSONObject) object).keys(); }
+		@Override public Object scalar(final Object value) { return null; }
+
+		@Override public Object member(final Object object, final String key) {
+			final var value = ((JSONObject) object).opt(key);
+			return value == null ? ABSENT : value;
+		}
+
+		@Override public Object element(final Object array, final int index) {
+			final var elements = (JSONArray) array;
+			return index >= 0 && index < elements.length() ? elements.opt(index) : ABSENT;
+		}
+	}
+
+	/** Numbers are read as {@code double}, as the parsers read them. */
+	private static final class Jackson implements DataAccessor {
+		@Override public boolean accepts(final Object value) { return value instanceof JsonNode; }
+		@Override public boolean isObject(final Object value) { return ((JsonNode) value).isObject(); }
+		@Override public boolean isArray(final Object value) { return ((JsonNode) value).isArray(); }
+		@Override public int size(final Object container) { return ((JsonNode) container).size(); }
+		@Override public Iterator<String> keys(final Object object) { return ((JsonNode) object).fieldNames(); }
+
+		@Override public Object member(final Object object, final String key) {
+			final var value = ((JsonNode) object).get(key);
+			return value == null ? ABSENT : value;
+		}
+
+		@Override public Object element(final Object array, final int index) {
+			final var value = index < 0 ? null : ((JsonNode) array).get(index);
+			return value == null ? ABSENT : value;
+		}
+
+		@Override public Object scalar(final Object value) {
+			final var node = (JsonNode) value;
+			if (node.isNull() || node.isMissingNode()) return null;
+			if (node.isBoolean()) return node.booleanValue();
+			if (node.isNumber()) return node.doubleValue();
+			if (node instanceof final POJONode pojo) return JSON.plain(pojo.getPojo());
+			return node.asText();
+		}
+	}
+
+	/**
+	 * Records by their components and other objects by their public getters {@code getX()} and {@code isX()}, read through a function
+	 * generated once per class and property. Enums are read as their name and values of other JDK classes (dates, UUIDs) as their text.
+	 * Strings, numbers, booleans, collections, maps and arrays are left to {@link JSON#plain(Object)}.
+	 */
+	private static final class Beans implements DataAccessor {
+		/** Getters of record components in their order, of bean properties by name. */
+		private record Properties(Map<String, Function<Object, Object>> getters) { }
+
+		private static final Properties SCALAR = new Properties(Map.of());
+		private static final Properties NONE   = new Properties(Map.of());
+
+		private static final ClassValue<Properties> PROPERTIES = new ClassValue<>() {
+			@Override protected Properties computeValue(final Class<?> type) { return properties(type); }
+		};
+
+		@Override public boolean accepts(final Object value) { return value != null && PROPERTIES.get(value.getClass()) != NONE; }
+		@Override public boolean isObject(final Object value) { return PROPERTIES.get(value.getClass()) != SCALAR; }
+		@Override public boolean isArray(final Object value) { return false; }
+		@Override public Object element(final Object array, final int index) { return ABSENT; }
+		@Override public int size(final Object container) { return PROPERTIES.get(container.getClass()).getters().size(); }
+		@Override public Iterator<String> keys(final Object object) { return PROPERTIES.get(object.getClass()).getters().keySet().iterator(); }
+		@Override public Object scalar(final Object value) { return value instanceof final Enum<?> e ? e.name() : value.toString(); }
+
+		@Override public Object member(final Object object, final String key) {
+			final var getter = PROPERTIES.get(object.getClass()).getters().get(key);
+			return getter == null ? ABSENT : getter.apply(object);
+		}
+
+		private static Properties properties(final Class<?> type) {
+			if (Enum.class.isAssignableFrom(type)) return SCALAR;
+			if (type == String.class || type == Boolean.class || Number.class.isAssignableFrom(type)) return NONE;
+			if (type.isArray() || Iterable.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) return NONE;
+			final var getters = new LinkedHashMap<String, Function<Object, Object>>();
+			if (type.isRecord()) {
+				for (final var component : type.getRecordComponents()) putGetter(getters, type, component.getName(), component.getAccessor());
+				return new Properties(getters);
+			}
+			final var name = type.getName();
+			if (name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.")) return SCALAR;
+			final var methods = Arrays.stream(type.getMethods())
+				.filter(m -> !Modifier.isStatic(m.getModifiers()) && !m.isBridge() && m.getParameterCount() == 0 && m.getDeclaringClass() != Object.class)
+				.sorted(Comparator.comparing(Method::getName))
+				.toList();
+			for (final var method : methods) {
+				final var getter = method.getName();
+				final var bool   = method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class;
+				if (getter.length() > 3 && getter.startsWith("get") && method.getReturnType() != void.class) putGetter(getters, type, property(getter.substring(3)), method);
+				else if (getter.length() > 2 && getter.startsWith("is") && bool) putGetter(getters, type, property(getter.substring(2)), method);
+			}
+			return getters.isEmpty() ? NONE : new Properties(new TreeMap<>(getters));
+		}
+
+		/** Property name of a getter without its prefix, as {@code java.beans.Introspector} derives it. */
+		private static String property(final String name) {
+			if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) return name;
+			return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+		}
+
+		private static void putGetter(final Map<String, Function<Object, Object>> getters, final Class<?> type, final String property, final Method method) {
+			if (getters.containsKey(property)) return;
+			final var getter = getter(type, method);
+			if (getter != null) getters.put(property, getter);
+		}
+
+		/** A {@link Function} implemented by {@code method} itself, or calling its handle where the class cannot be accessed that way; {@code null} if it cannot be called. */
+		@SuppressWarnings("unchecked")
+		private static Function<Object, Object> getter(final Class<?> type, final Method method) {
+			try {
+				final var lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+				final var handle = lookup.unreflect(method);
+				return (Function<Object, Object>) LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+					MethodType.methodType(Object.class, Object.class), handle, MethodType.methodType(method.getReturnType(), type)).getTarget().invoke();
+			} catch (final Throwable e) {
+				try {
+					final MethodHandle handle = MethodHandles.publicLookup().unreflect(method).asType(MethodType.methodType(Object.class, Object.class));
+					return object -> {
+						try { return handle.invokeExact(object); }
+						catch (final RuntimeException | Error t) { throw t; }
+						catch (final Throwable t) { throw new IllegalStateException(t); }
+					};
+				} catch (final IllegalAccessException f) {
+					return null;
+				}
+			}
+		}
+	}
+}
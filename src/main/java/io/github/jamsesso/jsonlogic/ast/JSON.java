@@ -1,62 +1,40 @@
 package io.github.jamsesso.jsonlogic.ast;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.lang.reflect.Array;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.json.JSONObject;
 
-import com.google.gson.JsonElement;
-
 import io.github.jamsesso.jsonlogic.NumericDouble;
+import io.github.jamsesso.jsonlogic.PathSegment;
 import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
 
 public class JSON {
 	private JSON() { }
 
+	/**
+	 * {@code o} as the evaluator reads data: strings, numbers, booleans, maps and lists as they are, arrays as lists, and the trees of a
+	 * {@link DataAccessor} (Gson, org.json, Jackson and registered ones) as map and list views read in place.
+	 */
 	public static Object plain(final Object o) {
 		return switch(o) {
 		case null                       -> null;
-		case final org.json.JSONObject t -> t.toMap();
-		case final org.json.JSONArray  t -> t.toList();
 		case final String              t -> t;
 		case final Number              t -> t;
 		case final Boolean             t -> t;
 		case final List<?>             t -> t;
 		case final Map<?,?>            t -> t;
 		case final int[]               t -> t;
-		case final JsonElement         t -> {
-			if (t.isJsonObject()) {
-				final Map<String, Object> map = new HashMap<>();
-				final var object = t.getAsJsonObject();
-				for (final String key : object.keySet()) {
-					map.put(key, plain(object.get(key)));
-				}
-				yield map;
-			}
-			if (t.isJsonArray()) {
-				final List<Object> values = new ArrayList<>();
-				for (final JsonElement item : t.getAsJsonArray()) {
-					values.add(plain(item));
-				}
-				yield values;
-			}
-			if (t.isJsonNull()) yield null;
-			if (t.isJsonPrimitive()) {
-				final var primitive = t.getAsJsonPrimitive();
-				if (primitive.isBoolean()) yield primitive.getAsBoolean();
-				if (primitive.isNumber()) yield primitive.getAsNumber().doubleValue();
-				yield primitive.getAsString();
-			}
-			throw new IllegalStateException("T "+t.getClass().getCanonicalName());
-		}
 		default -> {
-			if(o == org.json.JSONObject.NULL     ) yield null; // Handle null
-			if(o.getClass().isArray()) yield JSON.asList(o);
+			if(DataAccessor.of(o) instanceof final DataAccessor accessor) yield DataAccessors.view(accessor, o);
+			if(o instanceof Iterable || o.getClass().isArray()) yield JSON.asList(o);
 			throw new IllegalStateException("o "+o.getClass().getCanonicalName());
 			// yield o;
 		}
@@ -86,6 +64,109 @@ public class JSON {
 		return JSONObject.wrap(json);
 	}
 
+	/**
+	 * Data as given to {@code apply}: JSON text as {@link String}, UTF-8 bytes as {@code byte[]} or {@link ByteBuffer}, or JSON read from an
+	 * {@link InputStream} (UTF-8) or {@link Reader} is parsed, anything else is returned as is. Bytes that are not valid JSON get the lenient
+	 * treatment of {@link #parse(String)}; streams cannot be read twice, they fail with {@link JsonLogicParseException}.
+	 */
+	public static Object parseData(final Object data) throws JsonLogicParseException { return parseData(data, Projection.ALL); }
+
+	/** Like {@link #parseData(Object)}, building only the parts of parsed data that {@code projection} keeps. */
+	public static Object parseData(final Object data, final Projection projection) throws JsonLogicParseException {
+		return switch (data) {
+		case final String      t -> {
+			if (projection == Projection.ALL) yield parse(t);
+			try { yield JsonParserString.parse(t, projection); } catch (final RuntimeException e) { yield parse(t); }
+		}
+		case final byte[]      t -> parse(t, 0, t.length, projection);
+		case final ByteBuffer  t -> {
+			try { yield JsonParserBytes.parse(t, projection); }
+			catch (final RuntimeException e) {
+				final var bytes = new byte[t.remaining()];
+				t.get(t.position(), bytes);
+				yield parse(new String(bytes, StandardCharsets.UTF_8));
+			}
+		}
+		case final InputStream t -> {
+			try { yield JsonParserBytes.parse(t, projection); }
+			catch (final IOException | RuntimeException e) { throw new JsonLogicParseException(e.getMessage(), e, PathSegment.ROOT); }
+		}
+		case final Reader      t -> {
+			try { yield JsonParserBytes.parse(t, projection); }
+			catch (final IOException | RuntimeException e) { throw new JsonLogicParseException(e.getMessage(), e, PathSegment.ROOT); }
+		}
+		case null, default       -> data;
+		};
+	}
+
+	/** {@code length} bytes of UTF-8 encoded JSON from {@code offset}, parsed like {@link #parse(String)} parses their text. */
+	public static Object parse(final byte[] json, final int offset, final int length) throws JsonLogicParseException { return parse(json, offset, length, Projection.ALL); }
+
+	private static Object parse(final byte[] json, final int offset, final int length, final Projection projection) throws JsonLogicParseException {
+		try {
+			return JsonParserBytes.parse(json, offset, length, projection);
+		} catch (final RuntimeException e) {
+			return parse(new String(json, offset, length, StandardCharsets.UTF_8));
+		}
+	}
+
+	/** Appends {@code value} as JSON text; integral numbers are written without fraction, NaN and infinities as {@code null}. */
+	public static StringBuilder write(final Object value, final StringBuilder out) {
+		switch (value) {
+		case null                  -> out.append("null");
+		case final Boolean       t -> out.append(t.booleanValue());
+		case final Double        t when t.isNaN() || t.isInfinite() -> out.append("null");
+		case final Float         t when t.isNaN() || t.isInfinite() -> out.append("null");
+		case final Number        t -> {
+			final var d = t.doubleValue();
+			if (d == Math.rint(d) && Math.abs(d) < 1e15) out.append((long) d); else out.append(t);
+		}
+		case final String        t -> writeString(t, out);
+		case final Map<?,?>      t -> {
+			out.append('{');
+			var first = true;
+			for (final var e : t.entrySet()) {
+				if (!first) out.append(',');
+				first = false;
+				writeString(String.valueOf(e.getKey()), out).append(':');
+				write(e.getValue(), out);
+			}
+			out.append('}');
+		}
+		default -> {
+			if (!isList(value)) { writeString(value.toString(), out); break; }
+			out.append('[');
+			var first = true;
+			for (final var item : asList(value)) {
+				if (!first) out.append(',');
+				first = false;
+				write(item, out);
+			}
+			out.append(']');
+		}
+		}
+		return out;
+	}
+
+	private static StringBuilder writeString(final String s, final StringBuilder out) {
+		out.append('"');
+		for (var i = 0; i < s.length(); i++) {
+			final var c = s.charAt(i);
+			switch (c) {
+			case '"'  -> out.append("\\\"");
+			case '\\' -> out.append("\\\\");
+			case '\n' -> out.append("\\n");
+			case '\r' -> out.append("\\r");
+			case '\t' -> out.append("\\t");
+			default   -> {
+				if (c < 0x20) out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xf, 16));
+				else out.append(c);
+			}
+			}
+		}
+		return out.append('"');
+	}
+
 	public static Map<?,?> asMap(final Object data) {
 		if (data instanceof final Map m) return m;
 		throw new IllegalArgumentException("MapLike only works with maps and JsonObject");
@@ -93,26 +174,14 @@ public class JSON {
 
 	public static boolean isMap(final Object data) { return data instanceof Map; }
 
+	/**
+	 * {@code data} as a list without copying it: arrays are shown as read-only views whose primitive elements are boxed when they are read
+	 * (ints as {@link Double}), other iterables are iterated in place and copied once if they are read by position.
+	 */
 	@SuppressWarnings("unchecked")
 	public static List<Object> asList(final Object data) {
 		if (data instanceof final List l) return l;
-		if(data instanceof final Object[] l) return Arrays.asList(l);
-		if (data != null && data.getClass().isArray()) {
-			// System.out.println("asList({"+data.getClass().getCanonicalName()+"})");
-			final var len = Array.getLength(data);
-			final var l   = new ArrayList<>(len);
-			for (var i = 0; i < len; i++) {
-				var v = Array.get(data, i);
-				if(v instanceof final Integer t) v = t.doubleValue();
-				l.add(i, v);
-			}
-			return l;
-		}
-		if (data instanceof final Iterable iter) {
-			final var l = new ArrayList<>();
-			for (final Object item : iter) l.add(item);
-			return l;
-		}
+		if (ListViews.of(data) instanceof final List<Object> l) return l;
 		throw new IllegalArgumentException("ArrayLike only works with lists, iterables, arrays, or JsonArray");
 	}
 
@@ -128,6 +197,19 @@ public class JSON {
 		return true;
 	}
 
+	/** Numeric value of an evaluated argument: numbers, numeric strings and the first element of a non-empty list, otherwise null. */
+	public static Number asNumber(final Object value) {
+		if (value instanceof final Number t) return t;
+		if (value instanceof final String t) try { return Double.parseDouble(t); } catch (final NumberFormatException e) { return null; }
+		if (isList(value) && asList(value) instanceof final List<?> l && !l.isEmpty()) return asNumber(l.get(0));
+		return null;
+	}
+
+	public static Double asDouble(final Object value) {
+		if (value instanceof final Double t) return t;
+		return asNumber(value) instanceof final Number t ? t.doubleValue() : null;
+	}
+
 	public static boolean isList(final Object data) { return data != null && (data instanceof Iterable || data.getClass().isArray()); }
 
 	public static boolean truthy(final Object v) {
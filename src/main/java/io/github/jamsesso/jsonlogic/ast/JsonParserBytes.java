@@ -0,0 +1,357 @@
+package io.github.jamsesso.jsonlogic.ast;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+import io.github.jamsesso.jsonlogic.ast.JsonParserString.Marker;
+import io.github.jamsesso.jsonlogic.ast.JsonParserString.Values;
+
+/**
+ * Parses UTF-8 encoded JSON without decoding it to a {@link String} first: arrays and heap buffers are read in place,
+ * streams through a fixed-size buffer that is refilled as the parser advances. Only string values are decoded.
+ * The values are the same as {@link JsonParserString#parse(String)} returns for the decoded text, and so are the
+ * error messages, whose positions are counted in characters of that text. Every entry point also takes a {@link Projection}
+ * to build only part of the document, like {@link JsonParserString#parse(String, Projection)}.
+ */
+public final class JsonParserBytes {
+	private static final int    BUFFER = 1 << 13;
+	private static final byte[] TRUE   = { 't', 'r', 'u', 'e' };
+	private static final byte[] FALSE  = { 'f', 'a', 'l', 's', 'e' };
+	private static final byte[] NULL   = { 'n', 'u', 'l', 'l' };
+
+	/** Fills {@code b} from {@code off} with at most {@code len} bytes, returns their number or -1 at the end of the input. */
+	private interface Source { int read(byte[] b, int off, int len) throws IOException; }
+
+	private final Source     source;
+	private final Projection projection;
+	private byte[]       buf;
+	private int          pos;
+	private int          limit;
+	private boolean      eof;
+	/** Index in the decoded text of the character at {@code pos}. */
+	private int          index;
+	/** Depth of the skipped container being read, 0 outside. */
+	private int          skip;
+
+	private JsonParserBytes(final Source source, final Projection projection, final byte[] buf, final int pos, final int limit) {
+		this.source     = source;
+		this.projection = projection;
+		this.buf    = buf;
+		this.pos    = pos;
+		this.limit  = limit;
+		this.eof    = source == null;
+	}
+
+	public static Object parse(final byte[] json) { return parse(json, 0, json.length, Projection.ALL); }
+
+	public static Object parse(final byte[] json, final int offset, final int length) { return parse(json, offset, length, Projection.ALL); }
+
+	public static Object parse(final byte[] json, final int offset, final int length, final Projection projection) {
+		Objects.checkFromIndexSize(offset, length, json.length);
+		try {
+			return new JsonParserBytes(null, projection, json, offset, offset + length).parse();
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** Parses the remaining bytes of {@code json} without moving its position. */
+	public static Object parse(final ByteBuffer json) { return parse(json, Projection.ALL); }
+
+	public static Object parse(final ByteBuffer json, final Projection projection) {
+		if (json.hasArray()) return parse(json.array(), json.arrayOffset() + json.position(), json.remaining(), projection);
+		final var bytes = json.duplicate();
+		try {
+			return new JsonParserBytes((b, off, len) -> {
+				if (!bytes.hasRemaining()) return -1;
+				final var n = Math.min(len, bytes.remaining());
+				bytes.get(b, off, n);
+				return n;
+			}, projection, new byte[BUFFER], 0, 0).parse();
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** Reads {@code json} to its end; the stream is not closed. */
+	public static Object parse(final InputStream json) throws IOException { return parse(json, Projection.ALL); }
+
+	public static Object parse(final InputStream json, final Projection projection) throws IOException {
+		return new JsonParserBytes(json::read, projection, new byte[BUFFER], 0, 0).parse();
+	}
+
+	/** Reads {@code json} to its end; the characters are encoded to UTF-8 in fixed-size buffers. The reader is not closed. */
+	public static Object parse(final Reader json) throws IOException { return parse(json, Projection.ALL); }
+
+	public static Object parse(final Reader json, final Projection projection) throws IOException {
+		return new JsonParserBytes(encoder(json), projection, new byte[BUFFER], 0, 0).parse();
+	}
+
+	private static Source encoder(final Reader reader) {
+		final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		final var chars = CharBuffer.allocate(BUFFER / 4).flip();
+		final var bytes = ByteBuffer.allocate(BUFFER).flip();
+		final var ended = new boolean[2]; // reader at its end, encoder flushed
+		return (b, off, len) -> {
+			while (!bytes.hasRemaining()) {
+				if (ended[1]) return -1;
+				bytes.clear();
+				// nothing is encoded while only a high surrogate is left, it needs the next character
+				while (bytes.position() == 0 && !ended[1]) {
+					encoder.encode(chars, bytes, ended[0]);
+					if (ended[0]) { encoder.flush(bytes); ended[1] = true; }
+					else if (bytes.position() == 0) {
+						chars.compact();
+						ended[0] = reader.read(chars) < 0;
+						chars.flip();
+					}
+				}
+				bytes.flip();
+			}
+			final var n = Math.min(len, bytes.remaining());
+			bytes.get(b, off, n);
+			return n;
+		};
+	}
+
+	private Object parse() throws IOException {
+		final var values = new Values(projection);
+		int line = 1, column = 0, lastI = 0;
+		// the text is blank if it holds other whitespace than the four of JSON and nothing else
+		IllegalStateException blank = null;
+
+		while (available(1)) {
+			final var i = index;
+			column += (i - lastI);
+			lastI = i;
+			final var c = buf[pos];
+			if (blank != null && whitespace() == 0) throw blank;
+			switch (c) {
+			case '\n' -> { line++; column = i + 1; pos++; index++; }
+			case ' ', '\t', '\r' -> { pos++; index++; }
+			case 't' -> literal(TRUE , Boolean.TRUE , values, line, column, "Invalid 'true'");
+			case 'f' -> literal(FALSE, Boolean.FALSE, values, line, column, "Invalid 'false'");
+			case 'n' -> literal(NULL , JsonParserString.NULL, values, line, column, "Invalid 'null'");
+			case '"' -> {
+				if (skip == 0 && !values.skipping()) values.push(string(line, column, lastI, values.keys()));
+				else {
+					skipString(line, column, lastI);
+					if (skip == 0) values.push(Values.SKIPPED);
+				}
+			}
+			case '0','1','2','3','4','5','6','7','8','9','-' -> {
+				final var value = number(line, column);
+				if (skip == 0) values.push(values.skipping() ? Values.SKIPPED : (Object) value);
+			}
+			case '{' -> { if (skip > 0 || values.skipping()) skip++; else values.open(Marker.OBJECT); pos++; index++; }
+			case '[' -> { if (skip > 0 || values.skipping()) skip++; else values.open(Marker.ARRAY); pos++; index++; }
+			case '}' -> { if (skip == 0) values.closeObject(line, column, i); else if (--skip == 0) values.push(Values.SKIPPED); pos++; index++; }
+			case ']' -> { if (skip == 0) values.closeArray (line, column, i); else if (--skip == 0) values.push(Values.SKIPPED); pos++; index++; }
+			case ':' -> { if (skip == 0) values.colon(line, column, i); pos++; index++; }
+			case ',' -> { if (skip == 0) values.comma(line, column, i); pos++; index++; }
+			default -> {
+				final var length = whitespace();
+				if (length == 0 || !values.isEmpty()) throw JsonParserString.error(line, column, "Unexpected char", i);
+				if (blank == null) blank = JsonParserString.error(line, column, "Unexpected char", i);
+				pos += length;
+				index++;
+			}
+			}
+		}
+		return values.isEmpty() ? null : values.result(line, column, index);
+	}
+
+	/** Whether at least {@code n} bytes follow {@code pos}, refilling the buffer as needed. */
+	private boolean available(final int n) throws IOException {
+		while (limit - pos < n) if (!fill()) return false;
+		return true;
+	}
+
+	/** Moves the unread bytes to the start of the buffer (growing it if they fill it) and reads more after them. */
+	private boolean fill() throws IOException {
+		if (eof) return false;
+		if (pos > 0) {
+			System.arraycopy(buf, pos, buf, 0, limit - pos);
+			limit -= pos;
+			pos    = 0;
+		}
+		if (limit == buf.length) buf = Arrays.copyOf(buf, 2 * buf.length);
+		final var n = source.read(buf, limit, buf.length - limit);
+		if (n < 0) eof = true;
+		else limit += n;
+		return n >= 0;
+	}
+
+	/** Length in bytes of the whitespace character at {@code pos}, 0 if it is none. */
+	private int whitespace() throws IOException {
+		final var b = buf[pos] & 0xff;
+		if (b < 0x80) return Character.isWhitespace(b) ? 1 : 0;
+		final var n = b >= 0xf0 ? 4 : b >= 0xe0 ? 3 : 2;
+		if (!available(n)) return 0;
+		final var s = new String(buf, pos, n, StandardCharsets.UTF_8);
+		return s.length() == 1 && Character.isWhitespace(s.charAt(0)) ? n : 0;
+	}
+
+	private void literal(final byte[] word, final Object value, final Values values, final int line, final int column, final String msg) throws IOException {
+		if (!available(word.length) || !Arrays.equals(buf, pos, pos + word.length, word, 0, word.length)) throw JsonParserString.error(line, column, msg, index);
+		if (skip == 0) values.scalar(value);
+		pos   += word.length;
+		index += word.length;
+	}
+
+	private double number(final int line, final int column) throws IOException {
+		var end = pos;
+		while (true) {
+			while (end < limit && JsonParserString.isNumberChar((char) (buf[end] & 0xff))) end++;
+			if (end < limit) break;
+			final var scanned = end - pos;
+			final var more    = fill();
+			end = pos + scanned;
+			if (!more) break;
+		}
+		final var value = JsonParserString.parseNumber(buf, pos - index, pos, end, line, column);
+		index += end - pos;
+		pos    = end;
+		return value;
+	}
+
+	/**
+	 * Decodes the string at {@code pos}; as in {@link JsonParserString}, a string still open at the end of the input ends there.
+	 * A member name of an object whose names are filtered by {@code keys} is compared without decoding it, {@link Values#SKIPPED_KEY} if it is not kept.
+	 */
+	private String string(final int line, final int column, final int lastI, final Projection keys) throws IOException {
+		pos++;
+		index++;
+		StringBuilder text = null;
+		while (true) {
+			var end = pos;
+			while (end < limit && buf[end] != '"' && buf[end] != '\\') end++;
+			if (end == limit && !eof) {
+				// keep a character whose bytes are not all read yet for the next round
+				text = decode(text, pos, sequenceEnd(pos, end));
+				fill();
+				continue;
+			}
+			if (text == null && (end == limit || buf[end] == '"')) {
+				final String value;
+				if (keys == null) {
+					value  = new String(buf, pos, end - pos, StandardCharsets.UTF_8);
+					index += value.length();
+				} else {
+					final var name = keys.name(buf, pos, end);
+					value  = name == null ? Values.SKIPPED_KEY : name;
+					index += chars(pos, end);
+				}
+				pos    = end;
+				if (end < limit) { pos++; index++; }
+				return value;
+			}
+			text = decode(text, pos, end);
+			if (end == limit || buf[end] == '"') {
+				if (end < limit) { pos++; index++; }
+				final var value = text.toString();
+				return keys == null || keys.member(value) != null ? value : Values.SKIPPED_KEY;
+			}
+			escape(text, line, column, lastI);
+		}
+	}
+
+	/** Moves past the string at {@code pos} without decoding it, checking its escapes. */
+	private void skipString(final int line, final int column, final int lastI) throws IOException {
+		pos++;
+		index++;
+		while (available(1) && buf[pos] != '"') {
+			if (buf[pos] != '\\') {
+				var end = pos;
+				while (end < limit && buf[end] != '"' && buf[end] != '\\') end++;
+				index += chars(pos, end);
+				pos    = end;
+				continue;
+			}
+			if (!available(2)) throw JsonParserString.error(line, column + (index + 1 - lastI), "Unexpected end", index + 1);
+			if (buf[pos + 1] != 'u') {
+				pos   += 2;
+				index += 2;
+				continue;
+			}
+			for (var j = 0; j < 4; j++) {
+				final var i = index + 2 + j;
+				if (!available(3 + j)) throw JsonParserString.error(line, column + (i - lastI), "Unexpected end", i);
+				if (JsonParserString.parseHexDigit((char) (buf[pos + 2 + j] & 0xff)) == -1) throw JsonParserString.error(line, column + (i - lastI), "Invalid hex", i);
+			}
+			pos   += 6;
+			index += 6;
+		}
+		if (pos < limit) { pos++; index++; }
+	}
+
+	/** Characters of the decoded text for the UTF-8 bytes {@code from..to}: one per sequence, two for those beyond the BMP. */
+	private int chars(final int from, final int to) {
+		var n = 0;
+		for (var i = from; i < to; i++) {
+			final var b = buf[i];
+			if ((b & 0xc0) != 0x80) n += (b & 0xf8) == 0xf0 ? 2 : 1;
+		}
+		return n;
+	}
+
+	/** Appends the decoded bytes {@code from..to} and moves past them. */
+	private StringBuilder decode(final StringBuilder text, final int from, final int to) {
+		final var out = text == null ? new StringBuilder(Math.max(16, 2 * (to - from))) : text;
+		if (from < to) {
+			final var s = new String(buf, from, to - from, StandardCharsets.UTF_8);
+			out.append(s);
+			index += s.length();
+		}
+		pos = to;
+		return out;
+	}
+
+	/** End of the last character in {@code from..to} whose bytes are complete. */
+	private int sequenceEnd(final int from, final int to) {
+		for (var i = to - 1; i >= Math.max(from, to - 3); i--) {
+			final var b = buf[i] & 0xff;
+			if (b < 0x80) return to;
+			if (b >= 0xc0) return i + (b >= 0xf0 ? 4 : b >= 0xe0 ? 3 : 2) <= to ? to : i;
+		}
+		return to;
+	}
+
+	/** The backslash at {@code pos} and what it escapes. */
+	private void escape(final StringBuilder text, final int line, final int column, final int lastI) throws IOException {
+		if (!available(2)) throw JsonParserString.error(line, column + (index + 1 - lastI), "Unexpected end", index + 1);
+		final var escaped = buf[pos + 1];
+		if (escaped < 0) {
+			// not one of the escapes, the character stands for itself
+			pos++;
+			index++;
+			return;
+		}
+		if (escaped != 'u') {
+			text.append(JsonParserString.handleEscape((char) escaped));
+			pos   += 2;
+			index += 2;
+			return;
+		}
+		var val = 0;
+		for (var j = 0; j < 4; j++) {
+			final var i = index + 2 + j;
+			if (!available(3 + j)) throw JsonParserString.error(line, column + (i - lastI), "Unexpected end", i);
+			final var hex = JsonParserString.parseHexDigit((char) (buf[pos + 2 + j] & 0xff));
+			if (hex == -1) throw JsonParserString.error(line, column + (i - lastI), "Invalid hex", i);
+			val = (val << 4) | hex;
+		}
+		text.append((char) val);
+		pos   += 6;
+		index += 6;
+	}
+}
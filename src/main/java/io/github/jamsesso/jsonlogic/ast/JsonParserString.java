@@ -10,12 +10,117 @@ public class JsonParserString {
 	public static final Object NULL = new Object();
 	enum Marker { OBJECT, ARRAY, COMMA, COLON }
 
-	public static Object parse(final String json) {
+	/**
+	 * Values read so far: scalars and markers are pushed as they are read, containers are built when they close.
+	 * Values the {@link Projection} does not need are pushed as {@link #SKIPPED} (member names as {@link #SKIPPED_KEY}) and left out.
+	 */
+	static final class Values {
+		static final Object SKIPPED     = new Object();
+		static final String SKIPPED_KEY = new String("skipped");
+
+		private final Deque<Object> values = new ArrayDeque<>(8192);
+		private int[] sizeStack = new int[64];
+		private int   sizePtr   = -1;
+		/** Projection of each open container. */
+		private Projection[] projections = new Projection[64];
+		/** What is needed of the value read next, {@code null} when it is skipped. */
+		private Projection   next;
+
+		Values(final Projection projection) { next = projection; }
+
+		boolean isEmpty() { return values.isEmpty(); }
+
+		boolean skipping() { return next == null; }
+
+		/** Projection of the object whose member name is read next, {@code null} when names are not filtered (or no name comes next). */
+		Projection keys() {
+			if (sizePtr < 0 || sizeStack[sizePtr] != -1 || projections[sizePtr] == Projection.ALL) return null;
+			final var top = values.peek();
+			return top == Marker.OBJECT || top == Marker.COMMA ? projections[sizePtr] : null;
+		}
+
+		/** A scalar value, or {@link #SKIPPED} in its place. */
+		void scalar(final Object value) { push(next == null ? SKIPPED : value); }
+
+		void push(final Object value) {
+			values.push(value);
+			if (sizePtr >= 0 && sizeStack[sizePtr] != -1) sizeStack[sizePtr]++;
+		}
+
+		void open(final Marker marker) {
+			values.push(marker);
+			if (++sizePtr == sizeStack.length) {
+				sizeStack   = Arrays.copyOf(sizeStack, sizeStack.length * 2);
+				projections = Arrays.copyOf(projections, sizeStack.length);
+			}
+			sizeStack  [sizePtr] = marker == Marker.OBJECT ? -1 : 0;
+			projections[sizePtr] = next;
+			if (marker == Marker.ARRAY) next = next.element(0);
+		}
+
+		void closeObject(final int line, final int column, final int i) {
+			sizePtr--;
+			final Map<String, Object> map = new LinkedHashMap<>();
+			var val = values.pop();
+			if (val != Marker.OBJECT) {
+				do {
+					if (Marker.COLON != values.pop()) throw error(line, column, "Expected ':'", i);
+					final var key = (String) values.pop();
+					if (key != SKIPPED_KEY) map.put(key, val == NULL ? null : val);
+					if ((val = values.pop()) == Marker.OBJECT) break;
+					if (Marker.COMMA != val) throw error(line, column, "Expected ','", i);
+					val = values.pop();
+				} while (true);
+			}
+			push(map);
+		}
+
+		void closeArray(final int line, final int column, final int i) {
+			final var size = sizeStack[sizePtr--];
+			final var arr = new Object[size];
+			for (var j = size - 1; j >= 0; j--) {
+				final var v = values.pop();
+				arr[j] = (v == NULL || v == SKIPPED ? null : v);
+				if (j > 0 && Marker.COMMA != values.pop()) throw error(line, column, "Expected ','", i);
+			}
+			if (Marker.ARRAY != values.pop()) throw error(line, column, "Expected ']'", i);
+			push(Arrays.asList(arr));
+		}
+
+		void colon(final int line, final int column, final int i) {
+			if (sizePtr < 0 || sizeStack[sizePtr] != -1 || !(values.peek() instanceof String)) throw error(line, column, "Unexpected ':'", i);
+			final var key = (String) values.peek();
+			values.push(Marker.COLON);
+			next = key == SKIPPED_KEY ? null : projections[sizePtr].member(key);
+		}
+
+		void comma(final int line, final int column, final int i) {
+			if (sizePtr < 0) throw error(line, column, "Unexpected ','", i);
+			final var top = values.peek();
+			if (top instanceof Marker) throw error(line, column, "Unexpected ','", i);
+			values.push(Marker.COMMA);
+			next = sizeStack[sizePtr] == -1 ? projections[sizePtr] : projections[sizePtr].element(sizeStack[sizePtr]);
+		}
+
+		Object result(final int line, final int column, final int len) {
+			if (values.size() != 1) throw error(line, column, "Unbalanced", len);
+			final var result = values.pop();
+			return result == NULL ? null : result;
+		}
+	}
+
+	public static Object parse(final String json) { return parse(json, Projection.ALL); }
+
+	/**
+	 * Like {@link #parse(String)}, building only the parts of the document {@code projection} keeps.
+	 * Skipped values are checked for valid tokens and balanced brackets but not built, so some syntax errors within them go unnoticed.
+	 */
+	public static Object parse(final String json, final Projection projection) {
 		if (json == null || json.isBlank()) return null;
 		final var len = json.length();
-		final Deque<Object> values = new ArrayDeque<>(8192);
-		var sizeStack = new int[64];
-		int sizePtr = -1, line = 1, column = 0, lastI = 0;
+		final var values = new Values(projection);
+		// depth of the skipped container being read, 0 outside
+		int line = 1, column = 0, lastI = 0, skip = 0;
 
 		for (var i = 0; i < len; i++) {
 			column += (i - lastI);
@@ -26,31 +131,38 @@ public class JsonParserString {
 			case ' ', '\t', '\r' -> {}
 			case 't' -> {
 				if (!json.startsWith("true", i)) throw error(line, column, "Invalid 'true'", i);
-				values.push(Boolean.TRUE); i += 3;
-				if (sizePtr >= 0 && sizeStack[sizePtr] != -1) sizeStack[sizePtr]++;
+				if (skip == 0) values.scalar(Boolean.TRUE);
+				i += 3;
 			}
 			case 'f' -> {
 				if (!json.startsWith("false", i)) throw error(line, column, "Invalid 'false'", i);
-				values.push(Boolean.FALSE); i += 4;
-				if (sizePtr >= 0 && sizeStack[sizePtr] != -1) sizeStack[sizePtr]++;
+				if (skip == 0) values.scalar(Boolean.FALSE);
+				i += 4;
 			}
 			case 'n' -> {
 				if (!json.startsWith("null", i)) throw error(line, column, "Invalid 'null'", i);
-				values.push(NULL); i += 3;
-				if (sizePtr >= 0 && sizeStack[sizePtr] != -1) sizeStack[sizePtr]++;
+				if (skip == 0) values.scalar(NULL);
+				i += 3;
 			}
 			case '"' -> {
+				if (skip > 0 || values.skipping()) {
+					i = endOfString(json, i + 1, line, column, lastI);
+					if (skip == 0) values.push(Values.SKIPPED);
+					continue;
+				}
+				final var keys  = values.keys();
 				final var start = ++i;
 				StringBuilder sb = null;
 				while (i < len && json.charAt(i) != '"') {
 					if (json.charAt(i) == '\\') {
 						if (sb == null) sb = new StringBuilder().append(json, start, i);
-						i++;
+						if (++i == len) throw error(line, column + (i - lastI), "Unexpected end", i);
 						final var escaped = json.charAt(i);
 						if (escaped == 'u') {
 							var val = 0;
 							for (var j = 0; j < 4; j++) {
-								final var hex = parseHexDigit(json.charAt(++i));
+								if (++i == len) throw error(line, column + (i - lastI), "Unexpected end", i);
+								final var hex = parseHexDigit(json.charAt(i));
 								if (hex == -1) throw error(line, column + (i - lastI), "Invalid hex", i);
 								val = (val << 4) | hex;
 							}
@@ -59,128 +171,112 @@ public class JsonParserString {
 					} else if (sb != null) sb.append(json.charAt(i));
 					i++;
 				}
-				values.push(sb == null ? json.substring(start, i) : sb.toString());
-				if (sizePtr >= 0 && sizeStack[sizePtr] != -1) sizeStack[sizePtr]++;
+				if (keys == null) values.push(sb == null ? json.substring(start, i) : sb.toString());
+				else {
+					final var name = sb == null ? keys.name(json, start, i) : keys.member(sb.toString()) == null ? null : sb.toString();
+					values.push(name == null ? Values.SKIPPED_KEY : name);
+				}
 			}
 			case '0','1','2','3','4','5','6','7','8','9','-' -> {
 				final var start = i;
 				while (i < len && isNumberChar(json.charAt(i))) i++;
-				values.push(parseNumber(json, start, i, line, column));
+				final var value = parseNumber(json, start, i, line, column);
+				if (skip == 0) values.push(values.skipping() ? Values.SKIPPED : (Object) value);
 				i--;
-				if (sizePtr >= 0 && sizeStack[sizePtr] != -1) sizeStack[sizePtr]++;
 			}
-			case '{' -> {
-				values.push(Marker.OBJECT);
-				if (++sizePtr == sizeStack.length) sizeStack = Arrays.copyOf(sizeStack, sizeStack.length * 2);
-				sizeStack[sizePtr] = -1;
-			}
-			case '[' -> {
-				values.push(Marker.ARRAY);
-				if (++sizePtr == sizeStack.length) sizeStack = Arrays.copyOf(sizeStack, sizeStack.length * 2);
-				sizeStack[sizePtr] = 0;
-			}
-			case '}' -> {
-				sizePtr--;
-				final Map<String, Object> map = new LinkedHashMap<>();
-				var val = values.pop();
-				if (val != Marker.OBJECT) {
-					do {
-						if (Marker.COLON != values.pop()) throw error(line, column, "Expected ':'", i);
-						map.put((String) values.pop(), val == NULL ? null : val);
-						if ((val = values.pop()) == Marker.OBJECT) break;
-						if (Marker.COMMA != val) throw error(line, column, "Expected ','", i);
-						val = values.pop();
-					} while (true);
-				}
-				values.push(map);
-				if (sizePtr >= 0 && sizeStack[sizePtr] != -1) sizeStack[sizePtr]++;
-			}
-			case ']' -> {
-				final var size = sizeStack[sizePtr--];
-				final var arr = new Object[size];
-				for (var j = size - 1; j >= 0; j--) {
-					final var v = values.pop();
-					arr[j] = (v == NULL ? null : v);
-					if (j > 0 && Marker.COMMA != values.pop()) throw error(line, column, "Expected ','", i);
-				}
-				if (Marker.ARRAY != values.pop()) throw error(line, column, "Expected ']'", i);
-				values.push(Arrays.asList(arr));
-				if (sizePtr >= 0 && sizeStack[sizePtr] != -1) sizeStack[sizePtr]++;
+			case '{' -> { if (skip > 0 || values.skipping()) skip++; else values.open(Marker.OBJECT); }
+			case '[' -> { if (skip > 0 || values.skipping()) skip++; else values.open(Marker.ARRAY); }
+			case '}' -> { if (skip == 0) values.closeObject(line, column, i); else if (--skip == 0) values.push(Values.SKIPPED); }
+			case ']' -> { if (skip == 0) values.closeArray (line, column, i); else if (--skip == 0) values.push(Values.SKIPPED); }
+			case ':' -> { if (skip == 0) values.colon(line, column, i); }
+			case ',' -> { if (skip == 0) values.comma(line, column, i); }
+			default -> throw error(line, column, "Unexpected char", i);
 			}
+		}
+		return values.result(line, column, len);
+	}
 
-			case ':' -> {
-				if (sizePtr < 0 || sizeStack[sizePtr] != -1 || !(values.peek() instanceof String)) throw error(line, column, "Unexpected ':'", i);
-				values.push(Marker.COLON);
-			}
-			case ',' -> {
-				if (sizePtr < 0) throw error(line, column, "Unexpected ','", i);
-				final var top = values.peek();
-				if (top instanceof Marker) throw error(line, column, "Unexpected ','", i);
-				values.push(Marker.COMMA);
-			}
-			default -> throw error(line, column, "Unexpected char", i);
+	/** Index of the quote closing the string whose first character is at {@code i} (or the end of {@code json}), read without building it. */
+	private static int endOfString(final String json, int i, final int line, final int column, final int lastI) {
+		final var len = json.length();
+		while (i < len && json.charAt(i) != '"') {
+			if (json.charAt(i) == '\\') {
+				if (++i == len) throw error(line, column + (i - lastI), "Unexpected end", i);
+				if (json.charAt(i) == 'u') {
+					for (var j = 0; j < 4; j++) {
+						if (++i == len) throw error(line, column + (i - lastI), "Unexpected end", i);
+						if (parseHexDigit(json.charAt(i)) == -1) throw error(line, column + (i - lastI), "Invalid hex", i);
+					}
+				}
 			}
+			i++;
 		}
-		if (values.size() != 1) throw error(line, column, "Unbalanced", len);
-		final var result = values.pop();
-		return result == NULL ? null : result;
+		return i;
 	}
 
 	private static final double[] POWERS_OF_10 ; static { var v = 1L; POWERS_OF_10 = new double[19]; for(var i=0;i<19;i++) { POWERS_OF_10[i]=v; v*=10; } }
 	private static boolean isDigit     (final char c) { return (c >= '0' && c <= '9'); }
-	private static boolean isNumberChar(final char c) { return (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+' || c == 'e' || c == 'E'; }
+	static boolean isNumberChar(final char c) { return (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+' || c == 'e' || c == 'E'; }
+
+	public static double parseNumber(final String json, final int start, final int end, final int line, final int col) { return parseNumber(json, null, 0, start, end, line, col); }
 
-	public static double parseNumber(final String json, final int start, final int end, final int line, final int col) {
+	/** {@link #parseNumber(String, int, int, int, int)} on ASCII bytes; indexes in errors are the byte offsets less {@code shift}. */
+	static double parseNumber(final byte[] json, final int shift, final int start, final int end, final int line, final int col) { return parseNumber(null, json, shift, start, end, line, col); }
+
+	/** The number in {@code text}, or else in {@code bytes}, from {@code start} to {@code end}. */
+	private static double parseNumber(final String text, final byte[] bytes, final int shift, final int start, final int end, final int line, final int col) {
 		var mantissa = 0L;
 		var exp = 0;
 		var i = start;
-		final var neg = json.charAt(i) == '-';
-		if (neg && ++i >= end) throw error(line, col, "Isolated minus", i);
-		if (json.charAt(i) == '0') {
+		final var neg = at(text, bytes, i) == '-';
+		if (neg && ++i >= end) throw error(line, col, "Isolated minus", i - shift);
+		if (at(text, bytes, i) == '0') {
 			i++;
-			if (i < end && isDigit(json.charAt(i))) throw error(line, col, "Leading zero not allowed", i);
+			if (i < end && isDigit(at(text, bytes, i))) throw error(line, col, "Leading zero not allowed", i - shift);
 		} else {
 			final var s = i;
-			while (i < end && isDigit(json.charAt(i))) {
-				mantissa = mantissa * 10 + (json.charAt(i++) - '0');
+			while (i < end && isDigit(at(text, bytes, i))) {
+				mantissa = mantissa * 10 + (at(text, bytes, i++) - '0');
 			}
-			if (i == s) throw error(line, col, "Expected digit", i);
+			if (i == s) throw error(line, col, "Expected digit", i - shift);
 		}
-		if (i < end && json.charAt(i) == '.') {
+		if (i < end && at(text, bytes, i) == '.') {
 			i++;
 			final var s = i;
-			while (i < end && isDigit(json.charAt(i))) {
-				mantissa = mantissa * 10 + (json.charAt(i++) - '0');
+			while (i < end && isDigit(at(text, bytes, i))) {
+				mantissa = mantissa * 10 + (at(text, bytes, i++) - '0');
 				exp--;
 			}
-			if (i == s) throw error(line, col, "Expected digit after .", i);
+			if (i == s) throw error(line, col, "Expected digit after .", i - shift);
 		}
-		if (i < end && (json.charAt(i) == 'e' || json.charAt(i) == 'E')) {
+		if (i < end && (at(text, bytes, i) == 'e' || at(text, bytes, i) == 'E')) {
 			i++;
-			final var eNeg = i < end && json.charAt(i) == '-';
-			if (eNeg || (i < end && json.charAt(i) == '+')) i++;
+			final var eNeg = i < end && at(text, bytes, i) == '-';
+			if (eNeg || (i < end && at(text, bytes, i) == '+')) i++;
 			final var s = i;
 			var eVal = 0;
-			while (i < end && isDigit(json.charAt(i))) {
-				eVal = eVal * 10 + (json.charAt(i++) - '0');
+			while (i < end && isDigit(at(text, bytes, i))) {
+				eVal = eVal * 10 + (at(text, bytes, i++) - '0');
 			}
-			if (i == s) throw error(line, col, "Expected digit in exponent", i);
+			if (i == s) throw error(line, col, "Expected digit in exponent", i - shift);
 			exp += (eNeg ? -eVal : eVal);
 		}
-		if (i != end) throw error(line, col, "Invalid number syntax", i);
+		if (i != end) throw error(line, col, "Invalid number syntax", i - shift);
 		final var absExp = Math.abs(exp);
 		final var res = (absExp < POWERS_OF_10.length ? (exp >= 0 ? mantissa * POWERS_OF_10[absExp] : mantissa / POWERS_OF_10[absExp]) : mantissa * Math.pow(10, exp));
 		return neg ? -res : res;
 	}
 
-	private static int parseHexDigit(final char c) {
+	private static char at(final String text, final byte[] bytes, final int i) { return text != null ? text.charAt(i) : (char) (bytes[i] & 0xff); }
+
+	static int parseHexDigit(final char c) {
 		if (c >= '0' && c <= '9') return c - '0';
 		if (c >= 'a' && c <= 'f') return c - 'a' + 10;
 		if (c >= 'A' && c <= 'F') return c - 'A' + 10;
 		return -1;
 	}
 
-	private static char handleEscape(final char c) {
+	static char handleEscape(final char c) {
 		return switch (c) {
 		case '\\' -> '\\'; case '/' -> '/'; case '"' -> '"';
 		case 'n' -> '\n'; case 'r' -> '\r'; case 't' -> '\t';
@@ -188,7 +284,7 @@ public class JsonParserString {
 		};
 	}
 
-	private static IllegalStateException error(final int line, final int col, final String msg, final int i) {
+	static IllegalStateException error(final int line, final int col, final String msg, final int i) {
 		return new IllegalStateException(String.format("[%d:%d] %s at index %d", line, col, msg, i));
 	}
 }
\ No newline at end of file
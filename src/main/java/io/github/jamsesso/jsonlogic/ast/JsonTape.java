@@ -0,0 +1,443 @@
+package io.github.jamsesso.jsonlogic.ast;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * UTF-8 encoded JSON indexed in one pass over its bytes, in the style of the simdjson tape: every value is an entry holding its kind and
+ * the offsets of its bytes in the buffer, objects and arrays hold the entries of their members and elements. Nothing is decoded while indexing.
+ * {@link #parse(byte[])} returns the document as read-only {@link Map} and {@link List} views of the tape that decode strings and numbers when
+ * they are read, and {@code var} lookups walk the entries themselves ({@link #member(int, String)}, {@link #element(int, int)}), so only the
+ * values a rule reads are ever built. Objects with many members get a hash table of their names, a lookup does not depend on their size.
+ * <p>
+ * Values are those the parsers build for the same text, a member name given twice keeps the first value. Unlike the parsers only
+ * the four whitespace characters of JSON are accepted between tokens and strings have to be closed; error positions count bytes.
+ * The buffer is not copied and must not change while the document is in use.
+ */
+public final class JsonTape {
+	private static final byte OBJECT = 0, ARRAY = 1, STRING = 2, ESCAPED = 3, NUMBER = 4, TRUE = 5, FALSE = 6, NULL = 7;
+	/** Objects with more members get a hash table of their names. */
+	private static final int  LINEAR = 8;
+
+	/** Object or array of a tape, as returned by {@link JsonTape#value(int)}. */
+	public sealed interface Node permits Members, Elements {
+		JsonTape tape();
+		int entry();
+	}
+
+	private final byte[] buf;
+	private final byte[] kinds;
+	/** Strings and numbers: their bytes {@code buf[start, end)}; objects and arrays: the entries of their member names or elements {@code slots[start, end)}. */
+	private final int[]  starts;
+	private final int[]  ends;
+	/** Member names (the value is the entry after the name) and elements, the names of large objects followed by their hash table. */
+	private final int[]  slots;
+
+	private JsonTape(final Indexer indexer) {
+		this.buf    = indexer.buf;
+		this.kinds  = indexer.kinds;
+		this.starts = indexer.starts;
+		this.ends   = indexer.ends;
+		this.slots  = indexer.slots;
+	}
+
+	public static Object parse(final byte[] json) { return parse(json, 0, json.length); }
+
+	/** The document in {@code json[offset, offset + length)}, {@code null} if it is blank. */
+	public static Object parse(final byte[] json, final int offset, final int length) {
+		Objects.checkFromIndexSize(offset, length, json.length);
+		final var indexer = new Indexer(json, offset, offset + length);
+		return indexer.index() ? new JsonTape(indexer).value(0) : null;
+	}
+
+	/** The remaining bytes of {@code json}, in place when it has an array and copied otherwise; its position does not move. */
+	public static Object parse(final ByteBuffer json) {
+		if (json.hasArray()) return parse(json.array(), json.arrayOffset() + json.position(), json.remaining());
+		final var bytes = new byte[json.remaining()];
+		json.get(json.position(), bytes);
+		return parse(bytes);
+	}
+
+	public boolean isObject(final int entry) { return kinds[entry] == OBJECT; }
+
+	public boolean isArray (final int entry) { return kinds[entry] == ARRAY; }
+
+	/** Entry of the value of member {@code name} of object {@code entry}, -1 if it has none. */
+	public int member(final int entry, final String name) {
+		final var from = starts[entry];
+		final var n    = ends[entry] - from;
+		if (n > LINEAR) {
+			final var mask = tableSize(n) - 1;
+			for (var h = spread(name.hashCode()) & mask; slots[from + n + h] != 0; h = (h + 1) & mask) {
+				final var key = slots[from + slots[from + n + h] - 1];
+				if (nameEquals(key, name)) return key + 1;
+			}
+			return -1;
+		}
+		for (var i = from; i < from + n; i++) if (nameEquals(slots[i], name)) return slots[i] + 1;
+		return -1;
+	}
+
+	/** Entry of element {@code index} of array {@code entry}, -1 if it has none. */
+	public int element(final int entry, final int index) {
+		return index < 0 || index >= ends[entry] - starts[entry] ? -1 : slots[starts[entry] + index];
+	}
+
+	/** The value of {@code entry}: objects and arrays as views of the tape, scalars decoded. */
+	public Object value(final int entry) {
+		return switch (kinds[entry]) {
+		case OBJECT  -> new Members(entry);
+		case ARRAY   -> new Elements(entry);
+		case STRING  -> new String(buf, starts[entry], ends[entry] - starts[entry], StandardCharsets.UTF_8);
+		case ESCAPED -> unescape(buf, starts[entry], ends[entry]);
+		case NUMBER  -> JsonParserString.parseNumber(buf, 0, starts[entry], ends[entry], 0, 0);
+		case TRUE    -> Boolean.TRUE;
+		case FALSE   -> Boolean.FALSE;
+		default      -> null;
+		};
+	}
+
+	/** Whether member name {@code key} is {@code name}, compared on the bytes while they are ASCII. */
+	private boolean nameEquals(final int key, final String name) {
+		if (kinds[key] == STRING) {
+			final int from = starts[key], to = ends[key], length = name.length();
+			if (to - from < length) return false;
+			for (var i = from; i < to; i++) {
+				final var b = buf[i];
+				if (b < 0) return value(key).equals(name);
+				if (i - from >= length || b != name.charAt(i - from)) return false;
+			}
+			return to - from == length;
+		}
+		return value(key).equals(name);
+	}
+
+	private static int tableSize(final int members) { return Integer.highestOneBit(members) << 2; }
+
+	private static int spread(final int hash) { return hash ^ (hash >>> 16); }
+
+	/** The characters of string {@code buf[from, to)} holding escapes, which the parsers decode the same way. */
+	private static String unescape(final byte[] buf, final int from, final int to) {
+		final var out = new StringBuilder(to - from);
+		var run = from;
+		for (var i = from; i < to; i++) {
+			if (buf[i] != '\\') continue;
+			out.append(new String(buf, run, i - run, StandardCharsets.UTF_8));
+			final var escaped = buf[i + 1];
+			if (escaped == 'u') {
+				var val = 0;
+				for (var j = 2; j < 6; j++) val = (val << 4) | JsonParserString.parseHexDigit((char) buf[i + j]);
+				out.append((char) val);
+				i += 5;
+			} else if (escaped >= 0) {
+				out.append(JsonParserString.handleEscape((char) escaped));
+				i++;
+			} // else not one of the escapes, the character after the backslash stands for itself
+			run = i + 1;
+		}
+		return out.append(new String(buf, run, to - run, StandardCharsets.UTF_8)).toString();
+	}
+
+	/** An object of the tape; member names are compared on the bytes and values decoded when read. */
+	private final class Members extends AbstractMap<String, Object> implements Node {
+		private final int entry;
+
+		Members(final int entry) { this.entry = entry; }
+
+		@Override public JsonTape tape() { return JsonTape.this; }
+		@Override public int entry() { return entry; }
+		@Override public int size() { return ends[entry] - starts[entry]; }
+		@Override public boolean containsKey(final Object key) { return key instanceof final String name && member(entry, name) >= 0; }
+
+		@Override public Object get(final Object key) {
+			if (!(key instanceof final String name)) return null;
+			final var value = member(entry, name);
+			return value < 0 ? null : value(value);
+		}
+
+		@Override public Set<Map.Entry<String, Object>> entrySet() {
+			return new AbstractSet<>() {
+				@Override public int size() { return Members.this.size(); }
+				@Override public Iterator<Map.Entry<String, Object>> iterator() {
+					return new Iterator<>() {
+						private int next = starts[entry];
+
+						@Override public boolean hasNext() { return next < ends[entry]; }
+						@Override public Map.Entry<String, Object> next() {
+							if (!hasNext()) throw new NoSuchElementException();
+							final var key = slots[next++];
+							return new SimpleImmutableEntry<>((String) value(key), value(key + 1));
+						}
+					};
+				}
+			};
+		}
+	}
+
+	/** An array of the tape; elements are decoded when read. */
+	private final class Elements extends AbstractList<Object> implements Node, RandomAccess {
+		private final int entry;
+
+		Elements(final int entry) { this.entry = entry; }
+
+		@Override public JsonTape tape() { return JsonTape.this; }
+		@Override public int entry() { return entry; }
+		@Override public int size() { return ends[entry] - starts[entry]; }
+		@Override public Object get(final int index) { return value(slots[starts[entry] + Objects.checkIndex(index, size())]); }
+	}
+
+	/** The single pass over the bytes; the members and elements of the open containers are kept on a stack until they close. */
+	private static final class Indexer {
+		private static final int VALUE = 0, FIRST_ELEMENT = 1, NAME = 2, FIRST_NAME = 3, COLON = 4, NEXT = 5, DONE = 6;
+		private static final byte[] TRUE_BYTES  = { 't', 'r', 'u', 'e' };
+		private static final byte[] FALSE_BYTES = { 'f', 'a', 'l', 's', 'e' };
+		private static final byte[] NULL_BYTES  = { 'n', 'u', 'l', 'l' };
+
+		private final byte[] buf;
+		private final int    offset;
+		private final int    end;
+		private int          pos;
+		private int          line = 1;
+		private int          lineStart;
+
+		private byte[]       kinds;
+		private int[]        starts;
+		private int[]        ends;
+		private int          count;
+		private int[]        slots    = new int[64];
+		private int          slotCount;
+		/** Members and elements of the open containers, the containers and where their members start on that stack. */
+		private int[]        children = new int[64];
+		private int          childCount;
+		private int[]        open     = new int[16];
+		private int[]        bases    = new int[16];
+		private int          depth;
+		private int[]        hashes   = new int[16];
+		private int[]        probe    = new int[64];
+
+		Indexer(final byte[] buf, final int offset, final int end) {
+			this.buf       = buf;
+			this.offset    = offset;
+			this.end       = end;
+			this.pos       = offset;
+			this.lineStart = offset;
+			final var capacity = Math.max(16, (end - offset) >> 3);
+			this.kinds  = new byte[capacity];
+			this.starts = new int[capacity];
+			this.ends   = new int[capacity];
+		}
+
+		/** Indexes the document, false if it is blank. */
+		boolean index() {
+			var expect = VALUE;
+			while (true) {
+				while (pos < end && (buf[pos] == ' ' || buf[pos] == '\t' || buf[pos] == '\r' || buf[pos] == '\n')) {
+					if (buf[pos++] == '\n') { line++; lineStart = pos; }
+				}
+				if (pos == end) break;
+				final var c = buf[pos];
+				switch (expect) {
+				case VALUE, FIRST_ELEMENT -> {
+					if (c == ']' && expect == FIRST_ELEMENT) {
+						pos++;
+						expect = close();
+						break;
+					}
+					if (depth > 0 && kinds[open[depth - 1]] == ARRAY) child(count);
+					expect = value(c);
+				}
+				case NAME, FIRST_NAME -> {
+					if (c == '}' && expect == FIRST_NAME) {
+						pos++;
+						expect = close();
+						break;
+					}
+					if (c != '"') throw error("Expected string key");
+					child(string());
+					expect = COLON;
+				}
+				case COLON -> {
+					if (c != ':') throw error("Expected ':'");
+					pos++;
+					expect = VALUE;
+				}
+				case NEXT -> {
+					final var object = kinds[open[depth - 1]] == OBJECT;
+					if (c == ',') { pos++; expect = object ? NAME : VALUE; }
+					else if (c == (object ? '}' : ']')) { pos++; expect = close(); }
+					else throw error(object ? "Expected ',' or '}'" : "Expected ',' or ']'");
+				}
+				default -> throw error("Unexpected char");
+				}
+			}
+			if (expect == VALUE && count == 0) return false;
+			if (expect != DONE) throw error("Unexpected end");
+			return true;
+		}
+
+		private int value(final byte c) {
+			switch (c) {
+			case '{' -> { push(entry(OBJECT, 0, 0)); pos++; return FIRST_NAME; }
+			case '[' -> { push(entry(ARRAY , 0, 0)); pos++; return FIRST_ELEMENT; }
+			case '"' -> string();
+			case 't' -> literal(TRUE_BYTES , TRUE , "Invalid 'true'");
+			case 'f' -> literal(FALSE_BYTES, FALSE, "Invalid 'false'");
+			case 'n' -> literal(NULL_BYTES , NULL , "Invalid 'null'");
+			case '0','1','2','3','4','5','6','7','8','9','-' -> {
+				final var start = pos;
+				while (pos < end && JsonParserString.isNumberChar((char) buf[pos])) pos++;
+				// checked as the parsers do, decoded again when read
+				JsonParserString.parseNumber(buf, offset, start, pos, line, start - lineStart);
+				entry(NUMBER, start, pos);
+			}
+			default -> throw error("Unexpected char");
+			}
+			return depth == 0 ? DONE : NEXT;
+		}
+
+		private int string() {
+			final var start = ++pos;
+			var kind = STRING;
+			while (true) {
+				if (pos >= end) throw error("Unexpected end");
+				final var b = buf[pos];
+				if (b == '"') break;
+				if (b != '\\') { pos++; continue; }
+				kind = ESCAPED;
+				if (pos + 1 >= end) throw error("Unexpected end");
+				if (buf[pos + 1] != 'u') { pos += 2; continue; }
+				for (var j = 2; j < 6; j++) {
+					if (pos + j >= end) { pos += j; throw error("Unexpected end"); }
+					if (JsonParserString.parseHexDigit((char) buf[pos + j]) == -1) { pos += j; throw error("Invalid hex"); }
+				}
+				pos += 6;
+			}
+			return entry(kind, start, pos++);
+		}
+
+		private void literal(final byte[] word, final byte kind, final String msg) {
+			if (end - pos < word.length || !Arrays.equals(buf, pos, pos + word.length, word, 0, word.length)) throw error(msg);
+			entry(kind, pos, pos + word.length);
+			pos += word.length;
+		}
+
+		private int entry(final byte kind, final int start, final int stop) {
+			if (count == kinds.length) {
+				kinds  = Arrays.copyOf(kinds , 2 * count);
+				starts = Arrays.copyOf(starts, 2 * count);
+				ends   = Arrays.copyOf(ends  , 2 * count);
+			}
+			kinds [count] = kind;
+			starts[count] = start;
+			ends  [count] = stop;
+			return count++;
+		}
+
+		private void child(final int entry) {
+			if (childCount == children.length) children = Arrays.copyOf(children, 2 * childCount);
+			children[childCount++] = entry;
+		}
+
+		private void push(final int container) {
+			if (depth == open.length) {
+				open  = Arrays.copyOf(open , 2 * depth);
+				bases = Arrays.copyOf(bases, 2 * depth);
+			}
+			open [depth] = container;
+			bases[depth] = childCount;
+			depth++;
+		}
+
+		/** Moves the members or elements of the innermost container to the slots; returns what is expected after it. */
+		private int close() {
+			final var container = open[--depth];
+			final var base      = bases[depth];
+			final var object    = kinds[container] == OBJECT;
+			final var n         = object ? distinct(base, childCount - base) : childCount - base;
+			final var table     = object && n > LINEAR ? tableSize(n) : 0;
+			if (slotCount + n + table > slots.length) slots = Arrays.copyOf(slots, Math.max(2 * slots.length, slotCount + n + table));
+			System.arraycopy(children, base, slots, slotCount, n);
+			starts[container] = slotCount;
+			ends  [container] = slotCount + n;
+			if (table > 0) {
+				final var mask = table - 1;
+				for (var i = 0; i < n; i++) {
+					var h = spread(hashes[i]) & mask;
+					while (slots[slotCount + n + h] != 0) h = (h + 1) & mask;
+					slots[slotCount + n + h] = i + 1;
+				}
+			}
+			slotCount += n + table;
+			childCount = base;
+			return depth == 0 ? DONE : NEXT;
+		}
+
+		/** Drops the repeated names among the {@code n} member names from {@code base}; returns how many are left, with their hashes in {@link #hashes}. */
+		private int distinct(final int base, final int n) {
+			if (hashes.length < n) hashes = new int[Math.max(n, 2 * hashes.length)];
+			final var mask = n > LINEAR ? tableSize(n) - 1 : 0;
+			if (n > LINEAR) {
+				if (probe.length <= mask) probe = new int[mask + 1];
+				else Arrays.fill(probe, 0, mask + 1, 0);
+			}
+			var kept = 0;
+			next:
+			for (var i = 0; i < n; i++) {
+				final var key  = children[base + i];
+				final var hash = hash(key);
+				if (n > LINEAR) {
+					var h = spread(hash) & mask;
+					for (; probe[h] != 0; h = (h + 1) & mask) {
+						final var j = probe[h] - 1;
+						if (hashes[j] == hash && sameName(children[base + j], key)) continue next;
+					}
+					probe[h] = kept + 1;
+				} else {
+					for (var j = 0; j < kept; j++) {
+						if (hashes[j] == hash && sameName(children[base + j], key)) continue next;
+					}
+				}
+				hashes  [kept]        = hash;
+				children[base + kept] = key;
+				kept++;
+			}
+			return kept;
+		}
+
+		/** {@link String#hashCode()} of the name, computed on the bytes while they are ASCII. */
+		private int hash(final int key) {
+			if (kinds[key] == STRING) {
+				var h = 0;
+				for (var i = starts[key]; i < ends[key]; i++) {
+					if (buf[i] < 0) return name(key).hashCode();
+					h = 31 * h + buf[i];
+				}
+				return h;
+			}
+			return name(key).hashCode();
+		}
+
+		private boolean sameName(final int a, final int b) {
+			if (kinds[a] == STRING && kinds[b] == STRING && Arrays.equals(buf, starts[a], ends[a], buf, starts[b], ends[b])) return true;
+			return name(a).equals(name(b));
+		}
+
+		private String name(final int key) {
+			return kinds[key] == STRING ? new String(buf, starts[key], ends[key] - starts[key], StandardCharsets.UTF_8) : unescape(buf, starts[key], ends[key]);
+		}
+
+		private IllegalStateException error(final String msg) {
+			return JsonParserString.error(line, pos - lineStart, msg, pos - offset);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package io.github.jamsesso.jsonlogic.ast;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read-only {@link List} views of arrays and iterables, so that {@link JSON#asList(Object)} does not copy them. Elements of primitive arrays
+ * are boxed when they are read, ints as {@link Double} like parsed numbers and the others as their wrapper type; integral values from
+ * {@value #LOW} to {@value #HIGH} come from a shared table and do not allocate. Iterables that are not lists are iterated in place when they
+ * are collections and copied once, on the first positional read, otherwise; {@code var} lookups keep the view of an iterable of the data
+ * for the rest of an evaluation, so it is copied once per evaluation.
+ */
+final class ListViews {
+	private ListViews() { }
+
+	private static final int      LOW   = -128;
+	private static final int      HIGH  = 1023;
+	private static final Double[] SMALL = new Double[HIGH - LOW + 1];
+	static { for (var i = 0; i < SMALL.length; i++) SMALL[i] = (double) (i + LOW); }
+
+	/** {@code value} boxed, from the table when it is a small integral value other than {@code -0.0}. */
+	static Double box(final double value) {
+		final var i = (int) value;
+		return i == value && i >= LOW && i <= HIGH && (i != 0 || Double.doubleToRawLongBits(value) == 0L) ? SMALL[i - LOW] : Double.valueOf(value);
+	}
+
+	static Double box(final int value) { return value >= LOW && value <= HIGH ? SMALL[value - LOW] : Double.valueOf(value); }
+
+	/** View of an array or iterable, {@code null} for anything else. */
+	@SuppressWarnings("unchecked")
+	static List<Object> of(final Object data) {
+		return switch (data) {
+		case final Object[]    t -> Arrays.asList(t);
+		case final int[]       t -> new Ints(t);
+		case final double[]    t -> new Doubles(t);
+		case final long[]      t -> new Longs(t);
+		case final float[]     t -> new Floats(t);
+		case final short[]     t -> new Shorts(t);
+		case final byte[]      t -> new Bytes(t);
+		case final char[]      t -> new Chars(t);
+		case final boolean[]   t -> new Booleans(t);
+		case final Iterable<?> t -> new Iterated((Iterable<Object>) t);
+		case null, default       -> null;
+		};
+	}
+
+	private abstract static class Primitives extends AbstractList<Object> implements RandomAccess { }
+
+	private static final class Ints     extends Primitives { final int[]     a; Ints    (final int[]     a) { this.a = a; } @Override public int size() { return a.length; } @Override public Object get(final int i) { return box(a[i]); } }
+	private static final class Doubles  extends Primitives { final double[]  a; Doubles (final double[]  a) { this.a = a; } @Override public int size() { return a.length; } @Override public Object get(final int i) { return box(a[i]); } }
+	private static final class Longs    extends Primitives { final long[]    a; Longs   (final long[]    a) { this.a = a; } @Override public int size() { return a.length; } @Override public Object get(final int i) { return Long     .valueOf(a[i]); } }
+	private static final class Floats   extends Primitives { final float[]   a; Floats  (final float[]   a) { this.a = a; } @Override public int size() { return a.length; } @Override public Object get(final int i) { return Float    .valueOf(a[i]); } }
+	private static final class Shorts   extends Primitives { final short[]   a; Shorts  (final short[]   a) { this.a = a; } @Override public int size() { return a.length; } @Override public Object get(final int i) { return Short    .valueOf(a[i]); } }
+	private static final class Bytes    extends Primitives { final byte[]    a; Bytes   (final byte[]    a) { this.a = a; } @Override public int size() { return a.length; } @Override public Object get(final int i) { return Byte     .valueOf(a[i]); } }
+	private static final class Chars    extends Primitives { final char[]    a; Chars   (final char[]    a) { this.a = a; } @Override public int size() { return a.length; } @Override public Object get(final int i) { return Character.valueOf(a[i]); } }
+	private static final class Booleans extends Primitives { final boolean[] a; Booleans(final boolean[] a) { this.a = a; } @Override public int size() { return a.length; } @Override public Object get(final int i) { return Boolean  .valueOf(a[i]); } }
+
+	/** An iterable that is not a list: collections are iterated and sized in place, the elements are copied once when they are needed by position. */
+	private static final class Iterated extends AbstractList<Object> {
+		private final Iterable<Object> source;
+		private       Object[]         items;
+
+		Iterated(final Iterable<Object> source) { this.source = source; }
+
+		private Object[] items() {
+			if (items != null) return items;
+			if (source instanceof final Collection<?> c) return items = c.toArray();
+			var copy = new Object[16];
+			var n    = 0;
+			for (final var item : source) {
+				if (n == copy.length) copy = Arrays.copyOf(copy, n * 2);
+				copy[n++] = item;
+			}
+			return items = Arrays.copyOf(copy, n);
+		}
+
+		@Override public int size() { return items == null && source instanceof final Collection<?> c ? c.size() : items().length; }
+		@Override public Object get(final int index) { return items()[index]; }
+
+		@Override public Iterator<Object> iterator() {
+			if (items == null && source instanceof final Collection<Object> c) return Collections.unmodifiableCollection(c).iterator();
+			return Arrays.asList(items()).iterator();
+		}
+	}
+}
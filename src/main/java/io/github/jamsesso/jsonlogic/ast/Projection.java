@@ -0,0 +1,113 @@
+package io.github.jamsesso.jsonlogic.ast;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Parts of a JSON document to build when parsing it, as a tree of member names: a path ending at a value keeps all of that value,
+ * members and array elements no path leads to are skipped by the parsers without building them.
+ * A path segment that is an integer also selects the array element at that index, the way {@code var} reads it.
+ * A member name containing dots is kept when its dotted parts lead to a kept value, as {@code missing} compares flattened names.
+ */
+public final class Projection {
+	/** The whole document. */
+	public static final Projection ALL = new Projection(Map.of(), Map.of());
+
+	private final Map<String, Projection> members;
+	private final String[]                names;
+	private final byte[][]                utf8;
+	private final int[]                   indexes;
+	private final Projection[]            elements;
+
+	private Projection(final Map<String, Projection> members, final Map<Integer, Projection> elements) {
+		this.members  = members;
+		this.names    = members.keySet().toArray(String[]::new);
+		this.utf8     = new byte[names.length][];
+		for (var i = 0; i < names.length; i++) utf8[i] = names[i].getBytes(StandardCharsets.UTF_8);
+		this.indexes  = elements.keySet().stream().mapToInt(Integer::intValue).toArray();
+		this.elements = elements.values().toArray(Projection[]::new);
+	}
+
+	/** Keeps the values at {@code paths}; an empty path keeps the whole document. */
+	public static Projection of(final List<List<String>> paths) {
+		final var root = new Node();
+		for (final var path : paths) root.add(path, 0);
+		return root.build();
+	}
+
+	private static final class Node {
+		private boolean                   all;
+		private final Map<String, Node>   members  = new LinkedHashMap<>();
+		private final Map<Integer, Node>  elements = new TreeMap<>();
+
+		void add(final List<String> path, final int from) {
+			if (all) return;
+			if (from == path.size()) { all = true; return; }
+			final var key = path.get(from);
+			members.computeIfAbsent(key, k -> new Node()).add(path, from + 1);
+			final int index;
+			try { index = Integer.parseInt(key); } catch (final NumberFormatException e) { return; }
+			elements.computeIfAbsent(index, k -> new Node()).add(path, from + 1);
+		}
+
+		Projection build() {
+			if (all) return ALL;
+			final var m = new LinkedHashMap<String, Projection>();
+			members.forEach((k, v) -> m.put(k, v.build()));
+			final var e = new TreeMap<Integer, Projection>();
+			elements.forEach((k, v) -> e.put(k, v.build()));
+			return new Projection(m, e);
+		}
+	}
+
+	/** What is needed of member {@code key}, {@code null} if nothing. */
+	public Projection member(final String key) {
+		if (this == ALL) return ALL;
+		final var member = members.get(key);
+		if (member != null || key.indexOf('.') < 0) return member;
+		var node = this;
+		for (final var part : key.split("\\.", -1)) {
+			if (node == ALL) return ALL;
+			if ((node = node.members.get(part)) == null) return null;
+		}
+		return node;
+	}
+
+	/** What is needed of the array element at {@code index}, {@code null} if nothing. */
+	public Projection element(final int index) {
+		if (this == ALL) return ALL;
+		final var i = Arrays.binarySearch(indexes, index);
+		return i < 0 ? null : elements[i];
+	}
+
+	/** The kept member name equal to {@code json[start, end)}, read without copying it; {@code null} when the member is skipped. */
+	String name(final String json, final int start, final int end) {
+		final var length = end - start;
+		for (final var name : names) if (name.length() == length && json.regionMatches(start, name, 0, length)) return name;
+		if (json.indexOf('.', start) < 0 || json.indexOf('.', start) >= end) return null;
+		final var key = json.substring(start, end);
+		return member(key) == null ? null : key;
+	}
+
+	/** Like {@link #name(String, int, int)} for the UTF-8 bytes {@code buf[from, to)}. */
+	String name(final byte[] buf, final int from, final int to) {
+		for (var i = 0; i < names.length; i++) if (Arrays.equals(utf8[i], 0, utf8[i].length, buf, from, to)) return names[i];
+		for (var i = from; i < to; i++) {
+			if (buf[i] != '.') continue;
+			final var key = new String(buf, from, to - from, StandardCharsets.UTF_8);
+			return member(key) == null ? null : key;
+		}
+		return null;
+	}
+
+	@Override public String toString() {
+		if (this == ALL) return "*";
+		final var out = new StringBuilder("{");
+		members.forEach((k, v) -> out.append(out.length() > 1 ? "," : "").append(k).append(':').append(v));
+		return out.append('}').toString();
+	}
+}
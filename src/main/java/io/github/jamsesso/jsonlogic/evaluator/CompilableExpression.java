@@ -0,0 +1,7 @@
+package io.github.jamsesso.jsonlogic.evaluator;
+
+import java.util.List;
+
+import io.github.jamsesso.jsonlogic.PathSegment;
+
+public interface CompilableExpression { CompiledNode compile(JsonLogicCompiler compiler, List<?> arguments, PathSegment jsonPath); }
@@ -0,0 +1,128 @@
+package io.github.jamsesso.jsonlogic.evaluator;
+
+import java.util.Arrays;
+import java.util.List;
+
+import io.github.jamsesso.jsonlogic.PathSegment;
+import io.github.jamsesso.jsonlogic.ast.JSON;
+
+/** Node of a compiled rule. Handler, arguments and arity are resolved by {@link JsonLogicCompiler}, evaluation is a direct call. */
+public interface CompiledNode {
+	Object evaluate(JsonLogicEvaluator scope) throws JsonLogicEvaluationException;
+
+	default boolean asBoolean(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return JSON.truthy(evaluate(scope)); }
+
+	/**
+	 * Numeric value of the result without boxing it, {@link #NO_NUMBER} when it has none.
+	 * Numeric subtrees override this so that boxing only happens where a generic operation needs an object.
+	 */
+	default double  asDouble (final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return doubleOf(evaluate(scope)); }
+
+	/** Replacement of a child node; {@code scoped} children are evaluated against an array element instead of the rule data. */
+	@FunctionalInterface interface Rewriter { CompiledNode apply(CompiledNode child, boolean scoped); }
+
+	/** Copy of this node with every child replaced by {@code rewriter}, in evaluation order; nodes without children return themselves. */
+	default CompiledNode rewrite(final Rewriter rewriter) { return this; }
+
+	static CompiledNode rewrite(final CompiledNode node, final Rewriter rewriter, final boolean scoped) { return node == null ? null : rewriter.apply(node, scoped); }
+
+	static CompiledNode[] rewriteAll(final CompiledNode[] nodes, final Rewriter rewriter) {
+		final var result = new CompiledNode[nodes.length];
+		for (var i = 0; i < nodes.length; i++) result[i] = rewriter.apply(nodes[i], false);
+		return result;
+	}
+
+	/** NaN with a payload no arithmetic produces, telling "not a number" apart from a NaN result; test with {@link #isNumber(double)}. */
+	double NO_NUMBER = Double.longBitsToDouble(0x7ff8_0000_0000_0badL);
+
+	static boolean isNumber(final double value) { return Double.doubleToRawLongBits(value) != 0x7ff8_0000_0000_0badL; }
+
+	/** {@link JSON#asDouble(Object)} without the box. */
+	static double doubleOf(final Object value) {
+		if (value instanceof final Number t) return t.doubleValue();
+		return JSON.asDouble(value) instanceof final Double t ? t : NO_NUMBER;
+	}
+
+	record Constant(Object value) implements CompiledNode {
+		public static final Constant NULL = new Constant(null);
+		@Override public Object evaluate(final JsonLogicEvaluator scope) { return value; }
+		@Override public double asDouble(final JsonLogicEvaluator scope) { return doubleOf(value); }
+	}
+
+	record ArrayLiteral(CompiledNode[] items) implements CompiledNode {
+		@Override public List<Object> evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var results = new Object[items.length];
+			for (var i = 0; i < items.length; i++) results[i] = items[i].evaluate(scope);
+			return Arrays.asList(results);
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new ArrayLiteral(rewriteAll(items, rewriter)); }
+	}
+
+	record Variable(CompiledNode key, CompiledNode defaultValue, PathSegment path) implements CompiledNode {
+		@Override public Object evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var res = lookup(scope);
+			return res instanceof final Number n && !(res instanceof Double) ? n.doubleValue() : res;
+		}
+		@Override public double asDouble(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return doubleOf(lookup(scope)); }
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new Variable(rewriter.apply(key, false), rewriter.apply(defaultValue, false), path); }
+
+		private Object lookup(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var def = defaultValue.evaluate(scope);
+			final var res = JsonPath.evaluate(key.evaluate(scope), path, scope);
+			return res == JsonPath.MISSING ? def : res;
+		}
+	}
+
+	/** Variable with a constant non-empty string key, split into {@link JsonPath.Segment}s once. */
+	record PathVariable(JsonPath.Segment[] keys, CompiledNode defaultValue, PathSegment path) implements CompiledNode {
+		@Override public Object evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var res = lookup(scope);
+			return res instanceof final Number n && !(res instanceof Double) ? n.doubleValue() : res;
+		}
+		@Override public double asDouble(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return doubleOf(lookup(scope)); }
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new PathVariable(keys, rewriter.apply(defaultValue, false), path); }
+
+		/** Map keys of the levels of the path, as written. */
+		public List<String> names() { return Arrays.stream(keys).map(JsonPath.Segment::key).toList(); }
+
+		private Object lookup(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var def = defaultValue.evaluate(scope);
+			final var res = JsonPath.evaluate(keys, path, scope);
+			return res == JsonPath.MISSING ? def : res;
+		}
+	}
+
+	/** Subtree occurring more than once in a rule, evaluated at most once per evaluation of {@link Memoized}. */
+	record Shared(int slot, CompiledNode node) implements CompiledNode {
+		private static final Object NULL = new Object();
+
+		@Override public Object evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+			final var memo = scope.memo();
+			if (memo == null) return node.evaluate(scope);
+			final var known = memo[slot];
+			if (known != null) return known == NULL ? null : known;
+			final var value = node.evaluate(scope);
+			memo[slot] = value == null ? NULL : value;
+			return value;
+		}
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new Shared(slot, rewriter.apply(node, false)); }
+	}
+
+	/** Root of a rule with {@link Shared} subtrees, provides their slots for each evaluation. */
+	record Memoized(CompiledNode root, int slots) implements CompiledNode {
+		@Override public Object  evaluate (final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return root.evaluate (scope.memoized(slots)); }
+		@Override public boolean asBoolean(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return root.asBoolean(scope.memoized(slots)); }
+		@Override public double  asDouble (final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return root.asDouble (scope.memoized(slots)); }
+		@Override public CompiledNode rewrite(final Rewriter rewriter) { return new Memoized(rewriter.apply(root, false), slots); }
+	}
+
+	/** Operation without a compiled form, evaluated by its handler against the uncompiled arguments. */
+	record Fallback(JsonLogicExpressionFI handler, List<?> arguments, PathSegment path) implements CompiledNode {
+		@Override public Object evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { return handler.evaluate(scope, arguments, path); }
+	}
+
+	/** Error detected while compiling, raised when (and only if) the node is reached. */
+	record Failure(String message, PathSegment path) implements CompiledNode {
+		@Override public Object evaluate(final JsonLogicEvaluator scope) throws JsonLogicEvaluationException { throw new JsonLogicEvaluationException(message, path); }
+	}
+}
@@ -0,0 +1,41 @@
+package io.github.jamsesso.jsonlogic.evaluator;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import io.github.jamsesso.jsonlogic.PathSegment;
+import io.github.jamsesso.jsonlogic.ast.JsonLogicOperation;
+import io.github.jamsesso.jsonlogic.ast.JsonLogicVariable;
+
+/**
+ * Turns a parsed rule into a {@link CompiledNode} tree bound to the given operations.
+ * Handlers implementing {@link CompilableExpression} build their own node, all others are wrapped in a {@link CompiledNode.Fallback}.
+ */
+public record JsonLogicCompiler(Map<String, JsonLogicExpressionFI> expressions) {
+	public CompiledNode compile(final Object logic, final PathSegment jsonPath) {
+		return switch (logic) {
+		case null -> CompiledNode.Constant.NULL;
+		case final JsonLogicOperation op -> {
+			final var handler = expressions.get(op.operator());
+			if (handler == null) yield new CompiledNode.Failure("Undefined: " + op.operator(), jsonPath);
+			final List<?> args = op.arguments() == null ? Collections.emptyList() : op.arguments();
+			final var path = jsonPath.sub(op.operator());
+			if (handler instanceof final CompilableExpression c) yield c.compile(this, args, path);
+			yield new CompiledNode.Fallback(handler, args, path);
+		}
+		case final JsonLogicVariable v when v.key() instanceof final String key && !key.isEmpty() ->
+			new CompiledNode.PathVariable(JsonPath.split(key), compile(v.defaultValue(), jsonPath.sub("def")), jsonPath);
+		case final JsonLogicVariable v -> new CompiledNode.Variable(compile(v.key(), jsonPath.sub("key")), compile(v.defaultValue(), jsonPath.sub("def")), jsonPath);
+		case final List<?> l -> new CompiledNode.ArrayLiteral(compileAll(l, jsonPath));
+		default -> new CompiledNode.Constant(logic);
+		};
+	}
+
+	/** Compiles each argument at its index below {@code jsonPath}. */
+	public CompiledNode[] compileAll(final List<?> arguments, final PathSegment jsonPath) {
+		final var nodes = new CompiledNode[arguments.size()];
+		for (var i = 0; i < nodes.length; i++) nodes[i] = compile(arguments.get(i), jsonPath.sub(i));
+		return nodes;
+	}
+}
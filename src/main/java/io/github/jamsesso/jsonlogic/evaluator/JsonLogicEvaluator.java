@@ -2,6 +2,7 @@ package io.github.jamsesso.jsonlogic.evaluator;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,10 +14,65 @@ import io.github.jamsesso.jsonlogic.ast.JsonLogicNode;
 import io.github.jamsesso.jsonlogic.ast.JsonLogicOperation;
 import io.github.jamsesso.jsonlogic.ast.JsonLogicVariable;
 
-public record JsonLogicEvaluator(Map<String, JsonLogicExpressionFI> expressions, INumeric number, Object data) {
-	public JsonLogicEvaluator { expressions = Collections.unmodifiableMap(expressions); }
+/**
+ * Operations, number arithmetic and data of an evaluation. {@code memo} holds the values of {@link CompiledNode.Shared} subtrees for one
+ * evaluation of a rule, {@code null} outside of one; it has one slot more than the rule has shared subtrees, in which the evaluation keeps
+ * the plain views of the iterables of its data (see {@link #plain(Object)}). Given a {@link Binding} as {@code data}, {@link #data()} is the
+ * record last bound to it, so one evaluator serves consecutive records.
+ */
+public record JsonLogicEvaluator(Map<String, JsonLogicExpressionFI> expressions, INumeric number, Object data, Object[] memo) {
+	/** {@code expressions} is kept as an {@link Operators} snapshot, taken unless it is one already. */
+	public JsonLogicEvaluator { expressions = Operators.of(expressions); }
+	public JsonLogicEvaluator(final Map<String, JsonLogicExpressionFI> expressions, final INumeric number, final Object data) { this(expressions, number, data, null); }
+
+	/** The data of the evaluation, read through a {@link Binding}. */
+	@Override public Object data() { return data instanceof final Binding b ? b.record : data; }
+
+	/** Record that the evaluators made with it see as their data, rebound between evaluations by whoever made it. */
+	public static final class Binding {
+		private Object record;
+
+		public void bind(final Object record) { this.record = record; }
+
+		@Override public String toString() { return String.valueOf(record); }
+	}
+
+	/** The operations by name, read-only; {@link #operators()} is the same snapshot as an {@link Operators}. */
+	public Operators operators() { return (Operators) expressions; }
+
+	/** Plain values of the iterables of the data that are not lists, by identity; kept in the last slot of the memo. */
+	private static final class Views extends IdentityHashMap<Object, Object> { }
+
+	/**
+	 * {@code value} as {@link JSON#plain(Object)} shows it. The view of an iterable that is not a list copies its elements on the first read by
+	 * position, so with a memo it is kept for the rest of the evaluation and the copy is made once however often the data is looked up.
+	 */
+	Object plain(final Object value) {
+		if (!(value instanceof Iterable) || value instanceof List || memo == null || memo.length == 0) return JSON.plain(value);
+		final var last = memo.length - 1;
+		if (memo[last] == null) memo[last] = new Views();
+		return memo[last] instanceof final Views views ? views.computeIfAbsent(value, JSON::plain) : JSON.plain(value);
+	}
+
+	/** {@code value}, an array or iterable, as {@link JSON#asList(Object)} shows it, with the view kept as by {@link #plain(Object)}. */
+	List<?> list(final Object value) { return plain(value) instanceof final List<?> l ? l : JSON.asList(value); }
+
 	public JsonLogicEvaluator scoped(final Object scopeData) { return new JsonLogicEvaluator(expressions, number, scopeData); }
 
+	/**
+	 * Evaluator with memo slots for {@code slots} shared subtrees. One whose memo has room for them already is returned as is, whoever made
+	 * it clears the memo between evaluations; the views of iterables found so far move to the new memo.
+	 */
+	public JsonLogicEvaluator memoized(final int slots) {
+		if (memo != null && memo.length > slots) return this;
+		final var next = new Object[slots + 1];
+		if (memo != null && memo.length > 0 && memo[memo.length - 1] instanceof final Views views) next[slots] = views;
+		return new JsonLogicEvaluator(expressions, number, data(), next);
+	}
+
+	/** Same evaluation state for the next record, unlike {@link #scoped(Object)} the memo is kept (the caller clears it). */
+	public JsonLogicEvaluator withData(final Object nextData) { return new JsonLogicEvaluator(expressions, number, nextData, memo); }
+
 	static enum TASK {
 		/** stack:= N [N]<TASK path, value> */ LIST,
 		/** stack:= path key default        */ VAR ,
@@ -51,7 +107,7 @@ public record JsonLogicEvaluator(Map<String, JsonLogicExpressionFI> expressions,
 					final var path         = (PathSegment)values.pop();
 					final var key          = values.pop();
 					final var defaultValue = values.pop();
-					var res          = JsonPath.evaluate(key, path, data);
+					var res          = JsonPath.evaluate(key, path, this);
 					if(res == JsonPath.MISSING) res = defaultValue;
 					if(res instanceof final Number n) res = n.doubleValue();
 					values.push(res);
@@ -70,9 +126,10 @@ public record JsonLogicEvaluator(Map<String, JsonLogicExpressionFI> expressions,
 						todo.push(TASK.LIST);
 						todo.push(size);
 						for (var i = size - 1; i >= 0; i--) {
+							final var arg = args.get(i);
 							todo.push(TASK.TASK);
-							todo.push(path.sub(i));
-							todo.push(args.get(i));
+							todo.push(evalNeeded(arg) ? path.sub(i) : path);
+							todo.push(arg);
 						}
 					}
 					case final JsonLogicOperation op -> {
@@ -85,10 +142,10 @@ public record JsonLogicEvaluator(Map<String, JsonLogicExpressionFI> expressions,
 						todo.push(TASK.VAR);
 						todo.push(path);
 						todo.push(TASK.TASK);
-						todo.push(path.sub("key"));
+						todo.push(evalNeeded(v.key         ()) ? path.sub("key") : path);
 						todo.push(v.key         ());
 						todo.push(TASK.TASK);
-						todo.push(path.sub("def"));
+						todo.push(evalNeeded(v.defaultValue()) ? path.sub("def") : path);
 						todo.push(v.defaultValue());
 					}
 					default -> throw new IllegalStateException("Unexpected type: " + p0.getClass());
@@ -131,7 +188,7 @@ public record JsonLogicEvaluator(Map<String, JsonLogicExpressionFI> expressions,
 		value = evalNeeded(value) ? evaluate(value, path.sub(idx)) : value;
 		if (value instanceof final Number t) return t;
 		if (value instanceof final String t) try { return Double.parseDouble(t); } catch (final NumberFormatException e) { return null; }
-		if (JSON.isList(value) && JSON.asList(value) instanceof final List<?> l && !l.isEmpty()) return asNumber(l.get(0), path.sub(idx));
+		if (JSON.isList(value) && JSON.asList(value) instanceof final List<?> l && !l.isEmpty()) return asNumber(l.get(0), path);
 		return null;
 	}
 
@@ -148,7 +205,7 @@ public record JsonLogicEvaluator(Map<String, JsonLogicExpressionFI> expressions,
 		value = evalNeeded(value) ? evaluate(value, path.sub(idx)) : value;
 		if (value instanceof final Number t) return t.doubleValue();
 		if (value instanceof final String t) try { return Double.parseDouble(t); } catch (final NumberFormatException e) { return null; }
-		if (JSON.isList(value) && JSON.asList(value) instanceof final List<?> l && !l.isEmpty()) return asDouble(l.get(0), path.sub(idx));
+		if (JSON.isList(value) && JSON.asList(value) instanceof final List<?> l && !l.isEmpty()) return asDouble(l.get(0), path);
 		return null;
 	}
 
@@ -4,36 +4,41 @@ import java.util.List;
 import java.util.Map;
 
 import io.github.jamsesso.jsonlogic.PathSegment;
+import io.github.jamsesso.jsonlogic.ast.DataAccessor;
 import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.ast.JsonTape;
 
 class JsonPath {
 	private JsonPath()  { }
 	/** Sentinel object to represent a missing value (for internal use only). */
 	public static final Object MISSING = new Object();
 
-	public static Object evaluate(final Object keyParam, PathSegment jsonPath, final Object data) throws JsonLogicEvaluationException {
-		jsonPath = jsonPath.sub("var");
+	/**
+	 * {@code jsonPath} is the path of the variable node, the key path below it is only built for an error. The data is that of {@code scope},
+	 * which keeps the views of its iterables for the rest of the evaluation.
+	 */
+	public static Object evaluate(final Object keyParam, final PathSegment jsonPath, final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+		final var data = scope.data();
 		if (keyParam  == null) return data;
 		if (data == null) return MISSING;
 		if (keyParam instanceof final Number idx) {
 			final var index = idx.intValue();
 			if(index < 0 || !JSON.isList(data)) return MISSING;
-			return(JSON.asList(data) instanceof final List l && index < l.size() ? l.get(index) : MISSING);
+			return(scope.list(data) instanceof final List l && index < l.size() ? l.get(index) : MISSING);
 		}
 		// Handle the case when the key is a string, potentially referencing an infinitely-deep map: x.y.z
 		if (keyParam instanceof final String name) {
 			if (name.isEmpty()) return data;
 			final var keys = name.split("\\.");
 			var result = data;
-			jsonPath = jsonPath.sub(0);
 			var level = -1;
 			for (final var key : keys) {
 				level++;
 				if(result == null || result == MISSING) return result;
-				result = JSON.plain(result);
+				result = scope.plain(result);
 				if (JSON.isList(result)) {
 					final int index;
-					try { index = Integer.parseInt(key); } catch (final NumberFormatException e) { throw new JsonLogicEvaluationException(e, jsonPath); }
+					try { index = Integer.parseInt(key); } catch (final NumberFormatException e) { throw new JsonLogicEvaluationException(e, keyPath(jsonPath)); }
 					if((index < 0) || !(JSON.asList(result) instanceof final List l) || (index >= l.size())) return MISSING;
 					result =  l.get(index);
 				} else if (result instanceof final Map map) {
@@ -43,6 +48,93 @@ class JsonPath {
 			}
 			return result;
 		}
-		throw new JsonLogicEvaluationException("var first argument must be null, number, or string", jsonPath.sub(0));
+		throw new JsonLogicEvaluationException("var first argument must be null, number, or string", keyPath(jsonPath));
 	}
+
+	/** One level of a constant key, split at compile time: the map key and its list index ({@link #NOT_INDEX} when not an integer). */
+	record Segment(String key, int index) { }
+	static final int NOT_INDEX = Integer.MIN_VALUE;
+
+	/** Splits a constant key exactly like {@link #evaluate(Object, PathSegment, JsonLogicEvaluator)} does on every call. */
+	static Segment[] split(final String name) {
+		final var keys     = name.split("\\.");
+		final var segments = new Segment[keys.length];
+		for (var i = 0; i < keys.length; i++) {
+			int index;
+			try { index = Integer.parseInt(keys[i]); } catch (final NumberFormatException e) { index = NOT_INDEX; }
+			segments[i] = new Segment(keys[i], index);
+		}
+		return segments;
+	}
+
+	/** Same result as {@link #evaluate(Object, PathSegment, JsonLogicEvaluator)} for a non-empty constant string key. */
+	static Object evaluate(final Segment[] keys, final PathSegment jsonPath, final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+		if (scope.data() == null) return MISSING;
+		return evaluate(keys, 0, jsonPath, scope, scope.data());
+	}
+
+	private static Object evaluate(final Segment[] keys, final int from, final PathSegment jsonPath, final JsonLogicEvaluator scope, final Object data) throws JsonLogicEvaluationException {
+		var result = data;
+		for (var level = from; level < keys.length; level++) {
+			if(result == null) return null;
+			if(result instanceof final JsonTape.Node node) return evaluate(keys, level, node, jsonPath);
+			if(result instanceof final DataAccessor.Tree tree) return evaluate(keys, level, tree, jsonPath, scope);
+			if(!(result instanceof Map) && !(result instanceof List)) result = scope.plain(result);
+			final var key = keys[level];
+			if (JSON.isList(result)) {
+				if (key.index() == NOT_INDEX) {
+					// rethrown from the parse itself so the message matches the uncompiled lookup
+					try { Integer.parseInt(key.key()); } catch (final NumberFormatException e) { throw new JsonLogicEvaluationException(e, keyPath(jsonPath)); }
+				}
+				if((key.index() < 0) || !(JSON.asList(result) instanceof final List<?> l) || (key.index() >= l.size())) return MISSING;
+				result = l.get(key.index());
+			} else if (result instanceof final Map<?,?> map) {
+				result = map.get(key.key());
+				if(result == null && !map.containsKey(key.key())) return MISSING;
+			} else return level==0?MISSING:null;
+		}
+		return result;
+	}
+
+	/** The lookup from {@code level} on, walking the entries of the tape of {@code node}: only the value found is decoded. */
+	private static Object evaluate(final Segment[] keys, final int level, final JsonTape.Node node, final PathSegment jsonPath) throws JsonLogicEvaluationException {
+		final var tape  = node.tape();
+		var       entry = node.entry();
+		for (var i = level; i < keys.length; i++) {
+			final var key = keys[i];
+			if (tape.isArray(entry)) {
+				if (key.index() == NOT_INDEX) {
+					try { Integer.parseInt(key.key()); } catch (final NumberFormatException e) { throw new JsonLogicEvaluationException(e, keyPath(jsonPath)); }
+				}
+				entry = tape.element(entry, key.index());
+			} else if (tape.isObject(entry)) {
+				entry = tape.member(entry, key.key());
+			} else return null;
+			if (entry < 0) return MISSING;
+		}
+		return tape.value(entry);
+	}
+
+	/** The lookup from {@code level} on, walking the tree of {@code view} with its accessor: only the value found is converted or shown as a view. */
+	private static Object evaluate(final Segment[] keys, final int level, final DataAccessor.Tree view, final PathSegment jsonPath, final JsonLogicEvaluator scope) throws JsonLogicEvaluationException {
+		final var accessor = view.accessor();
+		var       tree     = view.tree();
+		for (var i = level; i < keys.length; i++) {
+			// a value of another kind inside the tree, such as a map put into an org.json object
+			if (!accessor.accepts(tree)) return evaluate(keys, i, jsonPath, scope, JSON.plain(tree));
+			final var key = keys[i];
+			if (accessor.isArray(tree)) {
+				if (key.index() == NOT_INDEX) {
+					try { Integer.parseInt(key.key()); } catch (final NumberFormatException e) { throw new JsonLogicEvaluationException(e, keyPath(jsonPath)); }
+				}
+				tree = accessor.element(tree, key.index());
+			} else if (accessor.isObject(tree)) {
+				tree = accessor.member(tree, key.key());
+			} else return null;
+			if (tree == DataAccessor.ABSENT) return MISSING;
+		}
+		return JSON.plain(tree);
+	}
+
+	private static PathSegment keyPath(final PathSegment jsonPath) { return jsonPath.sub("var").sub(0); }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package io.github.jamsesso.jsonlogic.evaluator;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the operations of a {@code JsonLogic} instance by name; adding an operation makes a new snapshot, evaluators and
+ * compiled rules keep the one they were created with. {@link JsonLogicCompiler} resolves the handlers of a rule against one snapshot, so
+ * compiled nodes call them directly.
+ */
+public final class Operators extends AbstractMap<String, JsonLogicExpressionFI> {
+	private final Map<String, JsonLogicExpressionFI> byName;
+
+	private Operators(final Map<String, JsonLogicExpressionFI> byName) { this.byName = byName; }
+
+	/** {@code operations} as a snapshot, itself when it is one. */
+	public static Operators of(final Map<String, JsonLogicExpressionFI> operations) {
+		return operations instanceof final Operators t ? t : new Operators(Map.copyOf(operations));
+	}
+
+	/** New snapshot with the operations of this one and {@code name} bound to {@code handler}. */
+	public Operators with(final String name, final JsonLogicExpressionFI handler) {
+		final var copy = new HashMap<>(byName);
+		copy.put(name, handler);
+		return new Operators(Map.copyOf(copy));
+	}
+
+	@Override public JsonLogicExpressionFI get(final Object name) { return byName.get(name); }
+	@Override public boolean containsKey(final Object name) { return byName.containsKey(name); }
+	@Override public int size() { return byName.size(); }
+	@Override public Set<Entry<String, JsonLogicExpressionFI>> entrySet() { return byName.entrySet(); }
+}
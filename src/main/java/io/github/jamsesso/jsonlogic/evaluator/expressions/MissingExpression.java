@@ -9,43 +9,143 @@ import java.util.Set;
 
 import io.github.jamsesso.jsonlogic.PathSegment;
 import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.evaluator.CompilableExpression;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicCompiler;
 import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
 import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
 import io.github.jamsesso.jsonlogic.evaluator.JsonLogicExpressionFI;
 
-public record MissingExpression(boolean isSome) implements JsonLogicExpressionFI {
+/**
+ * {@code missing} and {@code missing_some}: a key is provided when it is one of the flattened names of the data, such as "a.b" and "c" for
+ * {a: {b: 1}, c: 2}, which are the names of the values that are not maps, joined by dots. Each key is looked up along its own path rather
+ * than flattening the data; literal keys are split into their segments when the rule is compiled, and {@code missing_some} stops as soon
+ * as enough of them are provided.
+ */
+public record MissingExpression(boolean isSome) implements JsonLogicExpressionFI, CompilableExpression {
+	private static final String SOME_ARGUMENTS = "missing_some expects first argument to be an integer and the second argument to be an array";
+
 	@Override
 	public Object evaluate(final JsonLogicEvaluator evaluator, final List<?> args, final PathSegment jsonPath) throws JsonLogicEvaluationException {
-		if (isSome && (args.size() < 2)) throw new JsonLogicEvaluationException("missing_some expects first argument to be an integer and the second argument to be an array", jsonPath);
+		if (isSome && (args.size() < 2)) throw new JsonLogicEvaluationException(SOME_ARGUMENTS, jsonPath);
 		var values = evaluator.evaluateList(args, jsonPath);
 		if (values.size() == 1 && JSON.isList(values.get(0))) values = JSON.asList(values.get(0));
 		final var arguments= evaluator.evaluateList(values, jsonPath);
 
 		Number someCnt = 0.;
 		if(isSome && (!JSON.isList(arguments.get(1)) || (null == (someCnt = evaluator.asNumber(args, 0, jsonPath)))))
-			throw new JsonLogicEvaluationException("missing_some expects first argument to be an integer and the second argument to be an array", jsonPath);
-		if (!JSON.isMap(evaluator.data())) return (isSome ? (someCnt.intValue() <= 0 ? Collections.EMPTY_LIST : arguments.get(1)) : arguments);
-		final var map          = JSON.asMap(evaluator.data());
-		final var options      = isSome ? JSON.asList(arguments.get(1)) : arguments;
-		final var providedKeys = getFlatKeys(map);
-		final var requiredKeys = new LinkedHashSet<>(options);
-		requiredKeys.removeAll(providedKeys); // Keys that I need but do not have
-		if (isSome && options.size() - requiredKeys.size() >= someCnt.intValue()) return Collections.EMPTY_LIST;
-		return Arrays.asList(requiredKeys.toArray());
+			throw new JsonLogicEvaluationException(SOME_ARGUMENTS, jsonPath);
+		final var options = isSome ? JSON.asList(arguments.get(1)) : arguments;
+		return missing(evaluator.data(), options.toArray(), isSome, someCnt.intValue());
+	}
+
+	/** Literal keys (and a literal count) become a {@link Compiled} node, anything else is evaluated as above. */
+	@Override
+	public CompiledNode compile(final JsonLogicCompiler compiler, final List<?> args, final PathSegment jsonPath) {
+		final List<?> options;
+		if (!isSome) options = args.size() == 1 && args.get(0) instanceof final List<?> l ? l : args;
+		else         options = args.size() == 2 && args.get(1) instanceof final List<?> l ? l : null;
+		final var count = isSome && options != null ? count(args.get(0)) : (Number) 0;
+		if (options == null || count == null || !options.stream().allMatch(String.class::isInstance)) return new CompiledNode.Fallback(this, args, jsonPath);
+		return new Compiled(isSome, count.intValue(), options.stream().map(o -> Key.of((String) o)).toArray(Key[]::new));
+	}
+
+	/** Literal count of {@code missing_some}, as {@link JsonLogicEvaluator#asNumber} reads it, {@code null} when there is none. */
+	private static Number count(final Object value) {
+		if (value instanceof final Number t) return t;
+		if (value instanceof final String t) try { return Double.parseDouble(t); } catch (final NumberFormatException e) { return null; }
+		return null;
+	}
+
+	/** {@code missing} or {@code missing_some} with literal keys and count. */
+	public record Compiled(boolean isSome, int count, Key[] keys) implements CompiledNode {
+		@Override public Object evaluate(final JsonLogicEvaluator scope) { return missing(scope.data(), keys, isSome, count); }
 	}
 
 	/**
-	 * Given a map structure such as:             {a: {b: 1}, c: 2}
-	 * This method will return the following set: ["a.b", "c"]
+	 * The {@code options} (keys, or evaluated values that are never provided unless they are strings) which {@code data} does not provide,
+	 * in order and without duplicates; for {@code missing_some} none once {@code count} of the options are provided.
 	 */
-	private static Set<String> getFlatKeys(final Map<?,?> map) { return getFlatKeys(map, ""); }
+	@SuppressWarnings("unchecked")
+	private static List<Object> missing(final Object data, final Object[] options, final boolean isSome, final int count) {
+		if (isSome && count <= 0) return Collections.EMPTY_LIST;
+		if (!JSON.isMap(data)) {
+			final var names = new Object[options.length];
+			for (var i = 0; i < names.length; i++) names[i] = options[i] instanceof final Key k ? k.name() : options[i];
+			return Arrays.asList(names);
+		}
+		final var map = JSON.asMap(data);
+		Set<Object> missing = null;
+		for (var i = 0; i < options.length; i++) {
+			final var option = options[i];
+			final var key    = option instanceof final Key k ? k : option instanceof final String s ? Key.of(s) : null;
+			if (key == null || !key.in(map)) {
+				if (missing == null) missing = new LinkedHashSet<>();
+				missing.add(key == null ? option : key.name());
+			}
+			// options so far minus the distinct ones missing is never more than the final count of provided options
+			if (isSome && i + 1 - (missing == null ? 0 : missing.size()) >= count) return Collections.EMPTY_LIST;
+		}
+		return missing == null ? Collections.EMPTY_LIST : Arrays.asList(missing.toArray());
+	}
+
+	/**
+	 * A required key and the map keys its runs of segments may be, {@code runs[i][j]} joining segments {@code i} to {@code i + j}; a key
+	 * "a.b" is provided by {a: {b: 1}} as well as by {"a.b": 1}.
+	 */
+	public record Key(String name, String[][] runs) {
+		private static final Object ABSENT = new Object();
+
+		public static Key of(final String name) {
+			final var segments = name.split("\\.", -1);
+			final var runs     = new String[segments.length][];
+			for (var i = 0; i < segments.length; i++) {
+				runs[i] = new String[segments.length - i];
+				var run = runs[i][0] = segments[i];
+				for (var j = 1; j < runs[i].length; j++) run = runs[i][j] = run + "." + segments[i + j];
+			}
+			return new Key(name, runs);
+		}
+
+		/** The segments of the name, split on every dot. */
+		public List<String> segments() {
+			final var segments = new String[runs.length];
+			for (var i = 0; i < segments.length; i++) segments[i] = runs[i][0];
+			return Arrays.asList(segments);
+		}
+
+		/** Whether {@code map} provides this key, that is a value other than a map (null included) is at its end. */
+		public boolean in(final Map<?,?> map) { return in(map, 0); }
+
+		private boolean in(final Map<?,?> map, final int from) {
+			final var candidates = runs[from];
+			for (var j = 0; j < candidates.length; j++) {
+				final var value = get(map, candidates[j]);
+				if (value == ABSENT) continue;
+				final var last = from + j == runs.length - 1;
+				if (JSON.isMap(value) ? !last && in(JSON.asMap(value), from + j + 1) : last) return true;
+			}
+			return false;
+		}
 
-	private static Set<String> getFlatKeys(final Map<?,?> map, final String prefix) {
-		final var keys = new LinkedHashSet<String>();
-		for (final var entry : map.entrySet())
-			if (JSON.isMap(entry.getValue())) keys.addAll(getFlatKeys(JSON.asMap(entry.getValue()), prefix + entry.getKey() + "."));
-			else keys.add(prefix + entry.getKey());
+		/**
+		 * Value of {@code key}, {@link #ABSENT} if there is none. Names being text, the keys of a map whose keys are not strings (7, null) are
+		 * compared as text; that is told by its first key, so as not to scan maps of string keys for every key they lack.
+		 */
+		private static Object get(final Map<?,?> map, final String key) {
+			try {
+				final var value = map.get(key);
+				if (value != null || map.containsKey(key)) return value;
+			} catch (final ClassCastException | NullPointerException e) {
+				// sorted maps of other keys
+			}
+			if (map.isEmpty() || map.keySet().iterator().next() instanceof String) return ABSENT;
+			for (final var e : map.entrySet()) if (String.valueOf(e.getKey()).equals(key)) return e.getValue();
+			return ABSENT;
+		}
 
-		return keys;
+		@Override public boolean equals(final Object o) { return o instanceof final Key k && k.name.equals(name); }
+		@Override public int hashCode() { return name.hashCode(); }
+		@Override public String toString() { return name; }
 	}
 }
\ No newline at end of file
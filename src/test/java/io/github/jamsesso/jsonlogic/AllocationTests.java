@@ -0,0 +1,67 @@
+package io.github.jamsesso.jsonlogic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/** Bytes allocated per evaluation of compiled rules once they are warmed up, measured on the calling thread. */
+public class AllocationTests {
+	private static final JsonLogic jsonLogic = new JsonLogic();
+
+	/** Distinct records, evaluated in turn so that a frame cannot keep state of the last one. */
+	private static final List<Map<String, Object>> RECORDS = List.of(
+		Map.of("a", 5.0, "b", 12.0, "s", "apple", "t", true,
+			"user", Map.of("age", 31.0, "country", "CA", "roles", List.of("admin", "dev")), "items", List.of(Map.of("price", 2.5), Map.of("price", 40.0))),
+		Map.of("a", 20.0, "b", 3.0, "s", "pear", "t", false,
+			"user", Map.of("age", 12.0, "country", "DE", "roles", List.of("dev", "ops")), "items", List.of(Map.of("price", 60.0), Map.of("price", 1.5))));
+
+	/** Comparisons, logic and {@code var} lookups, the last ones with subexpressions evaluated once per evaluation. */
+	private static final List<String> RULES = List.of(
+		"{\"and\":[{\">\":[{\"var\":\"a\"},1]},{\"==\":[{\"var\":\"s\"},\"apple\"]},{\"or\":[{\"<\":[{\"var\":\"user.age\"},18]},{\"var\":\"t\"}]}]}",
+		"{\"<=\":[1,{\"var\":\"a\"},10]}",
+		"{\"!\":[{\"===\":[{\"var\":\"user.country\"},\"DE\"]}]}",
+		"{\"if\":[{\">=\":[{\"var\":\"b\"},10]},{\"var\":\"user.roles.1\"},{\"var\":[\"missing\",\"none\"]}]}",
+		"{\"!=\":[{\"var\":\"a\"},{\"var\":\"b\"}]}",
+		"{\"<\":[{\"var\":\"items.0.price\"},{\"var\":\"items.1.price\"}]}",
+		"{\">\":[{\"+\":[{\"var\":\"a\"},{\"var\":\"b\"}]},3]}",
+		"{\"or\":[{\"!!\":[{\"var\":\"nothing\"}]},{\"and\":[{\"==\":[{\"var\":\"s\"},\"apple\"]},{\"==\":[{\"var\":\"s\"},\"apple\"]}]}]}",
+		"{\"if\":[{\">\":[{\"var\":\"a\"},{\"var\":\"b\"}]},{\"var\":\"a\"},{\">\":[{\"var\":\"a\"},{\"var\":\"b\"}]}]}");
+
+	/** Average bytes allocated by {@code body} over many runs on alternating records after warming it up. */
+	private static long bytesPerCall(final Evaluation body) throws JsonLogicException {
+		final var threads = ManagementFactory.getThreadMXBean();
+		assumeTrue(threads instanceof com.sun.management.ThreadMXBean t && t.isThreadAllocatedMemorySupported() && t.isThreadAllocatedMemoryEnabled());
+		final var mx     = (com.sun.management.ThreadMXBean) threads;
+		final var thread = Thread.currentThread().threadId();
+		for (var i = 0; i < 20_000; i++) body.run(RECORDS.get(i & 1));
+		final var calls  = 10_000;
+		final var before = mx.getThreadAllocatedBytes(thread);
+		for (var i = 0; i < calls; i++) body.run(RECORDS.get(i & 1));
+		return (mx.getThreadAllocatedBytes(thread) - before) / calls;
+	}
+
+	@FunctionalInterface private interface Evaluation { void run(Map<String, Object> data) throws JsonLogicException; }
+
+	@Test
+	public void testCompiledRulesDoNotAllocate() throws JsonLogicException {
+		for (final var text : RULES) {
+			final var rule = jsonLogic.compile(text);
+			assertEquals(0, bytesPerCall(rule::evaluate), "evaluate " + text);
+			assertEquals(0, bytesPerCall(rule::evaluateBoolean), "evaluateBoolean " + text);
+		}
+	}
+
+	@Test
+	public void testHotRulesDoNotAllocate() throws JsonLogicException {
+		final var logic = new JsonLogic().compileHotRules(1);
+		for (final var text : RULES) {
+			final var rule = logic.compile(text);
+			assertEquals(0, bytesPerCall(rule::evaluateBoolean), "evaluateBoolean " + text);
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package io.github.jamsesso.jsonlogic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
+
+public class ApplyBatchTests {
+	private static final JsonLogic jsonLogic = new JsonLogic();
+
+	@Test
+	public void testResultsInOrder() throws JsonLogicException {
+		final var data = List.of(Map.of("a", 1), Map.of("a", 5), Map.of("b", 2));
+		assertEquals(Arrays.asList(2.0, 10.0, null), jsonLogic.applyBatch("{\"*\":[{\"var\":\"a\"}, 2]}", data));
+		assertEquals(List.of(), jsonLogic.applyBatch("{\"var\":\"a\"}", List.of()));
+	}
+
+	@Test
+	public void testSharedSubexpressionsPerRecord() throws JsonLogicException {
+		final var rule    = "{\"if\":[{\">\":[{\"-\":[{\"var\":\"a\"},{\"var\":\"b\"}]}, 10]}, \"high\", {\">\":[{\"-\":[{\"var\":\"a\"},{\"var\":\"b\"}]}, 5]}, \"mid\", \"low\"]}";
+		final var results = new ArrayList<>();
+		jsonLogic.applyBatch(rule, List.of(Map.of("a", 20, "b", 1), Map.of("a", 7, "b", 1), Map.of("a", 2, "b", 1), "{\"a\":30,\"b\":1}"), results::add);
+		assertEquals(List.of("high", "mid", "low", "high"), results);
+	}
+
+	@Test
+	public void testMatchesApply() throws JsonLogicException {
+		final var rule = "{\"filter\":[{\"var\":\"items\"}, {\">=\":[{\"var\":\"\"}, {\"var\":\"min\"}]}]}";
+		final var data = List.of(Map.of("items", List.of(1, 2, 3), "min", 2), Map.of("items", List.of(4), "min", 5));
+		final var results = jsonLogic.applyBatch(rule, data);
+		for (var i = 0; i < data.size(); i++) assertEquals(jsonLogic.apply(rule, data.get(i)), results.get(i));
+	}
+
+	@Test
+	public void testErrorStopsBatch() {
+		final var results = new ArrayList<>();
+		final var e = assertThrows(JsonLogicEvaluationException.class, () -> jsonLogic.applyBatch("{\"var\":[{\"var\":\"k\"}]}", List.of(Map.of("k", "x", "x", 1), Map.of("k", List.of())), results::add));
+		assertEquals(List.of(1.0), results);
+		assertEquals("$.var[0]", e.getJsonPath());
+	}
+
+	@Test
+	public void testParallelInInputOrder() throws JsonLogicException {
+		final var data = IntStream.range(0, 20_000).mapToObj(i -> Map.of("a", i)).toList();
+		final var rule = "{\"if\":[{\"<\":[{\"%\":[{\"var\":\"a\"}, 3]}, 1]}, {\"*\":[{\"var\":\"a\"}, 2]}, {\"-\":[{\"var\":\"a\"}]}]}";
+		final var expected = jsonLogic.applyBatch(rule, data);
+		assertEquals(expected, jsonLogic.applyParallel(rule, data, ForkJoinPool.commonPool()));
+		try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			assertEquals(expected, jsonLogic.applyParallel(rule, data, executor));
+			// without a known size the records are read into chunks first
+			assertEquals(expected, jsonLogic.applyParallel(rule, Spliterators.spliteratorUnknownSize(data.iterator(), 0), executor));
+		}
+		assertEquals(List.of(), jsonLogic.applyParallel(rule, List.of(), ForkJoinPool.commonPool()));
+	}
+
+	@Test
+	public void testParallelSink() throws JsonLogicException {
+		final var results = new ConcurrentHashMap<Long, Object>();
+		jsonLogic.applyParallel("{\"+\":[{\"var\":\"\"}, 1]}", LongStream.range(0, 5_000).boxed().toList().spliterator(), ForkJoinPool.commonPool(), (result, index) -> results.put(index, result));
+		assertEquals(5_000, results.size());
+		for (var i = 0L; i < 5_000; i++) assertEquals(i + 1.0, results.get(i));
+	}
+
+	@Test
+	public void testParallelReadsAheadBoundedly() throws JsonLogicException {
+		final var done  = new AtomicLong();
+		final var ahead = new AtomicLong();
+		final var records = new Iterator<Object>() {
+			private long read;
+			@Override public boolean hasNext() { return read < 200_000; }
+			@Override public Object next() {
+				ahead.accumulateAndGet(++read - done.get(), Math::max);
+				return Map.of("a", 1);
+			}
+		};
+		final var pool = new ForkJoinPool(1);
+		try {
+			jsonLogic.applyParallel("{\"var\":\"a\"}", Spliterators.spliteratorUnknownSize(records, 0), pool, (result, index) -> done.incrementAndGet());
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(200_000, done.get());
+		// two chunks of 1024 records in flight and the one being read
+		assertTrue(ahead.get() <= 3 * 1024, "read ahead: " + ahead.get());
+	}
+
+	@Test
+	public void testParallelFailureIndex() {
+		final var data = new ArrayList<Object>();
+		for (var i = 0; i < 10_000; i++) data.add(Map.of("k", "x", "x", i));
+		data.set(7_777, Map.of("k", List.of()));
+		final var e = assertThrows(JsonLogicBatchException.class, () -> jsonLogic.applyParallel("{\"var\":[{\"var\":\"k\"}]}", data, ForkJoinPool.commonPool()));
+		assertEquals(7_777, e.getIndex());
+		assertEquals("$.var[0]", e.getJsonPath());
+		assertInstanceOf(JsonLogicEvaluationException.class, e.getCause());
+	}
+
+	@Test
+	public void testParallelRuntimeFailureIndex() {
+		final var logic = new JsonLogic().addOperation("check", (ev, args, path) -> { if (ev.evaluate(args.get(0), path).equals(4_321.0)) throw new IllegalStateException("bad"); return true; });
+		final var data  = IntStream.range(0, 10_000).mapToObj(i -> Map.of("x", i)).toList();
+		final var e = assertThrows(JsonLogicBatchException.class, () -> logic.applyParallel("{\"check\":[{\"var\":\"x\"}]}", data, ForkJoinPool.commonPool()));
+		assertEquals(4_321, e.getIndex());
+		assertInstanceOf(IllegalStateException.class, e.getCause());
+	}
+}
@@ -0,0 +1,72 @@
+package io.github.jamsesso.jsonlogic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import io.github.jamsesso.jsonlogic.ast.JsonLogicParser;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicCompiler;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+
+public class BytecodeCompilerTests {
+	private static final JsonLogic jsonLogic = new JsonLogic();
+
+	@TestFactory
+	public Stream<DynamicTest> testFixturesMatchTree() {
+		return Differential.compare("fixtures.json",
+			(rule, data) -> results(compile(rule), data),
+			(rule, data) -> results(BytecodeCompiler.compile(compile(rule)), data));
+	}
+
+	private static List<Object> results(final CompiledNode node, final Object data) throws JsonLogicEvaluationException {
+		return Arrays.asList(node.evaluate(scope(data)), node.asBoolean(scope(data)));
+	}
+
+	@Test
+	public void testHiddenClass() throws JsonLogicException {
+		final var rule = compile("{\"and\":[{\">\":[{\"var\":\"a\"},1]},{\"==\":[{\"var\":\"b\"},\"x\"]}]}");
+		final var node = BytecodeCompiler.compile(rule);
+		assertNotSame(rule, node);
+		assertTrue(node.getClass().isHidden());
+		assertEquals(true , node.evaluate(scope(Map.of("a", 2, "b", "x"))));
+		assertEquals(false, node.evaluate(scope(Map.of("a", 1, "b", "x"))));
+		assertEquals(false, node.evaluate(scope(Map.of("a", "abc", "b", "x"))));
+		assertEquals(1.0  , BytecodeCompiler.compile(compile("{\"if\":[{\"var\":\"a\"}, {\"var\":\"a\"}, 2]}")).evaluate(scope(Map.of("a", 1))));
+	}
+
+	@Test
+	public void testUnsupportedRootStaysTree() throws JsonLogicException {
+		final var rule = compile("{\"map\":[{\"var\":\"a\"}, 1]}");
+		assertSame(rule, BytecodeCompiler.compile(rule));
+	}
+
+	@Test
+	public void testCustomOperationAndErrors() throws JsonLogicException {
+		final var logic = new JsonLogic().compileHotRules(1).addOperation("double", (ev, args, path) -> 2 * ev.asDouble(args.get(0), path));
+		assertEquals(true, logic.apply("{\"<\":[1, {\"double\":[{\"var\":\"a\"}]}, 5]}", Map.of("a", 2)));
+		assertEquals(false, logic.apply("{\"<\":[1, {\"double\":[{\"var\":\"a\"}]}, 5]}", Map.of("a", 3)));
+		final var e = assertThrows(JsonLogicEvaluationException.class, () -> logic.apply("{\"or\":[false, {\"==\":[1]}]}", null));
+		assertEquals("$.or[1].==", e.getJsonPath());
+	}
+
+	private static CompiledNode compile(final String rule) throws JsonLogicException {
+		return new JsonLogicCompiler(jsonLogic.expressions()).compile(JsonLogicParser.parse(rule), PathSegment.ROOT);
+	}
+
+	private static JsonLogicEvaluator scope(final Object data) {
+		return new JsonLogicEvaluator(jsonLogic.expressions(), JsonLogic.NUMBER, data);
+	}
+}
@@ -0,0 +1,101 @@
+package io.github.jamsesso.jsonlogic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jamsesso.jsonlogic.ast.JsonLogicParser;
+import io.github.jamsesso.jsonlogic.evaluator.CompilableExpression;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicCompiler;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicExpressionFI;
+
+public class CommonSubexpressionTests {
+	private static final JsonLogic jsonLogic = new JsonLogic();
+
+	@Test
+	public void testRepeatedSubtreeIsShared() throws JsonLogicException {
+		final var rule = share("{\"if\":[{\">\":[{\"-\":[{\"var\":\"a\"},{\"var\":\"b\"}]}, 10]}, \"high\", {\">\":[{\"-\":[{\"var\":\"a\"},{\"var\":\"b\"}]}, 5]}, \"mid\", \"low\"]}");
+		final var memoized = assertInstanceOf(CompiledNode.Memoized.class, rule);
+		assertEquals(1, memoized.slots());
+		assertEquals("high", rule.evaluate(scope(Map.of("a", 20, "b", 1))));
+		assertEquals("mid" , rule.evaluate(scope(Map.of("a", 7 , "b", 1))));
+		assertEquals("low" , rule.evaluate(scope(Map.of("a", 2 , "b", 1))));
+	}
+
+	@Test
+	public void testUniqueRuleUnchanged() throws JsonLogicException {
+		final var tree = compile("{\"and\":[{\"var\":\"a\"}, {\"var\":\"b\"}]}");
+		assertSame(tree, CommonSubexpressions.share(tree, Set.of()));
+	}
+
+	@Test
+	public void testPureOperationEvaluatedOnce() throws JsonLogicException {
+		final var calls = new AtomicInteger();
+		final var logic = new JsonLogic().addPureOperation("tier", (ev, args, path) -> { calls.incrementAndGet(); return ev.evaluate(args.get(0), path); });
+		final var rule  = "{\"or\":[{\"==\":[{\"tier\":[{\"var\":\"t\"}]}, \"gold\"]}, {\"==\":[{\"tier\":[{\"var\":\"t\"}]}, \"silver\"]}, {\"==\":[{\"tier\":[{\"var\":\"t\"}]}, \"bronze\"]}]}";
+		assertEquals(true, logic.apply(rule, Map.of("t", "bronze")));
+		assertEquals(1, calls.get());
+		assertEquals(false, logic.apply(rule, Map.of("t", "none")));
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	public void testCustomOperationNotShared() throws JsonLogicException {
+		final var calls = new AtomicInteger();
+		final var logic = new JsonLogic().addOperation("next", (ev, args, path) -> (double) calls.incrementAndGet());
+		assertEquals(List.of(1.0, 2.0), logic.apply("{\"merge\":[{\"next\":[]}, {\"next\":[]}]}", null));
+	}
+
+	@Test
+	public void testCompiledCustomOperationNotShared() throws JsonLogicException {
+		final var logic = new JsonLogic().addOperation("next", new Next(new AtomicInteger()));
+		assertEquals(List.of(1.0, 2.0), logic.apply("{\"merge\":[{\"next\":[]}, {\"next\":[]}]}", null));
+	}
+
+	@Test
+	public void testScopedBodiesKeepTheirData() throws JsonLogicException {
+		final var data = Map.of("x", 10, "items", List.of(1, 2, 3));
+		assertEquals(List.of(10.0, 2.0, 3.0, 4.0, 10.0), jsonLogic.apply("{\"merge\":[{\"var\":\"x\"}, {\"map\":[{\"var\":\"items\"}, {\"+\":[{\"var\":\"\"}, 1]}]}, {\"var\":\"x\"}]}", data));
+		assertEquals(List.of(2, 3), jsonLogic.apply("{\"filter\":[{\"var\":\"items\"}, {\"and\":[{\">\":[{\"var\":\"\"}, 1]}, {\"<\":[{\"var\":\"\"}, 5]}]}]}", Map.of("items", List.of(2, 3, 7))));
+		assertEquals(true, jsonLogic.apply("{\"and\":[{\"some\":[{\"var\":\"items\"}, {\">\":[{\"var\":\"\"}, 2]}]}, {\"all\":[{\"var\":\"items\"}, {\">\":[{\"var\":\"\"}, 0]}]}, {\"some\":[{\"var\":\"items\"}, {\">\":[{\"var\":\"\"}, 2]}]}]}", data));
+		assertEquals(18.0, jsonLogic.apply("{\"+\":[{\"reduce\":[{\"var\":\"items\"}, {\"+\":[{\"var\":\"current\"}, {\"var\":\"accumulator\"}]}, 0]}, {\"reduce\":[{\"var\":\"items\"}, {\"+\":[{\"var\":\"current\"}, {\"var\":\"accumulator\"}]}, 0]}, {\"var\":\"items.1\"}, 4]}", data));
+	}
+
+	@Test
+	public void testTranslatedRoot() throws JsonLogicException {
+		final var rule = share("{\"and\":[{\">\":[{\"var\":\"a\"}, 1]}, {\"<\":[{\"var\":\"a\"}, 5]}]}");
+		final var node = assertInstanceOf(CompiledNode.Memoized.class, BytecodeCompiler.compile(rule));
+		assertEquals(true , node.root().getClass().isHidden());
+		assertEquals(true , node.evaluate(scope(Map.of("a", 3))));
+		assertEquals(false, node.evaluate(scope(Map.of("a", 7))));
+	}
+
+	/** Custom operation with a compiled form of its own, which counts its calls. */
+	private record Next(AtomicInteger calls) implements JsonLogicExpressionFI, CompilableExpression {
+		@Override public Object evaluate(final JsonLogicEvaluator evaluator, final List<?> arguments, final PathSegment jsonPath) { return (double) calls.incrementAndGet(); }
+		@Override public CompiledNode compile(final JsonLogicCompiler compiler, final List<?> arguments, final PathSegment jsonPath) { return new Call(calls); }
+	}
+
+	private record Call(AtomicInteger calls) implements CompiledNode {
+		@Override public Object evaluate(final JsonLogicEvaluator scope) { return (double) calls.incrementAndGet(); }
+	}
+
+	private static CompiledNode share(final String rule) throws JsonLogicException { return CommonSubexpressions.share(compile(rule), Set.of()); }
+
+	private static CompiledNode compile(final String rule) throws JsonLogicException {
+		return new JsonLogicCompiler(jsonLogic.expressions()).compile(JsonLogicParser.parse(rule), PathSegment.ROOT);
+	}
+
+	private static JsonLogicEvaluator scope(final Object data) {
+		return new JsonLogicEvaluator(jsonLogic.expressions(), JsonLogic.NUMBER, data);
+	}
+}
@@ -0,0 +1,108 @@
+package io.github.jamsesso.jsonlogic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+
+public class CompiledRuleTests {
+	private static final JsonLogic jsonLogic = new JsonLogic();
+
+	@TestFactory
+	public Stream<DynamicTest> testFixturesMatchApply() {
+		return Differential.compare("fixtures.json", (rule, data) -> {
+			final var result = jsonLogic.apply(rule, data);
+			return Arrays.asList(result, JSON.truthy(result));
+		}, (rule, data) -> {
+			final var compiled = jsonLogic.compile(rule);
+			return Arrays.asList(compiled.evaluate(data), compiled.evaluateBoolean(data));
+		});
+	}
+
+	@Test
+	public void testPrimitiveResults() throws JsonLogicException {
+		final var rule = jsonLogic.compile(Map.of("+", List.of(Map.of("var", "a"), 1)));
+		assertEquals(3.0, rule.evaluateDouble(Map.of("a", 2)));
+		assertEquals(3.0, rule.evaluateDouble("{\"a\": 2}"));
+		assertTrue(rule.evaluateBoolean(Map.of("a", 2)));
+		assertTrue(Double.isNaN(jsonLogic.compile("{\"var\": \"a\"}").evaluateDouble(Map.of("a", "x"))));
+		assertFalse(jsonLogic.compile("{\"<\": [{\"var\": \"a\"}, 1]}").evaluateBoolean(Map.of("a", 2)));
+	}
+
+	@Test
+	public void testNestedListArguments() throws JsonLogicException {
+		final var data = Map.of("a", 2, "x", 3, "y", 7);
+		for (final var rule : List.of("{\"+\":[[{\"var\":\"a\"},1]]}", "{\"max\":[[{\"var\":\"x\"},{\"var\":\"y\"}]]}", "{\"+\":[[{\"var\":\"a\"}],2]}", "{\"*\":[[[{\"var\":\"x\"}],{\"var\":\"a\"}]]}")) {
+			final var compiled = jsonLogic.compile(rule);
+			assertNotNull(jsonLogic.apply(rule, data), rule);
+			assertEquals(jsonLogic.apply(rule, data), compiled.evaluate(data), rule);
+			assertEquals(jsonLogic.apply(rule, data), compiled.evaluate("{\"a\": 2, \"x\": 3, \"y\": 7}"), rule);
+		}
+	}
+
+	@Test
+	public void testBoundAtCompileTime() throws JsonLogicException {
+		final var logic = new JsonLogic().addOperation("double", (ev, args, path) -> 2 * ev.asDouble(args.get(0), path));
+		final var rule  = logic.compile("{\"double\": [{\"var\": \"a\"}]}");
+		logic.addOperation("double", (ev, args, path) -> 3 * ev.asDouble(args.get(0), path));
+		assertEquals(4.0, rule.evaluateDouble(Map.of("a", 2)));
+		final var e = assertThrows(JsonLogicEvaluationException.class, () -> jsonLogic.compile("{\"if\": [true, {\"==\": [1]}]}").evaluate(null));
+		assertEquals("$.if[1].==", e.getJsonPath());
+	}
+
+	@Test
+	public void testReentrantEvaluation() throws JsonLogicException {
+		// the operation evaluates the rule it is part of, while the frame of this thread is in use
+		final var self  = new CompiledRule[1];
+		final var logic = new JsonLogic().addOperation("sum", (ev, args, path) -> {
+			if (!(ev.evaluate(args.get(0), path) instanceof final Map<?, ?> m)) return 0.0;
+			try { return self[0].evaluate(m); } catch (final JsonLogicException e) { throw new JsonLogicEvaluationException(e.getMessage(), e, path); }
+		});
+		self[0] = logic.compile("{\"+\": [{\"var\": \"a\"}, {\"sum\": [{\"var\": \"next\"}]}, {\"var\": \"a\"}]}");
+		assertEquals(12.0, self[0].evaluate(Map.of("a", 1, "next", Map.of("a", 2, "next", Map.of("a", 3)))));
+		final var failing = logic.compile("{\"if\": [{\"var\": \"fail\"}, {\"==\": [1]}, {\"var\": \"a\"}]}");
+		assertThrows(JsonLogicEvaluationException.class, () -> failing.evaluate(Map.of("fail", true)));
+		assertEquals(5.0, failing.evaluate(Map.of("fail", false, "a", 5)));
+	}
+
+	@Test
+	public void testFramesRebindTheirEvaluator() {
+		final var evaluator = new JsonLogicEvaluator(jsonLogic.expressions(), JsonLogic.NUMBER, Map.of("a", 1));
+		assertEquals(evaluator, new JsonLogicEvaluator(jsonLogic.expressions(), JsonLogic.NUMBER, Map.of("a", 1)));
+		assertTrue(evaluator instanceof JsonLogicEvaluator(var ops, var number, var data, var memo) && data.equals(Map.of("a", 1)) && memo == null);
+		final var frame = new Frame(new CompiledNode.Constant(1.0), evaluator);
+		final var first = frame.enter(Map.of("a", 1));
+		final var hash  = first.hashCode();
+		assertTrue(first instanceof JsonLogicEvaluator(var ops, var number, var data, var memo) && data.equals(Map.of("a", 1)));
+		final var nested = frame.enter(Map.of("a", 3));
+		assertNotSame(first, nested);
+		assertEquals(Map.of("a", 3), nested.data());
+		frame.exit(nested);
+		assertEquals(Map.of("a", 1), first.data());
+		frame.exit(first);
+		final var next  = frame.enter(Map.of("a", 2));
+		assertSame(first, next);
+		assertEquals(Map.of("a", 2), next.data());
+		assertEquals(hash, next.hashCode());
+		frame.exit(next);
+		assertNull(next.data());
+	}
+}
@@ -0,0 +1,72 @@
+package io.github.jamsesso.jsonlogic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import io.github.jamsesso.jsonlogic.ast.JsonLogicParser;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicCompiler;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+
+public class CompilerTests {
+	private static final JsonLogic jsonLogic = new JsonLogic();
+
+	@TestFactory
+	public Stream<DynamicTest> testCompiledMatchesInterpreter() {
+		final var compiler = new JsonLogicCompiler(jsonLogic.expressions());
+		return Differential.compare("fixtures.json",
+			(rule, data) -> evaluator(data).evaluate(JsonLogicParser.parse(rule), PathSegment.ROOT),
+			(rule, data) -> compiler.compile(JsonLogicParser.parse(rule), PathSegment.ROOT).evaluate(evaluator(data)));
+	}
+
+	@Test
+	public void testArityErrorOnlyWhenReached() throws JsonLogicException {
+		assertEquals(1.0, jsonLogic.apply("{\"if\": [true, 1, {\"==\": [1]}]}", null));
+	}
+
+	@Test
+	public void testCustomOperationIsFallback() throws JsonLogicException {
+		final var compiler = new JsonLogicCompiler(Map.of("custom", (ev, args, path) -> ev.evaluate(args.get(0), path)));
+		final var node = compiler.compile(JsonLogicParser.parse("{\"custom\": [{\"var\": \"a\"}]}"), PathSegment.ROOT);
+		assertInstanceOf(CompiledNode.Fallback.class, node);
+		assertEquals(2.0, node.evaluate(new JsonLogicEvaluator(Map.of(), JsonLogic.NUMBER, Map.of("a", 2))));
+	}
+
+	@Test
+	public void testConstantVariablePath() throws JsonLogicException {
+		final var compiler = new JsonLogicCompiler(jsonLogic.expressions());
+		final var node = compiler.compile(JsonLogicParser.parse("{\"var\": \"a.1.b\"}"), PathSegment.ROOT);
+		assertInstanceOf(CompiledNode.PathVariable.class, node);
+		assertEquals(2.0 , node.evaluate(evaluator(Map.of("a", List.of(Map.of("b", 1), Map.of("b", 2))))));
+		assertEquals(null, node.evaluate(evaluator(Map.of("a", List.of(Map.of("b", 1))))));
+		final var e = assertThrows(JsonLogicEvaluationException.class, () -> node.evaluate(evaluator(List.of(1))));
+		assertEquals("$.var[0]", e.getJsonPath());
+		assertEquals(e.getMessage(), assertThrows(JsonLogicEvaluationException.class, () -> evaluator(List.of(1)).evaluate(JsonLogicParser.parse("{\"var\": \"a.1.b\"}"), PathSegment.ROOT)).getMessage());
+	}
+
+	@Test
+	public void testUnboxedArithmetic() throws JsonLogicException {
+		final var compiler = new JsonLogicCompiler(jsonLogic.expressions());
+		final var pricing  = compiler.compile(JsonLogicParser.parse("{\"*\":[{\"var\":\"qty\"},{\"-\":[{\"var\":\"price\"},{\"var\":\"discount\"}]}]}"), PathSegment.ROOT);
+		assertInstanceOf(Reduce.Arithmetic.class, pricing);
+		assertEquals(27.0, pricing.asDouble(evaluator(Map.of("qty", 3, "price", 10, "discount", 1))));
+		assertEquals(27.0, pricing.evaluate(evaluator(Map.of("qty", "3", "price", List.of(10), "discount", 1.0))));
+		assertEquals(null, pricing.evaluate(evaluator(Map.of("qty", 3, "price", "ten", "discount", 1))));
+		assertEquals(Double.NaN, compiler.compile(JsonLogicParser.parse("{\"/\":[0, {\"var\":\"a\"}]}"), PathSegment.ROOT).evaluate(evaluator(Map.of("a", 0))));
+		assertEquals(null, compiler.compile(JsonLogicParser.parse("{\"+\":[{\"var\":\"a\"}, 1]}"), PathSegment.ROOT).evaluate(evaluator(Map.of("a", List.of()))));
+	}
+
+	private static JsonLogicEvaluator evaluator(final Object data) {
+		return new JsonLogicEvaluator(jsonLogic.expressions(), JsonLogic.NUMBER, data);
+	}
+}
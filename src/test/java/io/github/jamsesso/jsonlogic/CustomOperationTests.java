@@ -1,9 +1,21 @@
 package io.github.jamsesso.jsonlogic;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
+import io.github.jamsesso.jsonlogic.ast.JsonLogicOperation;
+import io.github.jamsesso.jsonlogic.ast.JsonLogicParser;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+import io.github.jamsesso.jsonlogic.evaluator.Operators;
+
 public class CustomOperationTests {
 	private static final JsonLogic jsonLogic = new JsonLogic();
 
@@ -18,4 +30,39 @@ public class CustomOperationTests {
 		jsonLogic.addOperation("Greet", args -> String.format("Hello %s!", args[0]));
 		assertEquals("Hello json-logic!", jsonLogic.apply("{\"Greet\": [\"json-logic\"]}", null));
 	}
+
+	@Test
+	public void testRegisteredFunctionsGetEvaluatedArguments() throws JsonLogicException {
+		final var logic = new JsonLogic()
+			.addListOperation("count", values -> (double) values.size())
+			.addListOperation("first", values -> values.get(0))
+			.addOperation("pair", (Object[] args) -> args[0] + "/" + args[1]);
+		assertEquals("x", logic.apply("{\"first\": [{\"var\": \"a\"}, 2]}", Map.of("a", "x")));
+		assertEquals(3.0, logic.apply("{\"count\": {\"var\": \"list\"}}", Map.of("list", List.of(1, 2, 3))));
+		assertEquals("x/3.0", logic.apply("{\"pair\": [{\"var\": \"a\"}, {\"+\": [1, 2]}]}", Map.of("a", "x")));
+	}
+
+	@Test
+	public void testOperatorSnapshots() throws JsonLogicException {
+		final var logic  = new JsonLogic();
+		final var before = logic.expressions();
+		// parsed before "twice" exists, its handler is looked up in the snapshot that evaluates it
+		final var early  = (JsonLogicOperation) JsonLogicParser.parse("{\"twice\": [{\"+\": [1, 2]}]}");
+		logic.addOperation("twice", (ev, args, path) -> 2 * ev.asDouble(args.get(0), path));
+		assertNotSame(before, logic.expressions());
+		assertEquals(6.0, new JsonLogicEvaluator(logic.expressions(), JsonLogic.NUMBER, null).evaluate(early, PathSegment.ROOT));
+		final var evaluator = new JsonLogicEvaluator(logic.expressions(), JsonLogic.NUMBER, null);
+		assertSame(evaluator.operators(), evaluator.expressions());
+
+		final var rule = logic.compile("{\"twice\": [{\"var\": \"a\"}]}");
+		logic.addOperation("twice", (ev, args, path) -> 3 * ev.asDouble(args.get(0), path));
+		assertEquals(4.0, rule.evaluate(Map.of("a", 2)));
+		assertEquals(6.0, logic.apply("{\"twice\": [{\"var\": \"a\"}]}", Map.of("a", 2)));
+		assertThrows(UnsupportedOperationException.class, () -> logic.expressions().put("x", (ev, args, path) -> null));
+		assertEquals(List.of(), List.copyOf(Operators.of(Map.of()).keySet()));
+
+		// the interpreter still reports arity errors of operations it reaches
+		final var e = assertThrows(JsonLogicEvaluationException.class, () -> logic.apply("{\"twice\": [{\"==\": [1]}]}", null));
+		assertEquals("$.twice.==", e.getJsonPath());
+	}
 }
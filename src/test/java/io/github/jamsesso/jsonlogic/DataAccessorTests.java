@@ -0,0 +1,142 @@
+package io.github.jamsesso.jsonlogic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.JsonParser;
+
+import io.github.jamsesso.jsonlogic.ast.DataAccessor;
+import io.github.jamsesso.jsonlogic.ast.JSON;
+
+public class DataAccessorTests {
+	private static final JsonLogic jsonLogic = new JsonLogic();
+
+	private static final String DATA = "{\"user\":{\"name\":\"Zoë\",\"age\":31,\"tags\":[\"a\",{\"b\":[1,2.5]}],\"none\":null},"
+		+ "\"items\":[{\"price\":2,\"qty\":3},{\"price\":4.5,\"qty\":1}],\"flag\":true}";
+
+	private static final List<String> RULES = List.of(
+		"{\"var\":\"user.name\"}", "{\"var\":\"user.age\"}", "{\"var\":\"user.tags.1.b.1\"}", "{\"var\":\"user.tags.5\"}", "{\"var\":[\"user.none.x\",\"d\"]}",
+		"{\"var\":\"user.none\"}", "{\"var\":[\"user.missing\",\"d\"]}", "{\"var\":\"user.name.x\"}", "{\"var\":{\"cat\":[\"user.\",\"age\"]}}", "{\"var\":\"flag\"}",
+		"{\"missing\":[\"user.name\",\"user.none\",\"user.x\",\"items.1\"]}", "{\"missing_some\":[1,[\"x\",\"user.age\"]]}",
+		"{\"reduce\":[{\"var\":\"items\"},{\"+\":[{\"var\":\"accumulator\"},{\"*\":[{\"var\":\"current.price\"},{\"var\":\"current.qty\"}]}]},0]}",
+		"{\"map\":[{\"filter\":[{\"var\":\"items\"},{\">\":[{\"var\":\"price\"},3]}]},{\"var\":\"qty\"}]}", "{\"in\":[\"a\",{\"var\":\"user.tags\"}]}",
+		"{\"==\":[{\"var\":\"user.tags.1.b\"},[1,2.5]]}", "{\"merge\":[{\"var\":\"user.tags.1.b\"},{\"var\":\"user.age\"}]}", "{\"all\":[{\"var\":\"items\"},{\"var\":\"qty\"}]}");
+
+	private static String text(final Object result) { return JSON.write(result, new StringBuilder()).toString(); }
+
+	@Test
+	public void testTreesGiveSameResults() throws Exception {
+		final var trees = List.of(JsonParser.parseString(DATA), new JSONObject(DATA), new ObjectMapper().readTree(DATA));
+		for (final var rule : RULES) {
+			final var expected = text(jsonLogic.apply(rule, DATA));
+			for (final var tree : trees) assertEquals(expected, text(jsonLogic.apply(rule, tree)), rule + " on " + tree.getClass().getSimpleName());
+		}
+	}
+
+	@Test
+	public void testReadInPlace() throws Exception {
+		// toMap and toList copy the whole object, they must not be used
+		final var data = new JSONObject(DATA) {
+			@Override public Map<String, Object> toMap() { throw new AssertionError(); }
+		};
+		data.put("list", new JSONArray("[1,[2]]") {
+			@Override public List<Object> toList() { throw new AssertionError(); }
+		});
+		assertEquals("2", text(jsonLogic.apply("{\"var\":\"list.1.0\"}", data)));
+		assertEquals("Zoë", jsonLogic.apply("{\"var\":\"user.name\"}", data));
+		final var gson = JsonParser.parseString(DATA);
+		final var view = JSON.plain(gson);
+		assertInstanceOf(DataAccessor.Tree.class, view);
+		gson.getAsJsonObject().addProperty("added", "later");
+		assertEquals("later", ((Map<?, ?>) view).get("added"));
+		assertEquals(JSON.parse(DATA), JSON.plain(new ObjectMapper().readTree(DATA)));
+	}
+
+	@Test
+	public void testNulls() throws Exception {
+		for (final var tree : List.of(JsonParser.parseString(DATA), new JSONObject(DATA), new ObjectMapper().readTree(DATA))) {
+			assertNull(jsonLogic.apply("{\"var\":\"user.none\"}", tree));
+			assertEquals(Arrays.asList("x", null), JSON.plain(jsonLogic.apply("{\"merge\":[\"x\",{\"var\":\"user.none\"}]}", tree)));
+			assertEquals(List.of(), jsonLogic.apply("{\"missing\":[\"user.none\"]}", tree));
+		}
+		assertNull(JSON.plain(JSONObject.NULL));
+	}
+
+	/** Rows of names and values, read by a registered accessor. */
+	private record Row(List<String> names, List<Object> values) { }
+
+	@Test
+	public void testRegisteredAccessor() throws JsonLogicException {
+		DataAccessor.register(new DataAccessor() {
+			@Override public boolean accepts(final Object value) { return value instanceof Row; }
+			@Override public boolean isObject(final Object value) { return true; }
+			@Override public boolean isArray(final Object value) { return false; }
+			@Override public int size(final Object container) { return ((Row) container).names().size(); }
+			@Override public Iterator<String> keys(final Object object) { return ((Row) object).names().iterator(); }
+			@Override public Object element(final Object array, final int index) { return ABSENT; }
+			@Override public Object scalar(final Object value) { return null; }
+
+			@Override public Object member(final Object object, final String key) {
+				final var row = (Row) object;
+				final var i   = row.names().indexOf(key);
+				return i < 0 ? ABSENT : row.values().get(i);
+			}
+		});
+		final var row = new Row(List.of("id", "nested", "tags"), List.of(7.0, new Row(List.of("k"), List.of("v")), List.of("t")));
+		assertEquals("v", jsonLogic.apply("{\"var\":\"nested.k\"}", row));
+		assertEquals("t", jsonLogic.apply("{\"var\":\"tags.0\"}", row));
+		assertEquals(List.of("nested.x"), jsonLogic.apply("{\"missing\":[\"id\",\"nested.k\",\"nested.x\"]}", row));
+		assertEquals(Map.of("id", 7.0, "nested", Map.of("k", "v"), "tags", List.of("t")), JSON.plain(row));
+	}
+
+	public enum Status { OPEN, SHIPPED }
+
+	private record Item(String sku, int qty, double price) { }
+
+	private record Customer(String name, Address address) { }
+
+	public static class Address {
+		private final String city;
+
+		Address(final String city) { this.city = city; }
+
+		public String getCity() { return city; }
+		public boolean isVerified() { return true; }
+		public String getZIP() { return "K1A"; }
+		public String getCountryCode() { return null; }
+		public String describe() { return city; }
+	}
+
+	private record Order(String id, Customer customer, List<Item> items, Status status, LocalDate date, Item[] extras) { }
+
+	@Test
+	public void testRecordsAndBeans() throws JsonLogicException {
+		final var order = new Order("o-1", new Customer("Zoë", new Address("Ottawa")), List.of(new Item("a", 2, 1.5), new Item("b", 1, 10)),
+			Status.OPEN, LocalDate.of(2024, 1, 31), new Item[] { new Item("c", 4, 0.25) });
+		assertEquals("Ottawa", jsonLogic.apply("{\"var\":\"customer.address.city\"}", order));
+		assertEquals(true, jsonLogic.apply("{\"var\":\"customer.address.verified\"}", order));
+		assertEquals("K1A", jsonLogic.apply("{\"var\":\"customer.address.ZIP\"}", order));
+		assertEquals("d", jsonLogic.apply("{\"var\":[\"customer.address.describe\",\"d\"]}", order));
+		assertNull(jsonLogic.apply("{\"var\":[\"customer.address.countryCode\",\"d\"]}", order));
+		assertEquals(13.0, jsonLogic.apply("{\"reduce\":[{\"var\":\"items\"},{\"+\":[{\"var\":\"accumulator\"},{\"*\":[{\"var\":\"current.qty\"},{\"var\":\"current.price\"}]}]},0]}", order));
+		assertEquals(List.of("b"), jsonLogic.apply("{\"map\":[{\"filter\":[{\"var\":\"items\"},{\">\":[{\"var\":\"price\"},2]}]},{\"var\":\"sku\"}]}", order));
+		assertEquals(true, jsonLogic.apply("{\"and\":[{\"==\":[{\"var\":\"status\"},\"OPEN\"]},{\"==\":[{\"var\":\"date\"},\"2024-01-31\"]}]}", order));
+		assertEquals(4.0, jsonLogic.apply("{\"var\":\"extras.0.qty\"}", order));
+		assertEquals(List.of("x", "customer.phone"), jsonLogic.apply("{\"missing\":[\"x\",\"customer.name\",\"customer.phone\",\"customer.address.city\"]}", order));
+		final var customer = (Map<?, ?>) JSON.plain(order.customer());
+		assertEquals(List.of("name", "address"), List.copyOf(customer.keySet()));
+		assertEquals(List.of("ZIP", "city", "countryCode", "verified"), List.copyOf(((Map<?, ?>) customer.get("address")).keySet()));
+	}
+}
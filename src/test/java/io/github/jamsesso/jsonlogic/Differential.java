@@ -0,0 +1,28 @@
+package io.github.jamsesso.jsonlogic;
+
+import static io.github.jamsesso.jsonlogic.FixtureTests.readFixtures;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+
+import com.google.gson.JsonArray;
+
+import io.github.jamsesso.jsonlogic.utils.JsonValueExtractor;
+
+/** Replays a fixture file through two ways of evaluating a rule, as one test per fixture that names the rule and data when they differ. */
+final class Differential {
+	private Differential() { }
+
+	/** Result of a rule (given as JSON text) on the data of a fixture. */
+	@FunctionalInterface interface Evaluation { Object apply(String rule, Object data) throws Exception; }
+
+	static Stream<DynamicTest> compare(final String fileName, final Evaluation expected, final Evaluation actual) {
+		return readFixtures(fileName, (final JsonArray a) -> new Object[] { a.get(0).toString(), JsonValueExtractor.extract(a.get(1)) }).stream().map(fixture -> {
+			final var rule = (String) fixture[0];
+			return dynamicTest(rule, () -> assertEquals(expected.apply(rule, fixture[1]), actual.apply(rule, fixture[1]), () -> rule + " with data " + fixture[1]));
+		});
+	}
+}
@@ -2,15 +2,22 @@ package io.github.jamsesso.jsonlogic;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 
+import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.ast.JsonLogicParser;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicCompiler;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+
 public class InExpressionTests {
 	private static final JsonLogic jsonLogic = new JsonLogic();
 
@@ -71,4 +78,50 @@ public class InExpressionTests {
 	public void testBadSecondArgument() throws JsonLogicException {
 		assertFalse((boolean) jsonLogic.apply("{\"in\": [\"Spring\", 3]}", null));
 	}
+
+	private static final String[] LITERALS = { "null", "true", "false", "0", "1", "2.5", "-0", "\"\"", "\" \"", "\"0\"", "\"1\"", "\"2.5\"", "\"x\"", "[]", "[1]" };
+
+	@Test
+	public void testLiteralArrayMatchesLooseEquality() throws JsonLogicException {
+		final var optimized = new JsonLogic().optimizeRules(true);
+		for (final var needle : LITERALS) for (final var value : LITERALS) for (final var other : new String[] { "3", "\"y\"" }) {
+			final var data     = new HashMap<String, Object>();
+			data.put("n", JSON.parse(needle));
+			for (final var rule : new String[] { "{\"in\": [{\"var\": \"n\"}, [" + other + ", " + value + "]]}", "{\"in\": [" + needle + ", [" + value + ", " + other + "]]}" }) {
+				final var expected = interpret(rule, data);
+				assertEquals(expected, jsonLogic.compile(rule).evaluate(data), rule + " with " + needle);
+				assertEquals(expected, optimized.compile(rule).evaluate(data), rule + " with " + needle);
+			}
+		}
+	}
+
+	/** Result of the interpreter, which compares the needle with each element. */
+	private static Object interpret(final String rule, final Object data) throws JsonLogicException {
+		return new JsonLogicEvaluator(jsonLogic.expressions(), JsonLogic.NUMBER, data).evaluate(JsonLogicParser.parse(rule), PathSegment.ROOT);
+	}
+
+	@Test
+	public void testLargeAllowList() throws JsonLogicException {
+		final var values = Stream.iterate(0, i -> i + 1).limit(3000).map(i -> "\"id-" + i + "\"").collect(Collectors.joining(","));
+		final var rule   = jsonLogic.compile("{\"in\": [{\"var\": \"id\"}, [" + values + ", 42]]}");
+		assertEquals(true , rule.evaluate(Map.of("id", "id-2999")));
+		assertEquals(true , rule.evaluate(Map.of("id", 42)));
+		assertEquals(true , rule.evaluate(Map.of("id", "42.0")));
+		assertEquals(false, rule.evaluate(Map.of("id", "id-3000")));
+		assertEquals(false, rule.evaluate(Collections.emptyMap()));
+	}
+
+	@Test
+	public void testEqualityChainInOr() throws JsonLogicException {
+		final var text = "{\"or\": [{\"==\": [{\"var\": \"c\"}, \"US\"]}, {\"==\": [\"CA\", {\"var\": \"c\"}]}, {\"==\": [{\"var\": \"c\"}, 1]}]}";
+		assertInstanceOf(CompiledOperations.InSet.class, new JsonLogicCompiler(jsonLogic.expressions()).compile(JsonLogicParser.parse(text), PathSegment.ROOT));
+		final var rule = jsonLogic.compile(text);
+		for (final var c : new Object[] { "US", "CA", "MX", 1, "1", true, false, "" }) {
+			assertEquals(interpret(text, Map.of("c", c)), rule.evaluate(Map.of("c", c)), String.valueOf(c));
+		}
+		final var mixed = "{\"or\": [{\"var\": \"vip\"}, {\"==\": [{\"var\": \"c\"}, \"US\"]}, {\"==\": [{\"var\": \"c\"}, \"CA\"]}]}";
+		assertEquals("yes", jsonLogic.compile(mixed).evaluate(Map.of("vip", "yes", "c", "MX")));
+		assertEquals(true , jsonLogic.compile(mixed).evaluate(Map.of("vip", "", "c", "CA")));
+		assertEquals(false, jsonLogic.compile(mixed).evaluate(Map.of("vip", "", "c", "MX")));
+	}
 }
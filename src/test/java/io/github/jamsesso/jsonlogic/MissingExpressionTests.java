@@ -2,11 +2,25 @@ package io.github.jamsesso.jsonlogic;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.ast.JsonLogicParser;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicCompiler;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+import io.github.jamsesso.jsonlogic.evaluator.expressions.MissingExpression;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 
 public class MissingExpressionTests {
   private static final JsonLogic jsonLogic = new JsonLogic();
@@ -81,4 +95,86 @@ public class MissingExpressionTests {
 
     assertEquals(0, ((List) result).size());
   }
+
+  @Test
+  public void testNestedAndDottedKeys() throws JsonLogicException {
+    Map<String, Object> data = new HashMap<>();
+    data.put("a", Map.of("b", 1, "c", Map.of()));
+    data.put("x.y", Map.of("z", 2));
+    data.put("n", null);
+    data.put("list", List.of(1, 2));
+    data.put("ids", new TreeMap<>(Map.of(7, "seven")));
+    String rule = "{\"missing\": [\"a.b\", \"a\", \"a.c\", \"x.y.z\", \"x\", \"n\", \"list\", \"list.0\", \"ids.7\", \"a.b\", \"q\", \"q\"]}";
+
+    assertEquals(List.of("a", "a.c", "x", "list.0", "q"), jsonLogic.apply(rule, data));
+    assertEquals(List.of("a", "a.c", "x", "list.0", "q"), interpret(rule, data));
+    assertInstanceOf(MissingExpression.Compiled.class, compiled(rule));
+  }
+
+  @Test
+  public void testMatchesFlattenedKeys() throws JsonLogicException {
+    final var random = new Random(25);
+    final var names  = new String[] { "a", "b", "c.d", "", "7" };
+    for (var round = 0; round < 300; round++) {
+      final var data = randomMap(random, names, 3);
+      final var keys = new ArrayList<String>();
+      for (var i = random.nextInt(6); i > 0; i--) keys.add(randomKey(random, names));
+      final var flat = new LinkedHashSet<String>();
+      flatten(data, "", flat);
+      final var expected = new LinkedHashSet<Object>(keys);
+      expected.removeAll(flat);
+      final var count = random.nextInt(4);
+      final var quoted = JSON.write(keys, new StringBuilder()).toString();
+      final var some = keys.size() - expected.size() >= count ? List.of() : new ArrayList<>(expected);
+
+      assertEquals(new ArrayList<>(expected), jsonLogic.apply("{\"missing\": " + quoted + "}", data), quoted + " in " + data);
+      assertEquals(new ArrayList<>(expected), interpret("{\"missing\": " + quoted + "}", data), quoted + " in " + data);
+      assertEquals(some, jsonLogic.apply("{\"missing_some\": [" + count + ", " + quoted + "]}", data), count + " of " + quoted + " in " + data);
+      assertEquals(some, interpret("{\"missing_some\": [" + count + ", " + quoted + "]}", data), count + " of " + quoted + " in " + data);
+    }
+  }
+
+  @Test
+  public void testComputedKeys() throws JsonLogicException {
+    Map<String, Object> data = Map.of("a", Map.of("b", 1), "keys", List.of("a.b", "c"), "n", "1");
+    assertEquals(List.of("c"), jsonLogic.apply("{\"missing\": {\"var\": \"keys\"}}", data));
+    assertEquals(List.of("c", 1.0), jsonLogic.apply("{\"missing\": [{\"var\": \"keys.1\"}, \"a.b\", 1]}", data));
+    assertEquals(List.of(), jsonLogic.apply("{\"missing_some\": [{\"var\": \"n\"}, [\"a.b\", \"c\"]]}", data));
+    assertEquals(List.of("c"), jsonLogic.apply("{\"missing_some\": [2, {\"var\": \"keys\"}]}", data));
+  }
+
+  private static Object compiled(final String rule) throws JsonLogicException {
+    return new JsonLogicCompiler(jsonLogic.expressions()).compile(JsonLogicParser.parse(rule), PathSegment.ROOT);
+  }
+
+  private static Object interpret(final String rule, final Object data) throws JsonLogicException {
+    return new JsonLogicEvaluator(jsonLogic.expressions(), JsonLogic.NUMBER, data).evaluate(JsonLogicParser.parse(rule), PathSegment.ROOT);
+  }
+
+  /** The names {@code missing} used to compare with, every value that is not a map named by its keys joined with dots. */
+  private static void flatten(final Map<?, ?> map, final String prefix, final Set<String> names) {
+    for (final var entry : map.entrySet()) {
+      if (entry.getValue() instanceof final Map<?, ?> inner) flatten(inner, prefix + entry.getKey() + ".", names);
+      else names.add(prefix + entry.getKey());
+    }
+  }
+
+  private static Map<Object, Object> randomMap(final Random random, final String[] names, final int depth) {
+    final Map<Object, Object> map = random.nextInt(5) == 0 ? new TreeMap<>() : new LinkedHashMap<>();
+    for (var i = random.nextInt(4); i > 0; i--) {
+      final var name = names[random.nextInt(names.length)];
+      map.put(name, switch (depth == 0 ? 0 : random.nextInt(4)) {
+        case 0 -> random.nextBoolean() ? null : 1;
+        case 1 -> Arrays.asList(1, 2);
+        default -> randomMap(random, names, depth - 1);
+      });
+    }
+    return map;
+  }
+
+  private static String randomKey(final Random random, final String[] names) {
+    final var key = new StringBuilder(names[random.nextInt(names.length)]);
+    for (var i = random.nextInt(3); i > 0; i--) key.append('.').append(names[random.nextInt(names.length)]);
+    return key.toString();
+  }
 }
@@ -0,0 +1,81 @@
+package io.github.jamsesso.jsonlogic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.ast.JsonLogicParseException;
+
+public class NdjsonTests {
+	private static final JsonLogic jsonLogic = new JsonLogic();
+	private static final String    RULE      = "{\"if\":[{\">\":[{\"var\":\"n\"}, 2]}, {\"cat\":[\"big \", {\"var\":\"name\"}]}, {\"merge\":[{\"var\":\"n\"}, {\"var\":\"tags\"}]}]}";
+
+	@Test
+	public void testFileInOrder(@TempDir final Path dir) throws IOException, JsonLogicException {
+		final var input = new StringBuilder();
+		final var expected = new StringBuilder();
+		for (var i = 0; i < 30_000; i++) {
+			final var line = "{\"n\":" + (i % 5) + ",\"name\":\"r\\u00e9cord " + i + "\",\"tags\":[\"a\",1.5]}";
+			input.append(line).append(i % 7 == 0 ? "\r\n" : "\n");
+			if (i % 1000 == 0) input.append('\n');
+			JSON.write(jsonLogic.apply(RULE, line), expected).append('\n');
+		}
+		final var file = Files.writeString(dir.resolve("in.ndjson"), input, StandardCharsets.UTF_8);
+		final var out  = new ByteArrayOutputStream();
+		assertEquals(30_000, jsonLogic.applyNdjson(RULE, file, Channels.newChannel(out), ForkJoinPool.commonPool()));
+		assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+
+		final var streamed = new ByteArrayOutputStream();
+		assertEquals(30_000, jsonLogic.applyNdjson(RULE, Channels.newChannel(Files.newInputStream(file)), Channels.newChannel(streamed), ForkJoinPool.commonPool()));
+		assertEquals(expected.toString(), streamed.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testLongLinesAndLastLineWithoutBreak() throws IOException, JsonLogicException {
+		final var big   = "x".repeat(3 << 20);
+		final var input = "{\"name\":\"" + big + "\",\"n\":3}\n{\"n\":1,\"tags\":[]}";
+		final var out   = new ByteArrayOutputStream();
+		assertEquals(2, jsonLogic.applyNdjson(RULE, Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))), Channels.newChannel(out), ForkJoinPool.commonPool()));
+		assertEquals("\"big " + big + "\"\n[1]\n", out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testFailureIndex(@TempDir final Path dir) throws IOException {
+		final var file = Files.write(dir.resolve("bad.ndjson"), List.of("{\"n\":1}", "", "{\"n\":2}", "{\"n\":", "{\"n\":3}"));
+		final var e = assertThrows(JsonLogicBatchException.class, () -> jsonLogic.applyNdjson(RULE, file, Channels.newChannel(new ByteArrayOutputStream()), ForkJoinPool.commonPool()));
+		assertEquals(2, e.getIndex());
+		assertEquals(JsonLogicParseException.class, e.getCause().getClass());
+	}
+
+	@Test
+	public void testRuntimeFailureIndex(@TempDir final Path dir) throws IOException {
+		final var logic = new JsonLogic().addOperation("check", (ev, args, path) -> { if (ev.evaluate(args.get(0), path).equals(2.0)) throw new IllegalStateException("bad"); return true; });
+		final var file  = Files.write(dir.resolve("in.ndjson"), List.of("{\"n\":1}", "", "{\"n\":3}", "{\"n\":2}", "{\"n\":2}"));
+		final var e = assertThrows(JsonLogicBatchException.class, () -> logic.applyNdjson("{\"check\":[{\"var\":\"n\"}]}", file, Channels.newChannel(new ByteArrayOutputStream()), ForkJoinPool.commonPool()));
+		assertEquals(2, e.getIndex());
+		assertEquals(IllegalStateException.class, e.getCause().getClass());
+	}
+
+	@Test
+	public void testWrite() {
+		final var value = new LinkedHashMap<String, Object>();
+		value.put("a", Arrays.asList(1.0, 2.5, Double.NaN, true, "q\"\n\u0001", -0.0, 1e20));
+		value.put("b", null);
+		assertEquals("{\"a\":[1,2.5,null,true,\"q\\\"\\n\\u0001\",0,1.0E20],\"b\":null}", JSON.write(value, new StringBuilder()).toString());
+	}
+}
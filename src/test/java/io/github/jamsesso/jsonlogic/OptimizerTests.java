@@ -0,0 +1,75 @@
+package io.github.jamsesso.jsonlogic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import io.github.jamsesso.jsonlogic.ast.JsonLogicParser;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicCompiler;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+
+public class OptimizerTests {
+	private static final JsonLogic jsonLogic = new JsonLogic();
+	private static final JsonLogic optimized = new JsonLogic().optimizeRules(true);
+
+	@TestFactory
+	public Stream<DynamicTest> testFixturesUnchanged() {
+		return Differential.compare("fixtures.json", jsonLogic::apply, optimized::apply);
+	}
+
+	@TestFactory
+	public Stream<DynamicTest> testErrorFixturesUnchanged() {
+		return Differential.compare("error-fixtures.json", (rule, data) -> error(jsonLogic, rule, data), (rule, data) -> error(optimized, rule, data));
+	}
+
+	@Test
+	public void testFolding() throws JsonLogicException {
+		assertEquals(new CompiledNode.Constant(3.0) , optimize("{\"+\":[1,2]}"));
+		assertEquals(new CompiledNode.Constant(true), optimize("{\"and\":[{\"<\":[1,2]}, {\"!!\":[\"x\"]}]}"));
+		assertEquals(List.of(1.0, 2.0, 3.0), optimize("{\"merge\":[[1,2],3]}").evaluate(scope(null)));
+		assertInstanceOf(CompiledNode.ArrayLiteral.class, optimize("{\"merge\":[[1,2],3]}"));
+		assertInstanceOf(CompiledNode.Failure.class, optimize("{\"if\":[true, {\"==\":[1]}, 2]}"));
+		assertInstanceOf(CompiledOperations.Log.class, optimize("{\"log\":[{\"+\":[1,2]}]}"));
+		assertInstanceOf(Reduce.Compiled.class, optimize("{\"max\":[[{\"var\":\"x\"},{\"var\":\"y\"}]]}"));
+		assertEquals(7.0, optimize("{\"max\":[[{\"var\":\"x\"},{\"var\":\"y\"}]]}").evaluate(scope(Map.of("x", 3, "y", 7))));
+		assertEquals(new CompiledNode.Constant(6.0), optimize("{\"+\":[[[1,2],3]]}"));
+	}
+
+	@Test
+	public void testDeadBranchesAndFlattening() throws JsonLogicException {
+		assertInstanceOf(CompiledNode.PathVariable.class, optimize("{\"if\":[false, 1, true, {\"var\":\"x\"}, 3]}"));
+		final var chain = assertInstanceOf(CompiledOperations.AndOr.class, optimize("{\"and\":[{\"var\":\"a\"}, true, {\"and\":[{\"var\":\"b\"}, {\"var\":\"c\"}]}]}"));
+		assertEquals(3, chain.args().length);
+		final var sum = assertInstanceOf(Reduce.Arithmetic.class, optimize("{\"+\":[{\"+\":[{\"var\":\"a\"}, {\"var\":\"b\"}]}, {\"var\":\"c\"}]}"));
+		assertEquals(3, sum.operands().length);
+		final var compare = assertInstanceOf(CompiledOperations.Compare.class, optimize("{\"!!\":[{\"<\":[{\"var\":\"a\"}, 1]}]}"));
+		assertEquals(false, compare.evaluate(scope(Map.of("a", 2))));
+		assertInstanceOf(CompiledOperations.If.class, optimize("{\"if\":[{\"var\":\"a\"}, 1, false, 2, 3]}"));
+		assertEquals(3.0, optimize("{\"if\":[{\"var\":\"a\"}, 1, false, 2, 3]}").evaluate(scope(Map.of("a", false))));
+	}
+
+	private static CompiledNode optimize(final String rule) throws JsonLogicException {
+		final var tree = new JsonLogicCompiler(jsonLogic.expressions()).compile(JsonLogicParser.parse(rule), PathSegment.ROOT);
+		return new RuleOptimizer(scope(null)).optimize(tree);
+	}
+
+	private static JsonLogicEvaluator scope(final Object data) {
+		return new JsonLogicEvaluator(jsonLogic.expressions(), JsonLogic.NUMBER, data);
+	}
+
+	private static String error(final JsonLogic logic, final String rule, final Object data) {
+		try {
+			return "no error: " + logic.apply(rule, data);
+		} catch (final JsonLogicException e) {
+			return e.getMessage() + " at " + e.getJsonPath();
+		}
+	}
+}
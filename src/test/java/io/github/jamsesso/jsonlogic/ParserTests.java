@@ -0,0 +1,335 @@
+package io.github.jamsesso.jsonlogic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jamsesso.jsonlogic.ast.JSON;
+import io.github.jamsesso.jsonlogic.ast.JsonLogicParseException;
+import io.github.jamsesso.jsonlogic.ast.JsonParserBytes;
+import io.github.jamsesso.jsonlogic.ast.JsonParserString;
+import io.github.jamsesso.jsonlogic.ast.JsonTape;
+import io.github.jamsesso.jsonlogic.ast.Projection;
+
+public class ParserTests {
+	private static final JsonLogic jsonLogic = new JsonLogic();
+
+	/** The parsers of bytes and streams, each with its outcome: the value or the message of the exception. */
+	private interface Parse { Object parse(String json) throws IOException; }
+
+	private static final List<Parse> PARSERS = List.of(
+		json -> JsonParserBytes.parse(json.getBytes(StandardCharsets.UTF_8)),
+		json -> {
+			final var bytes  = json.getBytes(StandardCharsets.UTF_8);
+			final var padded = new byte[bytes.length + 7];
+			System.arraycopy(bytes, 0, padded, 3, bytes.length);
+			return JsonParserBytes.parse(padded, 3, bytes.length);
+		},
+		json -> JsonParserBytes.parse(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer()),
+		json -> {
+			final var bytes  = json.getBytes(StandardCharsets.UTF_8);
+			return JsonParserBytes.parse(ByteBuffer.allocateDirect(bytes.length).put(bytes).flip());
+		},
+		json -> JsonParserBytes.parse(trickle(json.getBytes(StandardCharsets.UTF_8))),
+		json -> JsonParserBytes.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))),
+		json -> JsonParserBytes.parse(trickle(new StringReader(json))),
+		json -> JsonParserBytes.parse(new StringReader(json)));
+
+	/** Delivers one byte per read, so that every token crosses a refill. */
+	private static InputStream trickle(final byte[] bytes) {
+		return new ByteArrayInputStream(bytes) {
+			@Override public synchronized int read(final byte[] b, final int off, final int len) { return super.read(b, off, Math.min(len, 1)); }
+		};
+	}
+
+	private static Reader trickle(final Reader reader) {
+		return new Reader() {
+			@Override public int read(final char[] b, final int off, final int len) throws IOException { return reader.read(b, off, Math.min(len, 1)); }
+			@Override public void close() { }
+		};
+	}
+
+	private static Object outcome(final Parse parser, final String json) {
+		try {
+			return parser.parse(json);
+		} catch (final IllegalStateException e) {
+			return e.getMessage();
+		} catch (final RuntimeException | IOException e) {
+			return RuntimeException.class;
+		}
+	}
+
+	private static void assertSameAsString(final String json) {
+		final var expected = outcome(JsonParserString::parse, json);
+		for (var i = 0; i < PARSERS.size(); i++) assertEquals(expected, outcome(PARSERS.get(i), json), "parser " + i + " of " + json);
+	}
+
+	@Test
+	public void testValues() {
+		final var json = "{\"a\":[1,-2.5e3,0.125,true,false,null],\"b\":{\"c\":\"\\u00e9t\\u00E9 \\\"q\\\" \\\\ \\/ \\n\\t\\b\\f\\r\"},"
+			+ "\"unicode\":\"h\u00e9llo \u4e16\u754c \ud83d\ude00\",\"\\ud83d\\ude00\":[],\"e\":{}}";
+		final var parsed = JsonParserBytes.parse(json.getBytes(StandardCharsets.UTF_8));
+		assertEquals(JsonParserString.parse(json), parsed);
+		assertEquals("h\u00e9llo \u4e16\u754c \ud83d\ude00", ((Map<?, ?>) parsed).get("unicode"));
+		assertSameAsString(json);
+	}
+
+	@Test
+	public void testBlankAndScalars() {
+		for (final var json : List.of("", " ", "\n\t\r ", "\f", " \u2003 ", "\f1", "1", "-0", "\"s\"", "true", "  null  ", "\u00a0", "\ufeff{}")) {
+			assertSameAsString(json);
+		}
+		assertNull(JsonParserBytes.parse(new byte[0]));
+	}
+
+	@Test
+	public void testErrors() {
+		for (final var json : List.of("{\"a\":tru}", "[1,,2]", "[1 2]", "{\"a\" 1}", "{1:2}", "[1]]", "{\"a\":1", "[01]", "[1.]", "[-]", "[1e]",
+				"\"\\u12x4\"", "\"\\u00\"", "\"open", "\"trailing\\", "[\"\u00e9\", \u00e9]", "\n\n  [1,\n  x]", "{\"\u4e16\":nul}", "[1] 2", ":")) {
+			assertSameAsString(json);
+		}
+	}
+
+	@Test
+	public void testRandomDocuments() {
+		final var random = new Random(16);
+		for (var n = 0; n < 500; n++) {
+			final var json = document(random, 0);
+			assertSameAsString(json);
+			// truncated and damaged text has to fail (or not) the same way
+			final var cut = random.nextInt(json.length() + 1);
+			if (cut == 0 || !Character.isLowSurrogate(json.charAt(cut - 1)) && !(cut < json.length() && Character.isLowSurrogate(json.charAt(cut)))) {
+				assertSameAsString(json.substring(0, cut));
+				final var at = random.nextInt(json.length());
+				if (!Character.isSurrogate(json.charAt(at))) assertSameAsString(json.substring(0, at) + "[:,}\"\\ 1x".charAt(random.nextInt(9)) + json.substring(at + 1));
+			}
+		}
+	}
+
+	private static String document(final Random random, final int depth) {
+		return switch (depth > 3 ? random.nextInt(4) : random.nextInt(6)) {
+		case 0 -> random.nextBoolean() ? "true" : random.nextBoolean() ? "false" : "null";
+		case 1 -> Double.toString((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12))).replace("E", random.nextBoolean() ? "e" : "E");
+		case 2 -> Integer.toString(random.nextInt(2000) - 1000);
+		case 3 -> string(random);
+		case 4 -> {
+			final var out = new StringBuilder("[");
+			for (var i = random.nextInt(5); i > 0; i--) out.append(document(random, depth + 1)).append(i > 1 ? "," : "");
+			yield out.append(']').toString();
+		}
+		default -> {
+			final var out = new StringBuilder("{\n");
+			for (var i = random.nextInt(5); i > 0; i--) out.append(string(random)).append(" : ").append(document(random, depth + 1)).append(i > 1 ? ",\r\n" : "");
+			yield out.append('}').toString();
+		}
+		};
+	}
+
+	private static String string(final Random random) {
+		final String[] pieces = { "a", "key", " ", "\u00e9", "\u4e16", "\ud83d\ude00", "\\n", "\\\"", "\\\\", "\\u00e9", "\\ud83d\\ude00", "x".repeat(300) };
+		final var out = new StringBuilder("\"");
+		for (var i = random.nextInt(6); i > 0; i--) out.append(pieces[random.nextInt(pieces.length)]);
+		return out.append('"').toString();
+	}
+
+	@Test
+	public void testApplyBytesAndStreams() throws JsonLogicException {
+		final var rule = "{\"cat\":[{\"var\":\"user.name\"}, \" \", {\"var\":\"user.age\"}]}";
+		final var data = "{\"user\":{\"name\":\"Zo\u00eb\",\"age\":31}}";
+		final var bytes = data.getBytes(StandardCharsets.UTF_8);
+		final var expected = jsonLogic.apply(rule, data);
+		assertEquals("Zo\u00eb 31", expected);
+		assertEquals(expected, jsonLogic.apply(rule, bytes));
+		assertEquals(expected, jsonLogic.apply(rule, ByteBuffer.wrap(bytes)));
+		assertEquals(expected, jsonLogic.apply(rule, new ByteArrayInputStream(bytes)));
+		assertEquals(expected, jsonLogic.apply(rule, new StringReader(data)));
+		assertEquals(expected, jsonLogic.compile(rule).evaluate(bytes));
+		assertEquals(List.of(expected, expected), jsonLogic.applyBatch(rule, List.of(bytes, new StringReader(data))));
+	}
+
+	@Test
+	public void testInvalidStream() {
+		final var e = assertThrows(JsonLogicParseException.class, () -> jsonLogic.apply("{\"var\":\"a\"}", new ByteArrayInputStream("{\"a\":".getBytes(StandardCharsets.UTF_8))));
+		if (!(e.getCause() instanceof RuntimeException)) fail(e);
+	}
+
+	@Test
+	public void testRulePaths() throws JsonLogicException {
+		assertEquals("{user:{country:*,age:*}}", jsonLogic.compile("{\"and\":[{\"var\":\"user.country\"},{\">\":[{\"var\":[\"user.age\",0]},18]}]}").projection().toString());
+		assertEquals("{items:*}", jsonLogic.compile("{\"map\":[{\"var\":\"items\"},{\"*\":[{\"var\":\"price\"},{\"var\":\"rate\"}]}]}").projection().toString());
+		assertEquals("{a:{b:*},c:*,1:*}", jsonLogic.compile("{\"or\":[{\"missing\":[\"a.b\",[\"c\"]]},{\"var\":1}]}").projection().toString());
+		assertEquals("{x:*}", jsonLogic.compileRuleSet(Map.of("r", "{\"var\":\"x.y\"}", "s", "{\"var\":\"x\"}")).projection().toString());
+		for (final var all : List.of("{\"var\":\"\"}", "{\"var\":[]}", "{\"var\":{\"var\":\"k\"}}", "{\"missing\":{\"merge\":[\"a\"]}}")) {
+			assertEquals(Projection.ALL, jsonLogic.compile(all).projection(), all);
+		}
+		final var custom = new JsonLogic().addListOperation("first", args -> args.get(0));
+		assertEquals(Projection.ALL, custom.compile("{\"first\":[{\"var\":\"a\"}]}").projection());
+	}
+
+	@Test
+	public void testProjectedApply() throws JsonLogicException {
+		final var data  = "{\"user\":{\"name\":\"Zo\u00eb\",\"tags\":[\"a\",{\"b\":[1,2]}],\"age\":31},\"a.b\":5,\"a\":{\"c\":1},\"items\":[{\"price\":2},{\"price\":3}],"
+			+ "\"list\":[10,[20,\"x\"],30],\"skip\":{\"deep\":[1,{\"x\":\"\\\"}\"}],\"s\":\"]\"}}";
+		for (final var rule : List.of("{\"cat\":[{\"var\":\"user.name\"},{\"var\":\"user.age\"}]}", "{\"var\":\"user.tags.1.b\"}", "{\"missing\":[\"a.b\",\"a.c\",\"a.d\"]}",
+				"{\"missing_some\":[1,[\"x\",\"user.age\"]]}", "{\"reduce\":[{\"var\":\"items\"},{\"+\":[{\"var\":\"accumulator\"},{\"var\":\"current.price\"}]},0]}",
+				"{\"var\":\"list.1.0\"}", "{\"var\":\"list\"}", "{\"filter\":[{\"var\":\"list\"},{\"var\":\"\"}]}", "{\"var\":{\"cat\":[\"user.\",\"age\"]}}", "{\"var\":\"\"}")) {
+			final var expected = jsonLogic.applyParsed(JSON.parse(rule), JSON.parse(data));
+			assertEquals(expected, jsonLogic.apply(rule, data), rule);
+			assertEquals(expected, jsonLogic.apply(rule, data.getBytes(StandardCharsets.UTF_8)), rule);
+			assertEquals(expected, jsonLogic.compile(rule).evaluate(new StringReader(data)), rule);
+		}
+		final var projection = jsonLogic.compile("{\"var\":\"list.1.0\"}").projection();
+		assertEquals(Map.of("list", Arrays.asList(null, Arrays.asList(20.0, null), null)), JsonParserString.parse(data, projection));
+	}
+
+	@Test
+	public void testProjectedParsers() throws IOException {
+		final var random = new Random(17);
+		final String[] keys = { "a", "key", "0", "1", "a.key", "\u00e9" };
+		for (var n = 0; n < 300; n++) {
+			final var json  = keyed(random, keys, 0);
+			final var paths = new ArrayList<List<String>>();
+			for (var i = random.nextInt(4); i > 0; i--) {
+				final var path = new ArrayList<String>();
+				for (var j = random.nextInt(3) + 1; j > 0; j--) path.add(keys[random.nextInt(keys.length)]);
+				paths.add(path);
+			}
+			final var projection = Projection.of(paths);
+			final var expected   = project(JsonParserString.parse(json), projection);
+			final var bytes      = json.getBytes(StandardCharsets.UTF_8);
+			assertEquals(expected, JsonParserString.parse(json, projection), json + " " + projection);
+			assertEquals(expected, JsonParserBytes.parse(bytes, 0, bytes.length, projection), json + " " + projection);
+			assertEquals(expected, JsonParserBytes.parse(trickle(bytes), projection), json + " " + projection);
+		}
+	}
+
+	/** What projected parsing has to build of {@code value}: members not kept are dropped, array elements not kept are {@code null}. */
+	private static Object project(final Object value, final Projection projection) {
+		if (projection == Projection.ALL) return value;
+		if (value instanceof final Map<?, ?> m) {
+			final var out = new LinkedHashMap<Object, Object>();
+			m.forEach((k, v) -> { final var p = projection.member((String) k); if (p != null) out.put(k, project(v, p)); });
+			return out;
+		}
+		if (value instanceof final List<?> l) {
+			final var out = new ArrayList<Object>();
+			for (var i = 0; i < l.size(); i++) out.add(projection.element(i) == null ? null : project(l.get(i), projection.element(i)));
+			return out;
+		}
+		return value;
+	}
+
+	private static String keyed(final Random random, final String[] keys, final int depth) {
+		return switch (depth > 3 ? random.nextInt(3) : random.nextInt(5)) {
+		case 0  -> Integer.toString(random.nextInt(100));
+		case 1  -> string(random);
+		case 2  -> random.nextBoolean() ? "true" : "null";
+		case 3  -> {
+			final var out = new StringBuilder("[");
+			for (var i = random.nextInt(4); i > 0; i--) out.append(keyed(random, keys, depth + 1)).append(i > 1 ? ", " : "");
+			yield out.append(']').toString();
+		}
+		default -> {
+			final var out = new StringBuilder("{");
+			for (var i = random.nextInt(4); i > 0; i--) out.append('"').append(keys[random.nextInt(keys.length)]).append("\":").append(keyed(random, keys, depth + 1)).append(i > 1 ? "," : "");
+			yield out.append('}').toString();
+		}
+		};
+	}
+
+	@Test
+	public void testTapeValues() {
+		final var random = new Random(18);
+		for (var n = 0; n < 500; n++) {
+			final var json   = document(random, 0);
+			final var parsed = JsonParserString.parse(json);
+			final var tape   = JsonTape.parse(json.getBytes(StandardCharsets.UTF_8));
+			assertEquals(parsed, tape, json);
+			assertEquals(tape, parsed, json);
+			assertEquals(parsed == null ? 0 : parsed.hashCode(), tape == null ? 0 : tape.hashCode(), json);
+		}
+		assertNull(JsonTape.parse(" \r\n".getBytes(StandardCharsets.UTF_8)));
+		final var padded = "xx[1, {\"a\" : \"b\"}]yy".getBytes(StandardCharsets.UTF_8);
+		assertEquals(List.of(1.0, Map.of("a", "b")), JsonTape.parse(padded, 2, padded.length - 4));
+		assertEquals(List.of(1.0, Map.of("a", "b")), JsonTape.parse(ByteBuffer.allocateDirect(padded.length).put(padded).flip().position(2).limit(padded.length - 2)));
+	}
+
+	@Test
+	public void testTapeMembers() {
+		final var duplicates = (Map<?, ?>) JsonTape.parse("{\"a\":1,\"b\":2,\"\\u0061\":3,\"b\":4}".getBytes(StandardCharsets.UTF_8));
+		assertEquals(Map.of("a", 1.0, "b", 2.0), duplicates);
+		assertEquals(JsonParserString.parse("{\"a\":1,\"b\":2,\"a\":3,\"b\":4}"), duplicates);
+		assertEquals(List.of("a", "b"), List.copyOf(duplicates.keySet()));
+		final var json = new StringBuilder("{");
+		for (var i = 0; i < 1000; i++) json.append('"').append(i % 3 == 0 ? "\u00e9" : "k").append(i).append("\":").append(i).append(',');
+		json.append("\"k1\":-1,\"k\\u0032\":-2,\"k2000\":2000}");
+		final var parsed = JsonParserString.parse(json.toString());
+		final var tape   = (Map<?, ?>) JsonTape.parse(json.toString().getBytes(StandardCharsets.UTF_8));
+		assertEquals(parsed, tape);
+		assertEquals(1001, tape.size());
+		assertEquals(1.0, tape.get("k1"));
+		assertEquals(2000.0, tape.get("k2000"));
+		assertEquals(999.0, tape.get("\u00e9999"));
+		assertNull(tape.get("k3"));
+		assertNull(tape.get("k10000"));
+	}
+
+	@Test
+	public void testTapeErrors() {
+		for (final var json : List.of("{\"a\":tru}", "[1,,2]", "[1 2]", "[1,]", "{\"a\":1,}", "{\"a\" 1}", "{1:2}", "[1]]", "{\"a\":1", "[01]", "[1.]", "[-]",
+				"\"\\u12x4\"", "\"\\u00\"", "\"open", "\"trailing\\", "[1] 2", ":", "{\"a\":1]", "[\u00a0]")) {
+			assertThrows(IllegalStateException.class, () -> JsonTape.parse(json.getBytes(StandardCharsets.UTF_8)), json);
+		}
+		final var e = assertThrows(IllegalStateException.class, () -> JsonTape.parse("{\n  \"a\": [1, x]}".getBytes(StandardCharsets.UTF_8)));
+		assertEquals("[2:11] Unexpected char at index 13", e.getMessage());
+		final var number = "  {\n  \"a\": [1, 2.e5]}  ".getBytes(StandardCharsets.UTF_8);
+		final var n = assertThrows(IllegalStateException.class, () -> JsonTape.parse(number, 2, number.length - 4));
+		assertEquals("[2:11] Expected digit after . at index 15", n.getMessage());
+	}
+
+	@Test
+	public void testTapeFixtures() throws JsonLogicException {
+		for (final var logic : List.of(new JsonLogic(), new JsonLogic().compileHotRules(1))) {
+			for (final var fixture : FixtureTests.readFixtures("fixtures.json", array -> array)) {
+				final var rule = fixture.get(0).toString();
+				final var data = fixture.get(1).toString();
+				assertEquals(result(logic, rule, data), result(logic, rule, JsonTape.parse(data.getBytes(StandardCharsets.UTF_8))), rule + " " + data);
+			}
+		}
+		final var data = "{\"user\":{\"name\":\"Zo\\u00eb\",\"tags\":[\"a\",{\"b\":[1,2.5e1]}]},\"n\":null}";
+		final var tape = JsonTape.parse(data.getBytes(StandardCharsets.UTF_8));
+		assertEquals(25.0, jsonLogic.apply("{\"var\":\"user.tags.1.b.1\"}", tape));
+		assertEquals("Zo\u00eb", jsonLogic.apply("{\"var\":\"user.name\"}", tape));
+		assertNull(jsonLogic.apply("{\"var\":[\"user.tags.2\"]}", tape));
+		assertNull(jsonLogic.apply("{\"var\":\"n.x\"}", tape));
+		assertNull(jsonLogic.apply("{\"var\":\"user.name.x\"}", tape));
+		assertEquals("d", jsonLogic.apply("{\"var\":[\"user.age\",\"d\"]}", tape));
+		assertThrows(JsonLogicException.class, () -> jsonLogic.apply("{\"var\":\"user.tags.x\"}", tape));
+	}
+
+	/** The result, or the type of the exception. */
+	private static Object result(final JsonLogic logic, final String rule, final Object data) {
+		try {
+			return logic.apply(rule, data);
+		} catch (final JsonLogicException | RuntimeException e) {
+			return e.getClass();
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package io.github.jamsesso.jsonlogic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jamsesso.jsonlogic.evaluator.CompilableExpression;
+import io.github.jamsesso.jsonlogic.evaluator.CompiledNode;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicCompiler;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluationException;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicEvaluator;
+import io.github.jamsesso.jsonlogic.evaluator.JsonLogicExpressionFI;
+
+public class RuleCacheTests {
+	@Test
+	public void testHitsAndMisses() throws JsonLogicException {
+		final var jsonLogic = new JsonLogic();
+		for (var i = 0; i < 3; i++) assertEquals(true, jsonLogic.apply("{\"==\":[{\"var\":\"a\"},1]}", Map.of("a", 1)));
+		final var stats = jsonLogic.cacheStats();
+		assertEquals(2, stats.hits());
+		assertEquals(1, stats.misses());
+		assertEquals(1, stats.size());
+		assertEquals(0, stats.rejections());
+	}
+
+	@Test
+	public void testWeightBound() {
+		final var cache = new RuleCache<String>(100);
+		for (var i = 0; i < 50; i++) {
+			final var key = "rule " + i;
+			assertNull(cache.get(key));
+			cache.put(key, key);
+		}
+		final var before = cache.stats();
+		assertTrue(before.weight() <= 100);
+		for (var i = 0; i < 3; i++) cache.get("frequent");
+		cache.put("frequent", "frequent");
+		final var stats = cache.stats();
+		assertTrue(stats.weight() <= 100);
+		assertTrue(stats.evictions() > before.evictions());
+		assertNotNull(cache.get("frequent"));
+	}
+
+	@Test
+	public void testFrequentRulesSurviveScan() {
+		final var cache = new RuleCache<String>(1000);
+		final var hot = "{\"var\":\"hot\"}";
+		for (var i = 0; i < 15; i++) { if (cache.get(hot) == null) cache.put(hot, hot); }
+		for (var i = 0; i < 1000; i++) {
+			final var once = "{\"var\":\"once" + i + "\"}";
+			if (cache.get(once) == null) cache.put(once, once);
+		}
+		assertEquals(hot, cache.get(hot));
+		assertTrue(cache.stats().rejections() > 0);
+	}
+
+	@Test
+	public void testNewcomerMustWinAgainstAllVictims() {
+		final var cache = new RuleCache<String>(20);
+		final var cold  = "a".repeat(8);
+		final var hot   = "b".repeat(8);
+		final var warm  = "c".repeat(18);
+		cache.put(cold, cold);
+		cache.put(hot, hot);
+		for (var i = 0; i < 4; i++) cache.get(hot);
+		for (var i = 0; i < 2; i++) assertNull(cache.get(warm));
+		cache.put(warm, warm);
+		final var stats = cache.stats();
+		assertEquals(0, stats.evictions());
+		assertEquals(1, stats.rejections());
+		assertEquals(2, stats.size());
+		assertEquals(20, stats.weight());
+		assertEquals(cold, cache.get(cold));
+	}
+
+	@Test
+	public void testResizeEvictsInPlace() throws JsonLogicException {
+		final var jsonLogic = new JsonLogic();
+		for (var i = 0; i < 3; i++) jsonLogic.apply("{\"var\":\"a" + i + "\"}", null);
+		assertEquals(3, jsonLogic.cacheStats().size());
+		jsonLogic.cacheWeight(20);
+		final var stats = jsonLogic.cacheStats();
+		assertTrue(stats.weight() <= 20);
+		assertEquals(1, stats.size());
+		assertEquals(2, stats.evictions());
+	}
+
+	@Test
+	public void testConcurrentReadsCountTowardsAdmission() throws InterruptedException {
+		final var cache = new RuleCache<String>(1000);
+		final var hot = "{\"var\":\"hot\"}";
+		cache.put(hot, hot);
+		final var threads = new Thread[8];
+		for (var t = 0; t < threads.length; t++) (threads[t] = new Thread(() -> { for (var i = 0; i < 10_000; i++) cache.get(hot); })).start();
+		for (final var thread : threads) thread.join();
+		for (var i = 0; i < 1000; i++) {
+			final var once = "{\"var\":\"once" + i + "\"}";
+			if (cache.get(once) == null) cache.put(once, once);
+		}
+		assertEquals(hot, cache.get(hot));
+		assertEquals(80_001, cache.stats().hits());
+	}
+
+	@Test
+	public void testWeigh() {
+		assertEquals("\"abc\"".length(), RuleCache.weigh("abc"));
+		assertEquals(2 + 3 + 2 + 2 * (4 + 1) + 2, RuleCache.weigh(Map.of("a", List.of(1.0, 2.0))));
+	}
+
+	@Test
+	public void testAddOperationClears() throws JsonLogicException {
+		final var jsonLogic = new JsonLogic().cacheWeight(10_000);
+		jsonLogic.apply("{\"var\":\"a\"}", null);
+		assertEquals(1, jsonLogic.cacheStats().size());
+		jsonLogic.addOperation("double", (ev, args, path) -> 2 * ev.asDouble(args.get(0), path));
+		assertEquals(0, jsonLogic.cacheStats().size());
+	}
+
+	@Test
+	public void testOperationAddedWhileCompiling() throws JsonLogicException {
+		final var jsonLogic = new JsonLogic();
+		// adds "late" while the rule is compiled against the snapshot without it, as a concurrent addOperation would
+		final class Registering implements JsonLogicExpressionFI, CompilableExpression {
+			@Override public Object evaluate(final JsonLogicEvaluator evaluator, final List<?> arguments, final PathSegment path) { return 1.0; }
+			@Override public CompiledNode compile(final JsonLogicCompiler compiler, final List<?> arguments, final PathSegment path) {
+				if (!compiler.expressions().containsKey("late")) jsonLogic.addOperation("late", (ev, args, p) -> 2.0);
+				return new CompiledNode.Constant(1.0);
+			}
+		}
+		jsonLogic.addOperation("registering", new Registering());
+		final var rule = "{\"+\":[{\"registering\":[]},{\"late\":[]}]}";
+		assertThrows(JsonLogicEvaluationException.class, () -> jsonLogic.apply(rule, null));
+		// cached after the clear, but compiled against the old operations, so it is compiled again
+		assertEquals(3.0, jsonLogic.apply(rule, null));
+		assertEquals(3.0, jsonLogic.apply(rule, null));
+		assertEquals(1, jsonLogic.cacheStats().size());
+	}
+}
@@ -0,0 +1,93 @@
+package io.github.jamsesso.jsonlogic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.jamsesso.jsonlogic.ast.JSON;
+
+public class RuleIndexTests {
+	private static final JsonLogic jsonLogic = new JsonLogic();
+
+	@Test
+	public void testMatching() throws JsonLogicException {
+		final var rules = new LinkedHashMap<String, Object>();
+		rules.put("eu"     , "{\"in\":[{\"var\":\"country\"}, [\"DE\", \"FR\", \"IT\"]]}");
+		rules.put("de-big" , "{\"and\":[{\"==\":[{\"var\":\"country\"}, \"DE\"]}, {\">=\":[{\"var\":\"amount\"}, 1000]}]}");
+		rules.put("small"  , "{\"<\":[{\"var\":\"amount\"}, 10]}");
+		rules.put("mid"    , "{\"<=\":[10, {\"var\":\"amount\"}, 100]}");
+		rules.put("express", "{\"===\":[\"express\", {\"var\":\"shipping.method\"}]}");
+		rules.put("always" , "{\"!\":[{\"var\":\"blocked\"}]}");
+		final var index = jsonLogic.compileRuleIndex(rules);
+		assertEquals(6, index.size());
+		assertEquals(List.of("always"), index.unindexed());
+		assertEquals(List.of("eu", "de-big", "always")        , index.matching(Map.of("country", "DE", "amount", 1000)));
+		assertEquals(List.of("eu", "mid", "express", "always"), index.matching(Map.of("country", "FR", "amount", 10, "shipping", Map.of("method", "express"))));
+		assertEquals(List.of("small")                         , index.matching("{\"country\":\"US\",\"amount\":\"5\",\"blocked\":true}"));
+		assertEquals(List.of("always")                        , index.matching(Map.of()));
+	}
+
+	@Test
+	public void testFailedLookupLeavesItToTheRule() throws JsonLogicException {
+		// "a.b" cannot be read from a list, but the rule only reads it when "isObj" is truthy
+		final var rule  = "{\"and\":[{\"var\":\"isObj\"},{\"==\":[{\"var\":\"a.b\"},1]}]}";
+		final var index = jsonLogic.compileRuleIndex(Map.of("guarded", rule));
+		final var data  = Map.of("isObj", false, "a", List.of(1));
+		assertEquals(false, jsonLogic.apply(rule, data));
+		assertEquals(List.of(), index.matching(data));
+		assertEquals(List.of("guarded"), index.matching(Map.of("isObj", true, "a", Map.of("b", 1))));
+	}
+
+	@Test
+	public void testReplacedOperatorNotIndexed() throws JsonLogicException {
+		final var logic = new JsonLogic().addOperation("==", (ev, args, path) -> true);
+		final var index = logic.compileRuleIndex(Map.of("x", "{\"==\":[{\"var\":\"a\"}, 1]}"));
+		assertEquals(List.of("x"), index.unindexed());
+		assertEquals(List.of("x"), index.matching(Map.of("a", 2)));
+	}
+
+	/** Loose equality and numeric conversion must never drop a rule the linear scan finds. */
+	@Test
+	public void testSameAsLinearScan() throws JsonLogicException {
+		final var random  = new Random(42);
+		final Object[] literals = { 0, 1, 2.5, -3, "0", "1", "2.5", "", " ", "a", "b", "1e0" };
+		final Object[] values   = { 0, 1, 2.5, -3, 7, "0", "1", " 1 ", "2.5", "", " ", "a", "b", "1e0", true, false, null, List.of(), List.of(1), List.of("a"), Map.of("k", 1) };
+		final var ops     = List.of("==", "===", "in", "<", "<=", ">", ">=", "between");
+		final var rules   = new LinkedHashMap<String, Object>();
+		for (var i = 0; i < 400; i++) {
+			final var conjuncts = new ArrayList<>();
+			for (var j = 1 + random.nextInt(2); j > 0; j--) {
+				final var op       = ops.get(random.nextInt(ops.size()));
+				final var variable = Map.of("var", "f" + random.nextInt(3));
+				final var number   = random.nextInt(7) - 3 + (random.nextBoolean() ? 0.5 : 0);
+				conjuncts.add(switch (op) {
+				case "in"         -> Map.of("in", List.of(variable, List.of(literals[random.nextInt(literals.length)], literals[random.nextInt(literals.length)])));
+				case "between"    -> Map.of(random.nextBoolean() ? "<" : "<=", List.of(number, variable, number + random.nextInt(4)));
+				case "==", "===" -> Map.of(op, random.nextBoolean() ? List.of(variable, literals[random.nextInt(literals.length)]) : List.of(literals[random.nextInt(literals.length)], variable));
+				default           -> Map.of(op, random.nextBoolean() ? List.of(variable, number) : List.of(number, variable));
+				});
+			}
+			rules.put("r" + i, conjuncts.size() == 1 ? conjuncts.get(0) : Map.of("and", conjuncts));
+		}
+		final var index = jsonLogic.compileRuleIndex(rules);
+		assertEquals(List.of(), index.unindexed());
+		var matches = 0;
+		for (var n = 0; n < 300; n++) {
+			final var record = new HashMap<String, Object>();
+			for (var f = 0; f < 3; f++) if (random.nextInt(5) > 0) record.put("f" + f, values[random.nextInt(values.length)]);
+			final var expected = new ArrayList<String>();
+			for (final var rule : rules.entrySet()) if (JSON.truthy(jsonLogic.apply(rule.getValue(), record))) expected.add(rule.getKey());
+			assertEquals(expected, index.matching(record), () -> "record " + record);
+			matches += expected.size();
+		}
+		assertTrue(matches > 300, "too few matches to compare: " + matches);
+	}
+}
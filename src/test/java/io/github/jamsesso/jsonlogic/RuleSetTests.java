@@ -0,0 +1,67 @@
+package io.github.jamsesso.jsonlogic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class RuleSetTests {
+	private static final JsonLogic jsonLogic = new JsonLogic();
+
+	@Test
+	public void testResultsByRuleId() throws JsonLogicException {
+		final var rules = new LinkedHashMap<String, Object>();
+		rules.put("adult"   , "{\">=\":[{\"var\":\"age\"}, 18]}");
+		rules.put("senior"  , "{\">=\":[{\"var\":\"age\"}, 65]}");
+		rules.put("discount", "{\"if\":[{\">=\":[{\"var\":\"age\"}, 65]}, 0.2, {\"in\":[{\"var\":\"country\"}, [\"DE\", \"AT\"]]}, 0.1, 0]}");
+		rules.put("same"    , "{\">=\":[{\"var\":\"age\"}, 18]}");
+		rules.put("parsed"  , Map.of("cat", List.of("hi ", Map.of("var", "name"))));
+		final var set = jsonLogic.compileRuleSet(rules);
+		assertEquals(5, set.size());
+		assertEquals(List.of("adult", "senior", "discount", "same", "parsed"), set.ids());
+
+		final var result = set.evaluate(Map.of("age", 70, "country", "DE", "name", "Ann"));
+		assertEquals(List.of("adult", "senior", "discount", "same", "parsed"), List.copyOf(result.keySet()));
+		assertEquals(true    , result.get("adult"));
+		assertEquals(true    , result.get("senior"));
+		assertEquals(0.2     , result.get("discount"));
+		assertEquals(true    , result.get("same"));
+		assertEquals("hi Ann", result.get("parsed"));
+
+		final var data  = Map.of("age", 30, "country", "AT", "name", "Bo");
+		final var young = set.evaluate("{\"age\":30,\"country\":\"AT\",\"name\":\"Bo\"}");
+		for (final var rule : rules.entrySet()) assertEquals(jsonLogic.apply(rule.getValue(), data), young.get(rule.getKey()));
+	}
+
+	@Test
+	public void testSharedBetweenRules() throws JsonLogicException {
+		final var calls = new AtomicInteger();
+		final var logic = new JsonLogic().addPureOperation("tier", (ev, args, path) -> { calls.incrementAndGet(); return ev.evaluate(args.get(0), path); });
+		final var set   = logic.compileRuleSet(Map.of(
+				"gold"  , "{\"==\":[{\"tier\":[{\"var\":\"t\"}]}, \"gold\"]}",
+				"silver", "{\"==\":[{\"tier\":[{\"var\":\"t\"}]}, \"silver\"]}",
+				"any"   , "{\"!!\":[{\"tier\":[{\"var\":\"t\"}]}]}"));
+		assertEquals(Map.of("gold", false, "silver", true, "any", true), set.evaluate(Map.of("t", "silver")));
+		assertEquals(1, calls.get());
+		assertEquals(Map.of("gold", false, "silver", false, "any", false), set.evaluate(Map.of()));
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	public void testScopedBodies() throws JsonLogicException {
+		final var set = jsonLogic.compileRuleSet(Map.of(
+				"big"  , "{\"filter\":[{\"var\":\"items\"}, {\">\":[{\"var\":\"\"}, 4]}]}",
+				"none" , "{\"filter\":[{\"var\":\"items\"}, {\">\":[{\"var\":\"\"}, {\"var\":\"min\"}]}]}",
+				"min"  , "{\"var\":\"min\"}",
+				"count", "{\"reduce\":[{\"var\":\"items\"}, {\"+\":[{\"var\":\"accumulator\"}, 1]}, 0]}"));
+		final var result = set.evaluate(Map.of("items", List.of(1, 5, 9), "min", 4));
+		assertEquals(List.of(5, 9), result.get("big"));
+		assertEquals(List.of()    , result.get("none")); // "min" of an item, not of the record
+		assertEquals(4.0          , result.get("min"));
+		assertEquals(3.0          , result.get("count"));
+	}
+}
@@ -2,16 +2,21 @@ package io.github.jamsesso.jsonlogic;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
+import io.github.jamsesso.jsonlogic.ast.JSON;
+
 public class VariableTests {
 	private static final JsonLogic jsonLogic = new JsonLogic();
 
@@ -205,6 +210,42 @@ public class VariableTests {
 		// assertSame("Should return the same data instance",data, result);
 	}
 
+	@Test
+	public void testPrimitiveArraysAndIterables() throws JsonLogicException {
+		final var samples = new double[] { 1.5, 7, -0.0, 2048 };
+		final var data    = map("samples", samples, "ids", new int[] { 3, 4000 }, "flags", new boolean[] { false, true },
+			"tags", new LinkedHashSet<>(List.of("a", "b")), "queue", (Iterable<Object>) () -> List.<Object>of(5.0, 6.0).iterator());
+		assertEquals(7.0, jsonLogic.apply("{\"var\": \"samples.1\"}", data));
+		assertEquals(List.of(7.0, 2048.0), jsonLogic.apply("{\"filter\": [{\"var\": \"samples\"}, {\">\": [{\"var\": \"\"}, 2]}]}", data));
+		assertEquals(4000.0, jsonLogic.apply("{\"var\": \"ids.1\"}", data));
+		assertEquals(true, jsonLogic.apply("{\"var\": \"flags.1\"}", data));
+		assertEquals("b", jsonLogic.apply("{\"var\": \"tags.1\"}", data));
+		assertEquals(true, jsonLogic.apply("{\"in\": [\"a\", {\"var\": \"tags\"}]}", data));
+		assertEquals(11.0, jsonLogic.apply("{\"reduce\": [{\"var\": \"queue\"}, {\"+\": [{\"var\": \"current\"}, {\"var\": \"accumulator\"}]}, 0]}", data));
+		assertEquals(6.0, jsonLogic.apply("{\"var\": \"queue.1\"}", data));
+
+		// views read the array as it is, small integral values are shared and -0.0 keeps its sign
+		final var view = JSON.asList(samples);
+		samples[0] = 12;
+		assertEquals(12.0, view.get(0));
+		assertSame(view.get(0), JSON.asList(new int[] { 12 }).get(0));
+		assertEquals(-0.0, view.get(2));
+		assertEquals(List.of(12.0, 7.0, -0.0, 2048.0), view);
+	}
+
+	@Test
+	public void testIterableCopiedOncePerEvaluation() throws JsonLogicException {
+		final var copies = new AtomicInteger();
+		final var data   = map("queue", (Iterable<Object>) () -> { copies.incrementAndGet(); return List.<Object>of(5.0, 6.0, 7.0).iterator(); });
+		final var rule   = "{\"+\": [{\"var\": \"queue.0\"}, {\"var\": \"queue.1\"}, {\"var\": [\"queue.2\"]}, {\"var\": {\"cat\": [\"queue.\", 1]}}]}";
+		assertEquals(24.0, jsonLogic.apply(rule, data));
+		assertEquals(1, copies.get());
+		final var compiled = jsonLogic.compile(rule);
+		assertEquals(24.0, compiled.evaluate(data));
+		assertEquals(24.0, compiled.evaluate(data));
+		assertEquals(3, copies.get());
+	}
+
 	/** Helper to make small maps concisely. */
 	private static Map<String, Object> map(final Object... kv) {
 		final Map<String, Object> m = new HashMap<>();